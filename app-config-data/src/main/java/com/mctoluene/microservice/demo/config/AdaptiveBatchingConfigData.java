@@ -0,0 +1,26 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("adaptive-batching-config")
+public class AdaptiveBatchingConfigData {
+    private Boolean enabled;
+    private Goal goal;
+    private Long evaluationIntervalMs;
+    private Integer targetLatencyMs;
+    private Integer targetRecordsPerSecond;
+    private Integer minLingerMs;
+    private Integer maxLingerMs;
+    private Integer lingerStepMs;
+    private Integer minBatchSize;
+    private Integer maxBatchSize;
+
+    public enum Goal {
+        LATENCY, THROUGHPUT
+    }
+}
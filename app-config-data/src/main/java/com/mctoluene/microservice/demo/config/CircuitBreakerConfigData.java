@@ -0,0 +1,24 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("circuit-breaker-config")
+public class CircuitBreakerConfigData {
+    private Boolean enabled;
+    private Integer windowSize;
+    private Double failureRateThreshold;
+    private Long slowCallDurationMs;
+    private Double slowCallRateThreshold;
+    private Long openDurationMs;
+    private Integer halfOpenPermittedCalls;
+    private Fallback fallback;
+
+    public enum Fallback {
+        DROP, SPILL
+    }
+}
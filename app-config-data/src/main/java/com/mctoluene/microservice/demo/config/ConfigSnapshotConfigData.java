@@ -0,0 +1,15 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("config-snapshot-config")
+public class ConfigSnapshotConfigData {
+    private Boolean enabled;
+    private String path;
+    private Long maxAgeMs;
+}
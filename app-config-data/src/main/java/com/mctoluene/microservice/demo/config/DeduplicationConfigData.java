@@ -0,0 +1,15 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("deduplication-config")
+public class DeduplicationConfigData {
+    private Boolean enabled;
+    private Long ttlMs;
+    private Integer maxEntries;
+}
@@ -0,0 +1,14 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("executor-config")
+public class ExecutorConfigData {
+    private Boolean virtualThreads;
+    private Long shutdownTimeoutMs;
+}
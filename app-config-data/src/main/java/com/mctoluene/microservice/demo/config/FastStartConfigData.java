@@ -0,0 +1,18 @@
+package com.mctoluene.microservice.demo.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("fast-start-config")
+public class FastStartConfigData {
+    private Boolean enabled;
+    private List<String> lazyBeans;
+    private Integer reportSlowestSteps;
+    private Boolean trainingRun;
+}
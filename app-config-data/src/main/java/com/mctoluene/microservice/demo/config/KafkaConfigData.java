@@ -18,4 +18,6 @@ public class KafkaConfigData {
     private List<String> topicNamesToCreate;
     private Integer numberOfPartitions;
     private Short replicationFactor;
+    private Boolean reconcileTopics;
+    private Integer valueSchemaVersion;
 }
@@ -18,4 +18,22 @@ public class KafkaProducerConfigData {
     private Integer lingerMs;
     private Integer requestTimeoutMs;
     private Integer retryCount;
+    private String partitionerClass;
+    private Double partitionerMaxLoadFactor;
+    private Integer producerPoolSize;
+    private ProducerPoolRouting producerPoolRouting;
+    private DeliverySemantics deliverySemantics;
+    private Integer maxInFlightRequestsPerConnection;
+    private String transactionalIdPrefix;
+    private Integer transactionMaxRecords;
+    private Long transactionMaxMs;
+    private Long refreshDrainTimeoutMs;
+
+    public enum ProducerPoolRouting {
+        ROUND_ROBIN, THREAD_AFFINITY, PARTITION_AFFINITY
+    }
+
+    public enum DeliverySemantics {
+        AT_LEAST_ONCE, IDEMPOTENT, TRANSACTIONAL
+    }
 }
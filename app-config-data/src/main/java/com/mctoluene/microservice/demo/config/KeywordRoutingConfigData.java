@@ -0,0 +1,22 @@
+package com.mctoluene.microservice.demo.config;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("keyword-routing-config")
+public class KeywordRoutingConfigData {
+    private Boolean enabled;
+    private List<Route> routes;
+
+    @Data
+    public static class Route {
+        private String topic;
+        private List<String> keywords;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("log-sampling-config")
+public class LogSamplingConfigData {
+    private Long intervalMs;
+}
@@ -0,0 +1,21 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("rate-limiter-config")
+public class RateLimiterConfigData {
+    private Boolean enabled;
+    private Integer minRecordsPerSecond;
+    private Integer maxRecordsPerSecond;
+    private Integer additiveIncrease;
+    private Double multiplicativeDecrease;
+    private Long adjustIntervalMs;
+    private Double errorRateThreshold;
+    private Long latencyThresholdMs;
+    private Long maxWaitMs;
+}
@@ -0,0 +1,18 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("spill-journal-config")
+public class SpillJournalConfigData {
+    private Boolean enabled;
+    private String directory;
+    private Integer segmentSizeBytes;
+    private Integer replayBatchSize;
+    private Long replayIntervalMs;
+    private Integer producerMaxBlockMs;
+}
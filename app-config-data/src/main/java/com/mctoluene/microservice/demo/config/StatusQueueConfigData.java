@@ -0,0 +1,21 @@
+package com.mctoluene.microservice.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Data
+@Configuration
+@ConfigurationProperties("status-queue-config")
+public class StatusQueueConfigData {
+    private Boolean enabled;
+    private Integer capacity;
+    private Integer workerCount;
+    private Integer batchSize;
+    private OverflowPolicy overflowPolicy;
+
+    public enum OverflowPolicy {
+        BLOCK, DROP_OLDEST, SPILL
+    }
+}
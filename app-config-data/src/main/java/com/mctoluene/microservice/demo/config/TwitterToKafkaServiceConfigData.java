@@ -20,4 +20,18 @@ public class TwitterToKafkaServiceConfigData {
     private Integer mockMinTweetLength;
     private Integer mockMaxTweetLength;
     private Long mockSleepMs;
+    private Boolean mockLoadGeneratorEnabled;
+    private Integer mockTargetTweetsPerSecond;
+    private Integer mockGeneratorThreads;
+    private Integer mockTemplateCount;
+    private Integer mockBatchSize;
+    private Long mockRandomSeed;
+    private Integer keywordShardCount;
+    private RecordKey recordKey;
+    private Long initTimeoutMs;
+    private Boolean bufferWhileInitializing;
+
+    public enum RecordKey {
+        USER_ID, TWEET_ID, KEYWORD, ROUND_ROBIN
+    }
 }
@@ -0,0 +1,206 @@
+package com.mctoluene.microservice.demo.benchmarks;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.CircuitBreakerConfigData;
+import com.mctoluene.microservice.demo.config.CircuitBreakerConfigData.Fallback;
+import com.mctoluene.microservice.demo.config.DeduplicationConfigData;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.DeliverySemantics;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+import com.mctoluene.microservice.demo.config.KeywordRoutingConfigData;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.MetricsConfigData;
+import com.mctoluene.microservice.demo.config.RateLimiterConfigData;
+import com.mctoluene.microservice.demo.config.SpillJournalConfigData;
+import com.mctoluene.microservice.demo.config.StatusQueueConfigData;
+import com.mctoluene.microservice.demo.config.StatusQueueConfigData.OverflowPolicy;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.KafkaProducer;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword.KeywordTagger;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword.KeywordTopicRouter;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.TwitterStatusPublisher;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key.UserIdKeyStrategy;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.queue.StatusDispatcher;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public final class BenchmarkFixtures {
+    public static final String LOGBACK_CONFIGURATION = "-Dlogback.configurationFile=logback-benchmark.xml";
+    public static final String TOPIC_NAME = "twitter-topic";
+    public static final List<String> KEYWORDS = List.of("Java", "Microservices", "Kafka", "Elasticsearch");
+    public static final String STATUS_JSON = "{" +
+            "\"created_at\":\"Thu Aug 11 10:15:30 UTC 2022\"," +
+            "\"id\":\"1557658329045606401\"," +
+            "\"text\":\"Neque porro quisquam est Kafka qui dolorem ipsum quia dolor\"," +
+            "\"user\":{\"id\":\"1253678012598759424\"}" +
+            "}";
+
+    private BenchmarkFixtures() {
+    }
+
+    public static KafkaConfigData kafkaConfigData() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName(TOPIC_NAME);
+        kafkaConfigData.setTopicNamesToCreate(List.of(TOPIC_NAME));
+        kafkaConfigData.setNumberOfPartitions(3);
+        kafkaConfigData.setReplicationFactor((short) 3);
+        return kafkaConfigData;
+    }
+
+    public static KafkaProducerConfigData kafkaProducerConfigData(DeliverySemantics deliverySemantics,
+            int transactionMaxRecords) {
+        KafkaProducerConfigData kafkaProducerConfigData = new KafkaProducerConfigData();
+        kafkaProducerConfigData.setKeySerializerClass("org.apache.kafka.common.serialization.LongSerializer");
+        kafkaProducerConfigData.setValueSerializerClass(
+                "com.mctoluene.microservice.demo.kafka.producer.config.serializer.SpecificAvroSerializer");
+        kafkaProducerConfigData.setCompressionType("snappy");
+        kafkaProducerConfigData.setAcks("all");
+        kafkaProducerConfigData.setBatchSize(1634);
+        kafkaProducerConfigData.setBatchSizeBoostFactor(100);
+        kafkaProducerConfigData.setLingerMs(5);
+        kafkaProducerConfigData.setRequestTimeoutMs(60_000);
+        kafkaProducerConfigData.setRetryCount(5);
+        kafkaProducerConfigData.setProducerPoolSize(1);
+        kafkaProducerConfigData.setProducerPoolRouting(ProducerPoolRouting.ROUND_ROBIN);
+        kafkaProducerConfigData.setDeliverySemantics(deliverySemantics);
+        kafkaProducerConfigData.setMaxInFlightRequestsPerConnection(5);
+        kafkaProducerConfigData.setTransactionalIdPrefix("twitter-to-kafka-benchmark");
+        kafkaProducerConfigData.setTransactionMaxRecords(transactionMaxRecords);
+        kafkaProducerConfigData.setTransactionMaxMs(100L);
+        kafkaProducerConfigData.setRefreshDrainTimeoutMs(30_000L);
+        return kafkaProducerConfigData;
+    }
+
+    public static TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData() {
+        TwitterToKafkaServiceConfigData configData = new TwitterToKafkaServiceConfigData();
+        configData.setTwitterKeywords(KEYWORDS);
+        configData.setMockMinTweetLength(5);
+        configData.setMockMaxTweetLength(10);
+        configData.setMockSleepMs(0L);
+        return configData;
+    }
+
+    public static TwitterAvroModel twitterAvroModel() {
+        return TwitterAvroModel.newBuilder()
+                .setId(1557658329045606401L)
+                .setUserId(1253678012598759424L)
+                .setText("Neque porro quisquam est Kafka qui dolorem ipsum quia dolor")
+                .setCreatedAt(Instant.ofEpochMilli(1660212930000L))
+                .setKeyword("Kafka")
+                .setKeywords(List.of("Kafka"))
+                .setLang("en")
+                .build();
+    }
+
+    public static ManagedExecutors managedExecutors() {
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(true);
+        executorConfigData.setShutdownTimeoutMs(10_000L);
+        return new ManagedExecutors(executorConfigData);
+    }
+
+    public static MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    public static MetricsConfigData metricsConfigData() {
+        MetricsConfigData metricsConfigData = new MetricsConfigData();
+        metricsConfigData.setTimerSampleRate(8);
+        return metricsConfigData;
+    }
+
+    public static SpillJournalConfigData spillJournalConfigData(boolean enabled, String directory) {
+        SpillJournalConfigData spillJournalConfigData = new SpillJournalConfigData();
+        spillJournalConfigData.setEnabled(enabled);
+        spillJournalConfigData.setDirectory(directory);
+        spillJournalConfigData.setSegmentSizeBytes(64 * 1024 * 1024);
+        spillJournalConfigData.setReplayBatchSize(500);
+        spillJournalConfigData.setReplayIntervalMs(5_000L);
+        spillJournalConfigData.setProducerMaxBlockMs(1_000);
+        return spillJournalConfigData;
+    }
+
+    public static CircuitBreakerConfigData circuitBreakerConfigData(boolean enabled) {
+        CircuitBreakerConfigData circuitBreakerConfigData = new CircuitBreakerConfigData();
+        circuitBreakerConfigData.setEnabled(enabled);
+        circuitBreakerConfigData.setWindowSize(200);
+        circuitBreakerConfigData.setFailureRateThreshold(0.5);
+        circuitBreakerConfigData.setSlowCallDurationMs(5_000L);
+        circuitBreakerConfigData.setSlowCallRateThreshold(0.5);
+        circuitBreakerConfigData.setOpenDurationMs(10_000L);
+        circuitBreakerConfigData.setHalfOpenPermittedCalls(20);
+        circuitBreakerConfigData.setFallback(Fallback.DROP);
+        return circuitBreakerConfigData;
+    }
+
+    public static RateLimiterConfigData rateLimiterConfigData(boolean enabled, int maxRecordsPerSecond) {
+        RateLimiterConfigData rateLimiterConfigData = new RateLimiterConfigData();
+        rateLimiterConfigData.setEnabled(enabled);
+        rateLimiterConfigData.setMinRecordsPerSecond(100);
+        rateLimiterConfigData.setMaxRecordsPerSecond(maxRecordsPerSecond);
+        rateLimiterConfigData.setAdditiveIncrease(1_000);
+        rateLimiterConfigData.setMultiplicativeDecrease(0.5);
+        rateLimiterConfigData.setAdjustIntervalMs(1_000L);
+        rateLimiterConfigData.setErrorRateThreshold(0.05);
+        rateLimiterConfigData.setLatencyThresholdMs(2_000L);
+        rateLimiterConfigData.setMaxWaitMs(1_000L);
+        return rateLimiterConfigData;
+    }
+
+    public static DeduplicationConfigData deduplicationConfigData(boolean enabled) {
+        DeduplicationConfigData deduplicationConfigData = new DeduplicationConfigData();
+        deduplicationConfigData.setEnabled(enabled);
+        deduplicationConfigData.setTtlMs(600_000L);
+        deduplicationConfigData.setMaxEntries(1_000_000);
+        return deduplicationConfigData;
+    }
+
+    public static LogSamplingConfigData logSamplingConfigData() {
+        LogSamplingConfigData logSamplingConfigData = new LogSamplingConfigData();
+        logSamplingConfigData.setIntervalMs(10_000L);
+        return logSamplingConfigData;
+    }
+
+    public static StatusQueueConfigData statusQueueConfigData(boolean enabled) {
+        StatusQueueConfigData statusQueueConfigData = new StatusQueueConfigData();
+        statusQueueConfigData.setEnabled(enabled);
+        statusQueueConfigData.setCapacity(8192);
+        statusQueueConfigData.setWorkerCount(2);
+        statusQueueConfigData.setBatchSize(64);
+        statusQueueConfigData.setOverflowPolicy(OverflowPolicy.BLOCK);
+        return statusQueueConfigData;
+    }
+
+    public static KeywordRoutingConfigData keywordRoutingConfigData(boolean enabled) {
+        KeywordRoutingConfigData keywordRoutingConfigData = new KeywordRoutingConfigData();
+        keywordRoutingConfigData.setEnabled(enabled);
+        keywordRoutingConfigData.setRoutes(List.of(route("twitter-jvm-topic", "Java", "Microservices"),
+                route("twitter-streaming-topic", "Kafka", "Elasticsearch")));
+        return keywordRoutingConfigData;
+    }
+
+    public static StatusDispatcher statusDispatcher(boolean asyncHandOff,
+            KafkaProducer<Long, TwitterAvroModel> kafkaProducer, ManagedExecutors managedExecutors) {
+        TwitterStatusPublisher publisher = new TwitterStatusPublisher(kafkaProducer, new UserIdKeyStrategy(),
+                new KeywordTagger(twitterToKafkaServiceConfigData()), new KeywordTopicRouter(kafkaConfigData(),
+                        keywordRoutingConfigData(false), twitterToKafkaServiceConfigData()));
+        StatusDispatcher statusDispatcher = new StatusDispatcher(statusQueueConfigData(asyncHandOff), publisher,
+                managedExecutors, logSamplingConfigData());
+        statusDispatcher.startWorkers();
+        return statusDispatcher;
+    }
+
+    private static KeywordRoutingConfigData.Route route(String topic, String... keywords) {
+        KeywordRoutingConfigData.Route route = new KeywordRoutingConfigData.Route();
+        route.setTopic(topic);
+        route.setKeywords(List.of(keywords));
+        return route;
+    }
+}
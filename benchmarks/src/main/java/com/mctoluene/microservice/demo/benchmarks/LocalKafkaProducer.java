@@ -0,0 +1,45 @@
+package com.mctoluene.microservice.demo.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.BatchSendResult;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.KafkaProducer;
+
+/**
+ * In-process stand-in for the Kafka producer so the listener path can be measured without a broker.
+ */
+public class LocalKafkaProducer implements KafkaProducer<Long, TwitterAvroModel> {
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder keyChecksum = new LongAdder();
+
+    @Override
+    public void send(String topicName, Long key, TwitterAvroModel message) {
+        sentCount.increment();
+        keyChecksum.add(key ^ message.getId());
+    }
+
+    @Override
+    public CompletableFuture<BatchSendResult<Long, TwitterAvroModel>> sendBatch(String topicName,
+            Collection<Entry<Long, TwitterAvroModel>> records) {
+        records.forEach(record -> send(topicName, record.getKey(), record.getValue()));
+        return CompletableFuture.completedFuture(new BatchSendResult<>(topicName, records.size(), List.of(), null));
+    }
+
+    @Override
+    public boolean spill(String topicName, Long key, TwitterAvroModel message) {
+        return false;
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getKeyChecksum() {
+        return keyChecksum.sum();
+    }
+}
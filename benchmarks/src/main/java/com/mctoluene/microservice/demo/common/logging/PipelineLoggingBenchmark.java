@@ -0,0 +1,56 @@
+package com.mctoluene.microservice.demo.common.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+/**
+ * Compares the per-record payload logging the pipeline used to do with a counter plus rate-limited summary line,
+ * both going through a real logback file appender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class PipelineLoggingBenchmark {
+    private static final Logger LOG = LoggerFactory.getLogger(PipelineLoggingBenchmark.class);
+    private TwitterAvroModel model;
+    private RateLimitedLog progressLog;
+    private LongAdder sentCount;
+
+    @Setup
+    public void setUp() {
+        model = BenchmarkFixtures.twitterAvroModel();
+        progressLog = new RateLimitedLog(BenchmarkFixtures.logSamplingConfigData().getIntervalMs());
+        sentCount = new LongAdder();
+    }
+
+    @Benchmark
+    public void perRecordPayloadLog() {
+        LOG.info("Sending message = '{}' to topic = '{}' ", model, BenchmarkFixtures.TOPIC_NAME);
+    }
+
+    @Benchmark
+    public void countedRateLimitedLog() {
+        sentCount.increment();
+        if (LOG.isInfoEnabled() && progressLog.tryAcquire())
+            LOG.info("Sent {} message(s) to kafka so far", sentCount.sum());
+    }
+}
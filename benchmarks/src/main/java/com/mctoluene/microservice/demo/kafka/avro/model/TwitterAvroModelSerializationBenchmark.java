@@ -0,0 +1,69 @@
+package com.mctoluene.microservice.demo.kafka.avro.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterAvroModelSerializationBenchmark {
+    private TwitterAvroModel model;
+    private DatumWriter<TwitterAvroModel> datumWriter;
+    private ByteArrayOutputStream reusedOutputStream;
+    private BinaryEncoder reusedEncoder;
+
+    @Setup
+    public void setUp() {
+        model = BenchmarkFixtures.twitterAvroModel();
+        datumWriter = new SpecificDatumWriter<>(TwitterAvroModel.getClassSchema());
+        reusedOutputStream = new ByteArrayOutputStream(256);
+    }
+
+    /**
+     * Mirrors what the registry-backed serializer does per record: a fresh stream and encoder each call.
+     */
+    @Benchmark
+    public byte[] freshEncoderPerRecord() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        new SpecificDatumWriter<TwitterAvroModel>(TwitterAvroModel.getClassSchema()).write(model, encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] reusedEncoder() throws IOException {
+        reusedOutputStream.reset();
+        reusedEncoder = EncoderFactory.get().directBinaryEncoder(reusedOutputStream, reusedEncoder);
+        datumWriter.write(model, reusedEncoder);
+        reusedEncoder.flush();
+        return reusedOutputStream.toByteArray();
+    }
+
+    @Benchmark
+    public ByteBuffer singleObjectEncoding() throws IOException {
+        return model.toByteBuffer();
+    }
+}
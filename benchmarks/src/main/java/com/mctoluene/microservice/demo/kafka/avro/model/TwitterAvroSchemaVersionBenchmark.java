@@ -0,0 +1,121 @@
+package com.mctoluene.microservice.demo.kafka.avro.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.RecordBatch;
+import org.apache.kafka.common.utils.ByteBufferOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SpecificAvroSerializer;
+
+/**
+ * Serializes a producer batch of tweets in schema v1, v2 and v3 and compresses it as the producer would, reporting
+ * serializer throughput per record. The encodedBytes and batchBytes counters are reported as rates too, so divided
+ * by the score they give the encoded and compressed bytes per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterAvroSchemaVersionBenchmark {
+    private static final int BATCH_RECORDS = 256;
+    private static final String[] WORDS = { "Neque", "porro", "quisquam", "est", "qui", "dolorem", "ipsum", "quia",
+            "dolor", "sit", "amet", "consectetur", "adipisci", "velit" };
+
+    @Param({ "1", "2", "3" })
+    public int schemaVersion;
+
+    @Param({ "none", "snappy", "lz4", "zstd" })
+    public String compression;
+
+    /**
+     * Whether the models carry keyword and lang, which v1 does not write, and keywords, which only v3 writes.
+     */
+    @Param({ "true", "false" })
+    public boolean optionalFields;
+
+    private TwitterAvroModel[] models;
+    private SpecificAvroSerializer<TwitterAvroModel> serializer;
+    private CompressionType compressionType;
+    private ByteBufferOutputStream batchBuffer;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class BatchBytes {
+        public long encodedBytes;
+        public long batchBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            encodedBytes = 0;
+            batchBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        SchemaIdCache schemaIdCache = new SchemaIdCache();
+        schemaIdCache.put(BenchmarkFixtures.TOPIC_NAME, schemaVersion,
+                TwitterAvroSchemas.writerSchema(schemaVersion));
+        serializer = new SpecificAvroSerializer<>(schemaIdCache);
+        compressionType = CompressionType.forName(compression);
+        batchBuffer = new ByteBufferOutputStream(64 * 1024);
+        SplittableRandom random = new SplittableRandom(42);
+        long createdAt = 1660212930000L;
+        models = new TwitterAvroModel[BATCH_RECORDS];
+        for (int i = 0; i < BATCH_RECORDS; i++) {
+            String keyword = BenchmarkFixtures.KEYWORDS.get(random.nextInt(BenchmarkFixtures.KEYWORDS.size()));
+            StringBuilder text = new StringBuilder();
+            for (int words = 5 + random.nextInt(10); words > 0; words--) {
+                text.append(words == 3 ? keyword : WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            models[i] = TwitterAvroModel.newBuilder()
+                    .setId(1557658329045606401L + i)
+                    .setUserId(1 + random.nextInt(10_000))
+                    .setText(text.toString().trim())
+                    .setCreatedAt(Instant.ofEpochMilli(createdAt + random.nextInt(1000)))
+                    .setKeyword(optionalFields ? keyword : null)
+                    .setKeywords(optionalFields ? List.of(keyword) : List.of())
+                    .setLang(optionalFields ? "en" : null)
+                    .build();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_RECORDS)
+    public int serializeAndCompressBatch(BatchBytes batchBytes) throws IOException {
+        batchBuffer.position(0);
+        try (OutputStream out = compressionType.wrapForOutput(batchBuffer, RecordBatch.CURRENT_MAGIC_VALUE)) {
+            for (TwitterAvroModel model : models) {
+                byte[] encoded = serializer.serialize(BenchmarkFixtures.TOPIC_NAME, model);
+                batchBytes.encodedBytes += encoded.length;
+                out.write(encoded);
+            }
+        }
+        batchBytes.batchBytes += batchBuffer.position();
+        return batchBuffer.position();
+    }
+}
@@ -0,0 +1,83 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.partitioner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class BalancedPartitionerBenchmark {
+    private static final int NUMBER_OF_PARTITIONS = 12;
+    private static final int KEY_COUNT = 4096;
+
+    @Param({ "default", "balanced" })
+    private String partitionerType;
+
+    private Partitioner partitioner;
+    private Cluster cluster;
+    private byte[][] keys;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("deprecation")
+    public void setUp() {
+        partitioner = "balanced".equals(partitionerType) ? new BalancedPartitioner() : new DefaultPartitioner();
+        partitioner.configure(Map.of());
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>(NUMBER_OF_PARTITIONS);
+        for (int i = 0; i < NUMBER_OF_PARTITIONS; i++) {
+            partitions.add(new PartitionInfo(BenchmarkFixtures.TOPIC_NAME, i, node, new Node[] { node },
+                    new Node[] { node }));
+        }
+        cluster = new Cluster("benchmark", List.of(node), partitions, Set.of(), Set.of());
+        // a few heavy posters, as in real streams: key i is drawn with weight 1 / (i + 1)
+        SplittableRandom random = new SplittableRandom(42);
+        LongSerializer serializer = new LongSerializer();
+        keys = new byte[KEY_COUNT][];
+        double harmonic = 0;
+        for (int i = 1; i <= KEY_COUNT; i++) {
+            harmonic += 1.0 / i;
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            double target = random.nextDouble() * harmonic;
+            long user = 0;
+            for (double sum = 0; sum < target; user++) {
+                sum += 1.0 / (user + 1);
+            }
+            keys[i] = serializer.serialize(BenchmarkFixtures.TOPIC_NAME, user);
+        }
+    }
+
+    @Benchmark
+    public int partition() {
+        byte[] key = keys[next++ & (KEY_COUNT - 1)];
+        return partitioner.partition(BenchmarkFixtures.TOPIC_NAME, null, key, null, null, cluster);
+    }
+}
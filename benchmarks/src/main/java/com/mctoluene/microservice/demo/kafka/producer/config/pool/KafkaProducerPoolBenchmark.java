@@ -0,0 +1,114 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.benchmarks.CompletingMockProducer;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.AimdRateLimiter;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.ProduceCircuitBreaker;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.mctoluene.microservice.demo.kafka.producer.config.spill.KafkaSpillBuffer;
+
+/**
+ * Sends from four threads through pools of one to four producers. Each mock producer spends a fixed amount of
+ * work per record under one lock, standing in for the accumulator and single sender thread of a real producer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+@Threads(4)
+public class KafkaProducerPoolBenchmark {
+    private static final int PARTITION_COUNT = 12;
+    private static final long SEND_COST_TOKENS = 500;
+
+    @Param({ "1", "2", "4" })
+    private int poolSize;
+
+    @Param({ "ROUND_ROBIN", "THREAD_AFFINITY", "PARTITION_AFFINITY" })
+    private ProducerPoolRouting routing;
+
+    private ManagedExecutors managedExecutors;
+    private TwitterKafkaProducer twitterKafkaProducer;
+    private TwitterAvroModel model;
+
+    @Setup
+    public void setUp() {
+        managedExecutors = BenchmarkFixtures.managedExecutors();
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = new ArrayList<>(PARTITION_COUNT);
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            partitions.add(new PartitionInfo(BenchmarkFixtures.TOPIC_NAME, i, node, new Node[] { node },
+                    new Node[] { node }));
+        }
+        Cluster cluster = new Cluster("benchmark", List.of(node), partitions, Set.of(), Set.of());
+        List<KafkaTemplate<Long, TwitterAvroModel>> kafkaTemplates = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            CompletingMockProducer<Long, TwitterAvroModel> producer = new SerializedSendProducer(cluster);
+            kafkaTemplates.add(new KafkaTemplate<>(() -> producer));
+        }
+        KafkaSpillBuffer kafkaSpillBuffer = new KafkaSpillBuffer(BenchmarkFixtures.spillJournalConfigData(false, null),
+                kafkaTemplates.get(0), managedExecutors, BenchmarkFixtures.logSamplingConfigData());
+        twitterKafkaProducer = new TwitterKafkaProducer(new KafkaProducerPool<>(kafkaTemplates, routing),
+                managedExecutors, BenchmarkFixtures.logSamplingConfigData(), BenchmarkFixtures.metricsConfigData(),
+                BenchmarkFixtures.meterRegistry(), kafkaSpillBuffer,
+                new ProduceCircuitBreaker(BenchmarkFixtures.circuitBreakerConfigData(false)),
+                new AimdRateLimiter(BenchmarkFixtures.rateLimiterConfigData(false, Integer.MAX_VALUE)));
+        model = BenchmarkFixtures.twitterAvroModel();
+    }
+
+    @TearDown
+    public void tearDown() {
+        managedExecutors.shutDown();
+    }
+
+    @Benchmark
+    public void send() {
+        twitterKafkaProducer.send(BenchmarkFixtures.TOPIC_NAME, ThreadLocalRandom.current().nextLong(), model);
+    }
+
+    private static final class SerializedSendProducer extends CompletingMockProducer<Long, TwitterAvroModel> {
+        private SerializedSendProducer(Cluster cluster) {
+            super(cluster);
+        }
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<Long, TwitterAvroModel> record,
+                Callback callback) {
+            Blackhole.consumeCPU(SEND_COST_TOKENS);
+            return super.send(record, callback);
+        }
+    }
+}
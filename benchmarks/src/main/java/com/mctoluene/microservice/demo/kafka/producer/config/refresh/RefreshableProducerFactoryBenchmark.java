@@ -0,0 +1,165 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.refresh;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.benchmarks.CompletingMockProducer;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+
+/**
+ * Sends through KafkaTemplate over a plain producer factory, a refreshable one, and a refreshable one replaced
+ * every REFRESH_INTERVAL_MS while two threads send. The mock producer acknowledges in batches and on flush or
+ * close, and refuses sends once closed; teardown fails the trial if a record was refused or never acknowledged.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+@Threads(2)
+public class RefreshableProducerFactoryBenchmark {
+    private static final long REFRESH_INTERVAL_MS = 100;
+    private static final int ACK_BATCH_RECORDS = 64;
+
+    @Param({ "PLAIN", "REFRESHABLE", "REFRESHING" })
+    private String factory;
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder acknowledgedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private ManagedExecutors managedExecutors;
+    private ProducerFactory<Long, Long> producerFactory;
+    private KafkaTemplate<Long, Long> kafkaTemplate;
+    private volatile boolean refreshing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        managedExecutors = BenchmarkFixtures.managedExecutors();
+        producerFactory = "PLAIN".equals(factory) ? newProducerFactory()
+                : new RefreshableProducerFactory<>(this::newProducerFactory, 30_000);
+        kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        if ("REFRESHING".equals(factory)) {
+            refreshing = true;
+            ExecutorService refreshExecutor = managedExecutors.newExecutor("producer-refresh");
+            refreshExecutor.execute(this::refreshPeriodically);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        refreshing = false;
+        managedExecutors.shutDown();
+        if (producerFactory instanceof RefreshableProducerFactory)
+            ((RefreshableProducerFactory<Long, Long>) producerFactory).destroy();
+        else
+            ((DefaultKafkaProducerFactory<Long, Long>) producerFactory).destroy();
+        long lost = sentCount.sum() - acknowledgedCount.sum();
+        if (lost != 0)
+            throw new IllegalStateException(factory + " lost " + lost + " of " + sentCount.sum() + " record(s), "
+                    + failedCount.sum() + " of them refused!");
+    }
+
+    @Benchmark
+    public void send() {
+        sentCount.increment();
+        try {
+            kafkaTemplate.send(BenchmarkFixtures.TOPIC_NAME, 1L, 1L).addCallback(
+                    result -> acknowledgedCount.increment(), e -> failedCount.increment());
+        } catch (RuntimeException e) {
+            failedCount.increment();
+        }
+    }
+
+    private void refreshPeriodically() {
+        while (refreshing) {
+            try {
+                Thread.sleep(REFRESH_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            ((RefreshableProducerFactory<Long, Long>) producerFactory).refresh();
+        }
+    }
+
+    private DefaultKafkaProducerFactory<Long, Long> newProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092"),
+                new LongSerializer(), new LongSerializer()) {
+            @Override
+            protected Producer<Long, Long> createRawProducer(Map<String, Object> rawConfigs) {
+                return new BatchAcknowledgingProducer();
+            }
+        };
+    }
+
+    private static final class BatchAcknowledgingProducer extends CompletingMockProducer<Long, Long> {
+        private static final RecordMetadata METADATA = new RecordMetadata(
+                new TopicPartition(BenchmarkFixtures.TOPIC_NAME, 0), 0, 0, 0, 0, 0);
+
+        private final Queue<Callback> pending = new ConcurrentLinkedQueue<>();
+        private int unacknowledged;
+        private boolean closed;
+
+        @Override
+        public synchronized Future<RecordMetadata> send(ProducerRecord<Long, Long> record, Callback callback) {
+            if (closed)
+                throw new IllegalStateException("Cannot perform operation after producer has been closed");
+            pending.add(callback);
+            if (++unacknowledged == ACK_BATCH_RECORDS)
+                acknowledgePending();
+            return new CompletableFuture<>();
+        }
+
+        @Override
+        public synchronized void flush() {
+            acknowledgePending();
+        }
+
+        @Override
+        public synchronized void close(Duration timeout) {
+            acknowledgePending();
+            closed = true;
+        }
+
+        private void acknowledgePending() {
+            Callback callback;
+            while ((callback = pending.poll()) != null) {
+                callback.onCompletion(METADATA, null);
+            }
+            unacknowledged = 0;
+        }
+    }
+}
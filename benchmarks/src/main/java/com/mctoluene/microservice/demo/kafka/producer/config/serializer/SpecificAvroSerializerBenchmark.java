@@ -0,0 +1,66 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.serializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class SpecificAvroSerializerBenchmark {
+    private KafkaAvroSerializer stockSerializer;
+    private SpecificAvroSerializer<TwitterAvroModel> specificAvroSerializer;
+    private TwitterAvroModel twitterAvroModel;
+
+    @Setup
+    public void setUp() throws IOException, RestClientException {
+        MockSchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+        int schemaId = schemaRegistryClient.register(SchemaIdCache.valueSubject(BenchmarkFixtures.TOPIC_NAME),
+                new AvroSchema(TwitterAvroModel.getClassSchema()));
+        stockSerializer = new KafkaAvroSerializer(schemaRegistryClient);
+        stockSerializer.configure(Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://benchmark"),
+                false);
+
+        SchemaIdCache schemaIdCache = new SchemaIdCache();
+        schemaIdCache.put(BenchmarkFixtures.TOPIC_NAME, schemaId, TwitterAvroModel.getClassSchema());
+        specificAvroSerializer = new SpecificAvroSerializer<>(schemaIdCache);
+
+        twitterAvroModel = BenchmarkFixtures.twitterAvroModel();
+        if (!Arrays.equals(stockSerializer(), specificAvroSerializer()))
+            throw new IllegalStateException("SpecificAvroSerializer output differs from KafkaAvroSerializer!");
+    }
+
+    @Benchmark
+    public byte[] stockSerializer() {
+        return stockSerializer.serialize(BenchmarkFixtures.TOPIC_NAME, twitterAvroModel);
+    }
+
+    @Benchmark
+    public byte[] specificAvroSerializer() {
+        return specificAvroSerializer.serialize(BenchmarkFixtures.TOPIC_NAME, twitterAvroModel);
+    }
+}
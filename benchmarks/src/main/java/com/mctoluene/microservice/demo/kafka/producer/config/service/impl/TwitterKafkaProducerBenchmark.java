@@ -0,0 +1,87 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.benchmarks.CompletingMockProducer;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.AimdRateLimiter;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.ProduceCircuitBreaker;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.BatchSendResult;
+import com.mctoluene.microservice.demo.kafka.producer.config.spill.KafkaSpillBuffer;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterKafkaProducerBenchmark {
+    private static final int BATCH_SIZE = 100;
+
+    @Param({ "false", "true" })
+    private boolean guarded;
+
+    private ManagedExecutors managedExecutors;
+    private TwitterKafkaProducer twitterKafkaProducer;
+    private TwitterAvroModel model;
+    private List<Entry<Long, TwitterAvroModel>> batch;
+
+    @Setup
+    public void setUp() {
+        CompletingMockProducer<Long, TwitterAvroModel> producer = new CompletingMockProducer<>();
+        managedExecutors = BenchmarkFixtures.managedExecutors();
+        KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = new KafkaTemplate<>(() -> producer);
+        KafkaSpillBuffer kafkaSpillBuffer = new KafkaSpillBuffer(BenchmarkFixtures.spillJournalConfigData(false, null),
+                kafkaTemplate, managedExecutors, BenchmarkFixtures.logSamplingConfigData());
+        twitterKafkaProducer = new TwitterKafkaProducer(
+                new KafkaProducerPool<>(List.of(kafkaTemplate), ProducerPoolRouting.ROUND_ROBIN), managedExecutors,
+                BenchmarkFixtures.logSamplingConfigData(), BenchmarkFixtures.metricsConfigData(),
+                BenchmarkFixtures.meterRegistry(), kafkaSpillBuffer,
+                new ProduceCircuitBreaker(BenchmarkFixtures.circuitBreakerConfigData(guarded)),
+                new AimdRateLimiter(BenchmarkFixtures.rateLimiterConfigData(guarded, Integer.MAX_VALUE)));
+        model = BenchmarkFixtures.twitterAvroModel();
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(Map.entry(model.getUserId(), model));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        managedExecutors.shutDown();
+    }
+
+    @Benchmark
+    public void send() {
+        twitterKafkaProducer.send(BenchmarkFixtures.TOPIC_NAME, model.getUserId(), model);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchSendResult<Long, TwitterAvroModel> sendBatch() {
+        return twitterKafkaProducer.sendBatch(BenchmarkFixtures.TOPIC_NAME, batch).join();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.spill;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class SpillJournalBenchmark {
+    private static final int BATCH_SIZE = 100;
+    private static final int SEGMENT_SIZE_BYTES = 64 * 1024 * 1024;
+    private Path directory;
+    private SpillJournal spillJournal;
+    private TwitterAvroModel model;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("spill-journal-benchmark");
+        spillJournal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        model = BenchmarkFixtures.twitterAvroModel();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        spillJournal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<SpilledRecord> appendAndReplay() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            spillJournal.append(BenchmarkFixtures.TOPIC_NAME, model.getUserId(), model);
+        }
+        List<SpilledRecord> records = spillJournal.read(BATCH_SIZE);
+        spillJournal.commit(records);
+        return records;
+    }
+}
@@ -0,0 +1,163 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.transaction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.benchmarks.CompletingMockProducer;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.DeliverySemantics;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroSchemas;
+import com.mctoluene.microservice.demo.kafka.producer.config.KafkaProducerConfig;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.AimdRateLimiter;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.ProduceCircuitBreaker;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.impl.TwitterKafkaProducer;
+import com.mctoluene.microservice.demo.kafka.producer.config.spill.KafkaSpillBuffer;
+
+/**
+ * Sends tweets through each delivery mode. With bootstrapServers set (for example
+ * {@code -p bootstrapServers=localhost:19092}) the producers are built by KafkaProducerConfig against that broker
+ * and the topic must exist. Without it a mock producer stands in, acknowledging sends at once and spending
+ * COMMIT_LATENCY_MICROS per commit, the EndTxn round trip and marker writes of a local broker; at-least-once and
+ * idempotent then perform the same, as what separates them happens on the broker. transactionMaxRecords only
+ * applies to the transactional mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class DeliverySemanticsBenchmark {
+    private static final long COMMIT_LATENCY_MICROS = 2_000;
+    private static final long TRANSACTION_MAX_MS = 100;
+
+    @Param({ "AT_LEAST_ONCE", "IDEMPOTENT", "TRANSACTIONAL" })
+    private DeliverySemantics mode;
+
+    @Param({ "1", "100", "1000" })
+    private int transactionMaxRecords;
+
+    @Param({ "" })
+    private String bootstrapServers;
+
+    private ManagedExecutors managedExecutors;
+    private KafkaProducerPool<Long, TwitterAvroModel> kafkaProducerPool;
+    private SharedTransactionProducer transactionProducer;
+    private TwitterKafkaProducer twitterKafkaProducer;
+    private TwitterAvroModel model;
+
+    @Setup
+    public void setUp() {
+        managedExecutors = BenchmarkFixtures.managedExecutors();
+        kafkaProducerPool = bootstrapServers.isEmpty() ? mockProducerPool() : brokerProducerPool();
+        KafkaSpillBuffer kafkaSpillBuffer = new KafkaSpillBuffer(BenchmarkFixtures.spillJournalConfigData(false, null),
+                kafkaProducerPool.getKafkaTemplates().get(0), managedExecutors,
+                BenchmarkFixtures.logSamplingConfigData());
+        twitterKafkaProducer = new TwitterKafkaProducer(kafkaProducerPool, managedExecutors,
+                BenchmarkFixtures.logSamplingConfigData(), BenchmarkFixtures.metricsConfigData(),
+                BenchmarkFixtures.meterRegistry(), kafkaSpillBuffer,
+                new ProduceCircuitBreaker(BenchmarkFixtures.circuitBreakerConfigData(false)),
+                new AimdRateLimiter(BenchmarkFixtures.rateLimiterConfigData(false, Integer.MAX_VALUE)));
+        model = BenchmarkFixtures.twitterAvroModel();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (transactionProducer != null)
+            transactionProducer.closeShared();
+        kafkaProducerPool.getProducerFactories().forEach(ProducerFactory::reset);
+        managedExecutors.shutDown();
+    }
+
+    @Benchmark
+    public void send() {
+        twitterKafkaProducer.send(BenchmarkFixtures.TOPIC_NAME, model.getUserId(), model);
+    }
+
+    private KafkaProducerPool<Long, TwitterAvroModel> mockProducerPool() {
+        KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+        if (mode == DeliverySemantics.TRANSACTIONAL) {
+            transactionProducer = new SharedTransactionProducer(transactionMaxRecords,
+                    managedExecutors.newExecutor("kafka-transaction-commit"));
+            kafkaTemplate = new KafkaTemplate<>(() -> transactionProducer);
+        } else {
+            CompletingMockProducer<Long, TwitterAvroModel> producer = new CompletingMockProducer<>();
+            kafkaTemplate = new KafkaTemplate<>(() -> producer);
+        }
+        return new KafkaProducerPool<>(List.of(kafkaTemplate), ProducerPoolRouting.ROUND_ROBIN);
+    }
+
+    private KafkaProducerPool<Long, TwitterAvroModel> brokerProducerPool() {
+        KafkaConfigData kafkaConfigData = BenchmarkFixtures.kafkaConfigData();
+        kafkaConfigData.setBootstrapServers(bootstrapServers);
+        kafkaConfigData.setSchemaRegistryUrlKey("schema.registry.url");
+        kafkaConfigData.setSchemaRegistryUrl("http://localhost:8081");
+        SchemaIdCache schemaIdCache = new SchemaIdCache();
+        schemaIdCache.put(BenchmarkFixtures.TOPIC_NAME, 1, TwitterAvroSchemas.writerSchema(TwitterAvroSchemas.LATEST));
+        return new KafkaProducerConfig<Long, TwitterAvroModel>(kafkaConfigData,
+                BenchmarkFixtures.kafkaProducerConfigData(mode, transactionMaxRecords),
+                BenchmarkFixtures.spillJournalConfigData(false, null), schemaIdCache,
+                BenchmarkFixtures.meterRegistry(), managedExecutors).kafkaProducerPool();
+    }
+
+    /**
+     * Ignores the close KafkaTemplate issues after every send, as the factory's wrapper does for the real one.
+     */
+    private static final class SharedTransactionProducer extends BatchedTransactionProducer<Long, TwitterAvroModel> {
+        private SharedTransactionProducer(int maxRecords, ExecutorService commitExecutor) {
+            super(CommitLatencyProducer::new, maxRecords, TRANSACTION_MAX_MS, commitExecutor,
+                    new TransactionOutcomes());
+        }
+
+        @Override
+        public void close(Duration timeout) {
+        }
+
+        private void closeShared() {
+            super.close(Duration.ZERO);
+        }
+    }
+
+    private static final class CommitLatencyProducer extends CompletingMockProducer<Long, TwitterAvroModel> {
+        @Override
+        public void initTransactions() {
+        }
+
+        @Override
+        public void beginTransaction() {
+        }
+
+        @Override
+        public void commitTransaction() {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(COMMIT_LATENCY_MICROS));
+        }
+
+        @Override
+        public void abortTransaction() {
+        }
+    }
+}
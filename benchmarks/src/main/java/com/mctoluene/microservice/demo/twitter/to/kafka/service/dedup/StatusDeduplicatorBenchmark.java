@@ -0,0 +1,56 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class StatusDeduplicatorBenchmark {
+    private static final int REPEATED_ID_COUNT = 1 << 16;
+
+    private StatusDeduplicator statusDeduplicator;
+    private Set<Long> boxedIds;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        statusDeduplicator = new StatusDeduplicator(BenchmarkFixtures.deduplicationConfigData(true));
+        boxedIds = ConcurrentHashMap.newKeySet();
+    }
+
+    @Benchmark
+    public boolean firstSeen() {
+        return statusDeduplicator.firstSeen(++nextId);
+    }
+
+    @Benchmark
+    public boolean firstSeenRepeated() {
+        return statusDeduplicator.firstSeen(++nextId & (REPEATED_ID_COUNT - 1));
+    }
+
+    @Benchmark
+    public boolean boxedSetAdd() {
+        boolean added = boxedIds.add(++nextId);
+        if (boxedIds.size() > 1_000_000)
+            boxedIds.clear();
+        return added;
+    }
+}
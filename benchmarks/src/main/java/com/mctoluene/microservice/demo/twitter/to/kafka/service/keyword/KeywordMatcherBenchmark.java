@@ -0,0 +1,135 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+
+/**
+ * Finds every keyword in a set of tweets with the Aho-Corasick matcher, and with the loops it replaces: a
+ * case-insensitive regionMatches scan per keyword, and a contains per keyword on the lower-cased text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class KeywordMatcherBenchmark {
+    private static final int TEXT_COUNT = 256;
+    private static final String[] WORDS = { "Neque", "porro", "quisquam", "est", "qui", "dolorem", "ipsum", "quia",
+            "dolor", "sit", "amet", "consectetur", "adipisci", "velit" };
+
+    @Param({ "10", "100", "500" })
+    public int keywordCount;
+
+    private String[] texts;
+    private String[] keywords;
+    private String[] lowerCaseKeywords;
+    private AhoCorasickMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        Set<String> keywordSet = new LinkedHashSet<>(BenchmarkFixtures.KEYWORDS);
+        while (keywordSet.size() < keywordCount) {
+            StringBuilder keyword = new StringBuilder();
+            for (int length = 4 + random.nextInt(9); length > 0; length--) {
+                keyword.append((char) ((keyword.length() == 0 ? 'A' : 'a') + random.nextInt(26)));
+            }
+            keywordSet.add(keyword.toString());
+        }
+        keywords = keywordSet.toArray(new String[0]);
+        lowerCaseKeywords = Arrays.stream(keywords).map(keyword -> keyword.toLowerCase(Locale.ROOT))
+                .toArray(String[]::new);
+        matcher = new AhoCorasickMatcher(List.of(keywords));
+        texts = new String[TEXT_COUNT];
+        for (int i = 0; i < TEXT_COUNT; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int words = 10 + random.nextInt(20); words > 0; words--) {
+                text.append(random.nextInt(8) == 0 ? keywords[random.nextInt(keywords.length)]
+                        : WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            texts[i] = text.toString().trim();
+        }
+        for (String text : texts) {
+            if (!Arrays.equals(matcher.match(text), regionMatches(text))
+                    || !Arrays.equals(matcher.match(text), lowerCaseContains(text)))
+                throw new IllegalStateException("Matchers disagree on " + text);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXT_COUNT)
+    public int ahoCorasick() {
+        int found = 0;
+        for (String text : texts) {
+            found += matcher.match(text).length;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXT_COUNT)
+    public int regionMatchesLoop() {
+        int found = 0;
+        for (String text : texts) {
+            found += regionMatches(text).length;
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXT_COUNT)
+    public int lowerCaseContainsLoop() {
+        int found = 0;
+        for (String text : texts) {
+            found += lowerCaseContains(text).length;
+        }
+        return found;
+    }
+
+    private int[] regionMatches(String text) {
+        int[] found = new int[keywords.length];
+        int count = 0;
+        for (int i = 0; i < keywords.length; i++) {
+            String keyword = keywords[i];
+            for (int offset = 0, last = text.length() - keyword.length(); offset <= last; offset++) {
+                if (text.regionMatches(true, offset, keyword, 0, keyword.length())) {
+                    found[count++] = i;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private int[] lowerCaseContains(String text) {
+        String lowerCaseText = text.toLowerCase(Locale.ROOT);
+        int[] found = new int[keywords.length];
+        int count = 0;
+        for (int i = 0; i < lowerCaseKeywords.length; i++) {
+            if (lowerCaseText.contains(lowerCaseKeywords[i]))
+                found[count++] = i;
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.benchmarks.LocalKafkaProducer;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup.StatusDeduplicator;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.queue.StatusDispatcher;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterStatusToAvroTransformer;
+
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterKafkaStatusListenerBenchmark {
+    @Param({ "false", "true" })
+    private boolean asyncHandOff;
+
+    private TwitterKafkaStatusListener listener;
+    private LocalKafkaProducer kafkaProducer;
+    private StatusDispatcher statusDispatcher;
+    private ManagedExecutors managedExecutors;
+    private Status status;
+
+    @Setup
+    public void setUp() throws TwitterException {
+        kafkaProducer = new LocalKafkaProducer();
+        managedExecutors = BenchmarkFixtures.managedExecutors();
+        statusDispatcher = BenchmarkFixtures.statusDispatcher(asyncHandOff, kafkaProducer, managedExecutors);
+        listener = new TwitterKafkaStatusListener(BenchmarkFixtures.kafkaConfigData(), statusDispatcher,
+                new TwitterStatusToAvroTransformer(BenchmarkFixtures.metricsConfigData(),
+                        BenchmarkFixtures.meterRegistry()),
+                new StatusDeduplicator(BenchmarkFixtures.deduplicationConfigData(false)),
+                BenchmarkFixtures.metricsConfigData(), BenchmarkFixtures.meterRegistry());
+        status = TwitterObjectFactory.createStatus(BenchmarkFixtures.STATUS_JSON);
+    }
+
+    @Benchmark
+    public void onStatus() {
+        listener.onStatus(status);
+    }
+
+    @TearDown
+    public void tearDown(Blackhole blackhole) {
+        statusDispatcher.shutDown();
+        managedExecutors.shutDown();
+        blackhole.consume(kafkaProducer.getSentCount());
+        blackhole.consume(kafkaProducer.getKeyChecksum());
+    }
+}
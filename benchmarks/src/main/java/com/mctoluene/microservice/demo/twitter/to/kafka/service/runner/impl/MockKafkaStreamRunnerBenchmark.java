@@ -0,0 +1,86 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.benchmarks.LocalKafkaProducer;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup.StatusDeduplicator;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterDateCodec;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterJsonFieldExtractor;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterStatusToAvroTransformer;
+
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class MockKafkaStreamRunnerBenchmark {
+    private MockKafkaStreamRunner runner;
+    private String[] keywords;
+    private int minTweetLength;
+    private int maxTweetLength;
+    private String formattedTweet;
+    private MockStatusGenerator statusGenerator;
+
+    @Setup
+    public void setUp() {
+        TwitterToKafkaServiceConfigData configData = BenchmarkFixtures.twitterToKafkaServiceConfigData();
+        ManagedExecutors managedExecutors = BenchmarkFixtures.managedExecutors();
+        TwitterKafkaStatusListener listener = new TwitterKafkaStatusListener(BenchmarkFixtures.kafkaConfigData(),
+                BenchmarkFixtures.statusDispatcher(false, new LocalKafkaProducer(), managedExecutors),
+                new TwitterStatusToAvroTransformer(BenchmarkFixtures.metricsConfigData(),
+                        BenchmarkFixtures.meterRegistry()),
+                new StatusDeduplicator(BenchmarkFixtures.deduplicationConfigData(false)),
+                BenchmarkFixtures.metricsConfigData(), BenchmarkFixtures.meterRegistry());
+        TwitterDateCodec twitterDateCodec = new TwitterDateCodec();
+        runner = new MockKafkaStreamRunner(configData, listener, managedExecutors,
+                BenchmarkFixtures.logSamplingConfigData(), new TwitterJsonFieldExtractor(twitterDateCodec),
+                twitterDateCodec);
+        keywords = configData.getTwitterKeywords().toArray(new String[0]);
+        minTweetLength = configData.getMockMinTweetLength();
+        maxTweetLength = configData.getMockMaxTweetLength();
+        formattedTweet = runner.getFormattedTweet(keywords, minTweetLength, maxTweetLength);
+        statusGenerator = new MockStatusGenerator(MockKafkaStreamRunner.buildTemplates(keywords, minTweetLength,
+                maxTweetLength, 1024, new Random(42)), 42, 0);
+    }
+
+    @Benchmark
+    public String getFormattedTweet() {
+        return runner.getFormattedTweet(keywords, minTweetLength, maxTweetLength);
+    }
+
+    @Benchmark
+    public Status createStatus() throws TwitterException {
+        return TwitterObjectFactory.createStatus(formattedTweet);
+    }
+
+    @Benchmark
+    public Status getFormattedTweetAndCreateStatus() throws TwitterException {
+        return TwitterObjectFactory.createStatus(runner.getFormattedTweet(keywords, minTweetLength, maxTweetLength));
+    }
+
+    @Benchmark
+    public Status generateStatus() {
+        return statusGenerator.next(System.currentTimeMillis());
+    }
+}
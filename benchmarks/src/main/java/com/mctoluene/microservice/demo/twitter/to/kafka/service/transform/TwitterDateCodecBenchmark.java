@@ -0,0 +1,75 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterDateCodecBenchmark {
+    private static final String TWEET_STATUS_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final String TWITTER_CREATED_AT = "Thu Aug 11 10:15:30 UTC 2022";
+    private static final String TWITTER_V2_CREATED_AT = "2022-08-11T10:15:30.000Z";
+
+    private TwitterDateCodec twitterDateCodec;
+    private DateTimeFormatter formatter;
+    private char[] createdAt;
+    private char[] v2CreatedAt;
+
+    @Setup
+    public void setUp() {
+        twitterDateCodec = new TwitterDateCodec();
+        formatter = DateTimeFormatter.ofPattern(TWEET_STATUS_DATE_FORMAT, Locale.ENGLISH);
+        createdAt = TWITTER_CREATED_AT.toCharArray();
+        v2CreatedAt = TWITTER_V2_CREATED_AT.toCharArray();
+    }
+
+    @Benchmark
+    public String formatWithPatternPerCall() {
+        return ZonedDateTime.now().format(DateTimeFormatter.ofPattern(TWEET_STATUS_DATE_FORMAT, Locale.ENGLISH));
+    }
+
+    @Benchmark
+    public String format() {
+        return twitterDateCodec.format(System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long parseWithFormatter() {
+        return ZonedDateTime.parse(TWITTER_CREATED_AT, formatter).toInstant().toEpochMilli();
+    }
+
+    @Benchmark
+    public long parse() {
+        return twitterDateCodec.parse(createdAt, 0, createdAt.length);
+    }
+
+    @Benchmark
+    public long parseV2WithInstant() {
+        return Instant.parse(TWITTER_V2_CREATED_AT).toEpochMilli();
+    }
+
+    @Benchmark
+    public long parseV2() {
+        return twitterDateCodec.parse(v2CreatedAt, 0, v2CreatedAt.length);
+    }
+}
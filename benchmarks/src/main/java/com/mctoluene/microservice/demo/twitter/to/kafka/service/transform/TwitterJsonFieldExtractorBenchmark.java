@@ -0,0 +1,60 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterJsonFieldExtractorBenchmark {
+    private TwitterStatusToAvroTransformer transformer;
+    private TwitterJsonFieldExtractor extractor;
+    private byte[] statusJson;
+    private TwitterAvroModel reusedModel;
+
+    @Setup
+    public void setUp() {
+        transformer = new TwitterStatusToAvroTransformer(BenchmarkFixtures.metricsConfigData(),
+                BenchmarkFixtures.meterRegistry());
+        extractor = new TwitterJsonFieldExtractor(new TwitterDateCodec());
+        statusJson = BenchmarkFixtures.STATUS_JSON.getBytes(StandardCharsets.UTF_8);
+        reusedModel = new TwitterAvroModel();
+    }
+
+    @Benchmark
+    public TwitterAvroModel createStatusAndTransform() throws TwitterException {
+        return transformer.geTwitterAvroModelFromStatus(TwitterObjectFactory.createStatus(
+                BenchmarkFixtures.STATUS_JSON));
+    }
+
+    @Benchmark
+    public TwitterAvroModel extract() throws IOException {
+        return extractor.extract(statusJson, 0, statusJson.length);
+    }
+
+    @Benchmark
+    public boolean extractReused() throws IOException {
+        return extractor.extract(statusJson, 0, statusJson.length, reusedModel);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mctoluene.microservice.demo.benchmarks.BenchmarkFixtures;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = BenchmarkFixtures.LOGBACK_CONFIGURATION)
+public class TwitterStatusToAvroTransformerBenchmark {
+    private TwitterStatusToAvroTransformer transformer;
+    private Status status;
+
+    @Setup
+    public void setUp() throws TwitterException {
+        transformer = new TwitterStatusToAvroTransformer(BenchmarkFixtures.metricsConfigData(),
+                BenchmarkFixtures.meterRegistry());
+        status = TwitterObjectFactory.createStatus(BenchmarkFixtures.STATUS_JSON);
+    }
+
+    @Benchmark
+    public TwitterAvroModel transform() {
+        return transformer.geTwitterAvroModelFromStatus(status);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mctoluene.microservice.demo.common.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+
+/**
+ * Single place where the services get their threads from. On Java 21+ every task runs on its own virtual thread,
+ * on older runtimes (or with virtual threads switched off) a named platform-thread pool is used instead. All
+ * executors handed out here are shut down together when the context closes.
+ */
+@Component
+public class ManagedExecutors {
+    private static final Logger LOG = LoggerFactory.getLogger(ManagedExecutors.class);
+    private static final int VIRTUAL_THREADS_MIN_VERSION = 21;
+
+    private final ExecutorConfigData executorConfigData;
+    private final boolean virtualThreads;
+    private final List<NamedExecutor> executors = new CopyOnWriteArrayList<>();
+
+    public ManagedExecutors(ExecutorConfigData executorConfigData) {
+        this.executorConfigData = executorConfigData;
+        this.virtualThreads = Boolean.TRUE.equals(executorConfigData.getVirtualThreads())
+                && Runtime.version().feature() >= VIRTUAL_THREADS_MIN_VERSION;
+        LOG.info("Executors will run tasks on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
+    public ExecutorService newExecutor(String name) {
+        ExecutorService executorService = virtualThreads ? newVirtualThreadExecutor(name)
+                : Executors.newCachedThreadPool(platformThreadFactory(name));
+        executors.add(new NamedExecutor(name, executorService));
+        return executorService;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        executors.forEach(executor -> executor.executorService.shutdown());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(executorConfigData.getShutdownTimeoutMs());
+        for (NamedExecutor executor : executors) {
+            try {
+                long remaining = deadline - System.nanoTime();
+                if (!executor.executorService.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                    LOG.warn("Executor {} did not finish in time, interrupting its tasks", executor.name);
+                    executor.executorService.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.executorService.shutdownNow();
+            }
+        }
+        LOG.info("Shut down {} executor(s)", executors.size());
+    }
+
+    private ExecutorService newVirtualThreadExecutor(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            LOG.warn("Virtual threads are not available, falling back to platform threads for {}", name, e);
+            return Executors.newCachedThreadPool(platformThreadFactory(name));
+        }
+    }
+
+    private ThreadFactory platformThreadFactory(String name) {
+        AtomicLong threadCount = new AtomicLong();
+        return runnable -> new Thread(runnable, name + "-" + threadCount.getAndIncrement());
+    }
+
+    private static final class NamedExecutor {
+        private final String name;
+        private final ExecutorService executorService;
+
+        private NamedExecutor(String name, ExecutorService executorService) {
+            this.name = name;
+            this.executorService = executorService;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.mctoluene.microservice.demo.common.logging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grants at most one log permit per interval across all threads. Callers guard the log statement with
+ * {@link #tryAcquire()} so arguments are only boxed and formatted when a line is actually written.
+ * Denied attempts are counted and can be reported with the next line that gets through.
+ */
+public class RateLimitedLog {
+    private final long intervalNanos;
+    private final AtomicLong nextPermitNanos;
+    private final LongAdder suppressedCount = new LongAdder();
+
+    public RateLimitedLog(long intervalMs) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.nextPermitNanos = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        long nextPermit = nextPermitNanos.get();
+        if (now - nextPermit >= 0 && nextPermitNanos.compareAndSet(nextPermit, now + intervalNanos))
+            return true;
+        suppressedCount.increment();
+        return false;
+    }
+
+    public long takeSuppressedCount() {
+        return suppressedCount.sumThenReset();
+    }
+}
@@ -0,0 +1,13 @@
+package com.mctoluene.microservice.demo.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * For beans that depend, through the producers, on the MeterRegistry they register meters with. Spring Boot binds
+ * every MeterBinder bean while the registry itself is still being created, which such a bean cannot survive, so
+ * these are bound by {@link DeferredMeterBinderRegistrar} once all singletons exist.
+ */
+public interface DeferredMeterBinder {
+
+    void bindTo(MeterRegistry registry);
+}
@@ -0,0 +1,27 @@
+package com.mctoluene.microservice.demo.common.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class DeferredMeterBinderRegistrar implements SmartInitializingSingleton {
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final ObjectProvider<DeferredMeterBinder> deferredMeterBinders;
+
+    public DeferredMeterBinderRegistrar(ObjectProvider<MeterRegistry> meterRegistryProvider,
+            ObjectProvider<DeferredMeterBinder> deferredMeterBinders) {
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.deferredMeterBinders = deferredMeterBinders;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfUnique();
+        if (meterRegistry != null)
+            deferredMeterBinders.orderedStream().forEach(binder -> binder.bindTo(meterRegistry));
+    }
+}
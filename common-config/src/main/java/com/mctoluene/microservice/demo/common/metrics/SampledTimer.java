@@ -0,0 +1,40 @@
+package com.mctoluene.microservice.demo.common.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records roughly one in every {@code sampleRate} timings into a {@link Timer}. Percentile histograms are costly
+ * to update on a per-record hot path; a uniform sample keeps the distribution while the caller skips the clock
+ * reads for records that are not sampled. Counts belong in counters, not in the sampled timer.
+ */
+public class SampledTimer {
+    public static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final Timer timer;
+    private final int sampleRate;
+
+    public SampledTimer(Timer timer, int sampleRate) {
+        this.timer = timer;
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public boolean sample() {
+        return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    public long start() {
+        return sample() ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    public void stop(long startNanos) {
+        if (startNanos != NOT_SAMPLED)
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void record(long amount, TimeUnit unit) {
+        timer.record(amount, unit);
+    }
+}
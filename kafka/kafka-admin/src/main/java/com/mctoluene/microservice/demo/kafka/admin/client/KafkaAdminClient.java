@@ -1,151 +1,275 @@
 package com.mctoluene.microservice.demo.kafka.admin.client;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.clients.admin.CreateTopicsResult;
+import org.apache.kafka.clients.admin.NewPartitions;
 import org.apache.kafka.clients.admin.NewTopic;
-import org.apache.kafka.clients.admin.TopicListing;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.TopicExistsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.retry.RetryContext;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
 import com.mctoluene.microservice.demo.config.KafkaConfigData;
 import com.mctoluene.microservice.demo.config.RetryConfigData;
+import com.mctoluene.microservice.demo.kafka.admin.client.TopicReadinessReport.Status;
+import com.mctoluene.microservice.demo.kafka.admin.client.TopicReadinessReport.TopicReadiness;
 import com.mctoluene.microservice.demo.kafka.admin.exception.KafkaClientException;
 
 import reactor.core.publisher.Mono;
 
+/**
+ * Startup checks against the brokers and the schema registry. Every call returns a future that completes on the
+ * admin client or web client threads, and retries are scheduled with a delayed executor instead of sleeping, so
+ * independent checks can run side by side without holding a thread each while they back off.
+ */
 @Component
 public class KafkaAdminClient {
     private static final Logger LOG = LoggerFactory.getLogger(KafkaAdminClient.class);
+    private static final MediaType SCHEMA_REGISTRY_MEDIA_TYPE = MediaType
+            .parseMediaType("application/vnd.schemaregistry.v1+json");
     private final KafkaConfigData kafkaConfgData;
     private final RetryConfigData retryConfigData;
     private final AdminClient adminClient;
-    private final RetryTemplate retryTemplate;
     private final WebClient webClient;
+    private final Executor adminExecutor;
 
     public KafkaAdminClient(KafkaConfigData kafkaConfgData, RetryConfigData retryConfigData,
-            AdminClient adminClient, RetryTemplate retryTemplate, WebClient webClient) {
+            AdminClient adminClient, WebClient webClient, ManagedExecutors managedExecutors) {
         this.kafkaConfgData = kafkaConfgData;
         this.retryConfigData = retryConfigData;
         this.adminClient = adminClient;
-        this.retryTemplate = retryTemplate;
         this.webClient = webClient;
+        this.adminExecutor = managedExecutors.newExecutor("kafka-admin");
     }
 
-    public void createTopic() {
-        CreateTopicsResult createTopicsResult;
-        try {
-            createTopicsResult = retryTemplate.execute(this::doCreateTopics);
-            LOG.info("Create topic result {}", createTopicsResult.values().values());
-        } catch (Throwable t) {
-            throw new KafkaClientException("Reached max number of retry for creating kafka topic(s)!", t);
-        }
-        checkTopicCreated();
-    }
-
-    public void checkTopicCreated() {
-        Collection<TopicListing> topicListings = getTopics();
-        int retryCount = 1;
-        Integer maxRetry = retryConfigData.getMaxAttempts();
-        Integer multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTimeMs = retryConfigData.getSleepTimeMs();
-        for (String topic : kafkaConfgData.getTopicNamesToCreate()) {
-            System.out.println(topic);
-            while (!isTopicCreated(topicListings, topic)) {
-                checkMaxRetry(retryCount++, maxRetry);
-                sleep(sleepTimeMs);
-                sleepTimeMs *= multiplier;
-                topicListings = getTopics();
-            }
-        }
+    /**
+     * Creates the configured topics, treating ones that already exist as created, then verifies them.
+     */
+    public CompletableFuture<TopicReadinessReport> createTopicAsync() {
+        return retryAsync("creating kafka topic(s)", this::doCreateTopics)
+                .thenCompose(created -> checkTopicCreatedAsync());
     }
 
-    public void checkSchemaRegistry() {
-        int retryCount = 1;
-        Integer maxRetry = retryConfigData.getMaxAttempts();
-        Integer multiplier = retryConfigData.getMultiplier().intValue();
-        Long sleepTimeMs = retryConfigData.getSleepTimeMs();
-        while (!getSchemaRegistryStatus().is2xxSuccessful()) {
-            checkMaxRetry(retryCount++, maxRetry);
-            sleep(sleepTimeMs);
-            sleepTimeMs *= multiplier;
-        }
+    /**
+     * Describes only the configured topics, retrying until the brokers know all of them, and compares their
+     * partition count and replication factor to the configured ones. With reconcile-topics on, a topic with
+     * fewer partitions than configured is grown to the configured count. Partitions cannot be removed and the
+     * replication factor is not changed here, so those mismatches are only reported.
+     */
+    public CompletableFuture<TopicReadinessReport> checkTopicCreatedAsync() {
+        return retryAsync("reading kafka topic(s)", this::doDescribeTopics)
+                .thenCompose(this::reconcile)
+                .whenComplete((report, e) -> {
+                    if (e != null)
+                        return;
+                    if (report.isConsistent())
+                        LOG.info("Topic(s) ready: {}", report);
+                    else
+                        LOG.warn("Topic(s) differ from the configured layout: {}", report);
+                });
     }
 
-    private HttpStatus getSchemaRegistryStatus() {
-        try {
-            return webClient
-                    .method(HttpMethod.GET)
-                    .uri(kafkaConfgData.getSchemaRegistryUrl())
-                    .exchangeToMono(response -> {
-                        if (response.statusCode().is2xxSuccessful()) {
-                            return Mono.just(response.statusCode());
-                        } else
-                            return Mono.just(HttpStatus.SERVICE_UNAVAILABLE);
-                    }).block();
-        } catch (Exception e) {
-            return HttpStatus.SERVICE_UNAVAILABLE;
+    public CompletableFuture<Void> checkSchemaRegistryAsync() {
+        return retryAsync("reaching schema registry", this::doCheckSchemaRegistry);
+    }
 
-        }
+    /**
+     * Asks the registry whether the schema may be registered under the subject at the subject's compatibility
+     * level. A subject with no versions yet accepts any schema.
+     */
+    public CompletableFuture<Boolean> checkSchemaCompatibilityAsync(String subject, String schema) {
+        return retryAsync("checking schema compatibility for subject " + subject,
+                () -> doCheckSchemaCompatibility(subject, schema));
+    }
 
+    public CompletableFuture<Integer> registerSchemaAsync(String subject, String schema) {
+        return retryAsync("registering schema for subject " + subject, () -> doRegisterSchema(subject, schema))
+                .whenComplete((schemaId, e) -> {
+                    if (e == null)
+                        LOG.info("Schema for subject {} is registered with id {}", subject, schemaId);
+                });
     }
 
-    private void sleep(Long sleepTimeMs) {
-        try {
-            Thread.sleep(sleepTimeMs);
-        } catch (InterruptedException e) {
-            throw new KafkaClientException("Error while sleeping for waiting for created topic(s)!");
+    private CompletionStage<Void> doCreateTopics() {
+        List<String> topicNames = kafkaConfgData.getTopicNamesToCreate();
+        LOG.info("Creating {} topic(s)", topicNames.size());
+        List<NewTopic> topics = topicNames.stream().map(n -> new NewTopic(n.trim(),
+                kafkaConfgData.getNumberOfPartitions(), kafkaConfgData.getReplicationFactor()))
+                .collect(Collectors.toList());
+        CompletableFuture<?>[] created = adminClient.createTopics(topics).values().entrySet().stream()
+                .map(entry -> toCompletableFuture(entry.getValue()).exceptionally(e -> {
+                    if (unwrap(e) instanceof TopicExistsException) {
+                        LOG.info("Topic {} already exists", entry.getKey());
+                        return null;
+                    }
+                    throw new CompletionException(unwrap(e));
+                }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(created);
+    }
+
+    private CompletionStage<Map<String, TopicDescription>> doDescribeTopics() {
+        List<String> topicNames = kafkaConfgData.getTopicNamesToCreate().stream().map(String::trim)
+                .collect(Collectors.toList());
+        LOG.info("Describing {} topic(s)", topicNames.size());
+        return toCompletableFuture(adminClient.describeTopics(topicNames).allTopicNames());
+    }
+
+    private CompletableFuture<TopicReadinessReport> reconcile(Map<String, TopicDescription> descriptions) {
+        int expectedPartitions = kafkaConfgData.getNumberOfPartitions();
+        short expectedReplicationFactor = kafkaConfgData.getReplicationFactor();
+        boolean reconcile = Boolean.TRUE.equals(kafkaConfgData.getReconcileTopics());
+        List<TopicReadiness> topics = new ArrayList<>(descriptions.size());
+        Map<String, NewPartitions> partitionIncreases = new HashMap<>();
+        for (TopicDescription description : descriptions.values()) {
+            int partitions = description.partitions().size();
+            short replicationFactor = (short) description.partitions().stream()
+                    .mapToInt(partition -> partition.replicas().size()).min().orElse(0);
+            Status status;
+            if (partitions < expectedPartitions && reconcile) {
+                partitionIncreases.put(description.name(), NewPartitions.increaseTo(expectedPartitions));
+                status = Status.PARTITIONS_ADDED;
+            } else if (partitions != expectedPartitions) {
+                status = Status.PARTITION_COUNT_MISMATCH;
+            } else if (replicationFactor != expectedReplicationFactor) {
+                status = Status.REPLICATION_FACTOR_MISMATCH;
+            } else {
+                status = Status.READY;
+            }
+            topics.add(new TopicReadiness(description.name(), status, expectedPartitions, partitions,
+                    expectedReplicationFactor, replicationFactor));
         }
+        TopicReadinessReport report = new TopicReadinessReport(topics);
+        if (partitionIncreases.isEmpty())
+            return CompletableFuture.completedFuture(report);
+        LOG.info("Increasing partitions of {} to {}", partitionIncreases.keySet(), expectedPartitions);
+        return toCompletableFuture(adminClient.createPartitions(partitionIncreases).all())
+                .handle((created, e) -> {
+                    if (e != null)
+                        throw new KafkaClientException("Error while adding partitions to topic(s) "
+                                + partitionIncreases.keySet() + "!", unwrap(e));
+                    return report;
+                });
     }
 
-    private void checkMaxRetry(int retry, Integer maxRetry) {
-        if (retry > maxRetry)
-            throw new KafkaClientException("Reached max number of retry for reading kafka topic(s)!");
+    private CompletionStage<Void> doCheckSchemaRegistry() {
+        return webClient
+                .method(HttpMethod.GET)
+                .uri(kafkaConfgData.getSchemaRegistryUrl())
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                        ? Mono.<Void>empty()
+                        : Mono.error(new KafkaClientException("Schema registry responded with "
+                                + response.statusCode())))
+                .toFuture();
     }
 
-    private boolean isTopicCreated(Collection<TopicListing> topicListings, String topicName) {
-        if (topicListings == null)
-            return false;
-        return topicListings.stream().anyMatch(topic -> topic.name().equals(topicName));
+    private CompletionStage<Boolean> doCheckSchemaCompatibility(String subject, String schema) {
+        LOG.info("Checking schema compatibility for subject {}", subject);
+        return webClient
+                .method(HttpMethod.POST)
+                .uri(kafkaConfgData.getSchemaRegistryUrl() + "/compatibility/subjects/{subject}/versions/latest",
+                        subject)
+                .contentType(SCHEMA_REGISTRY_MEDIA_TYPE)
+                .bodyValue(Map.of("schema", schema))
+                .exchangeToMono(response -> {
+                    if (response.statusCode() == HttpStatus.NOT_FOUND)
+                        return Mono.just(true);
+                    if (!response.statusCode().is2xxSuccessful())
+                        return Mono.error(new KafkaClientException("Schema registry responded with "
+                                + response.statusCode() + " to a compatibility check for subject " + subject));
+                    return response.bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                    }).map(body -> Boolean.TRUE.equals(body.get("is_compatible")));
+                })
+                .toFuture();
     }
 
-    private CreateTopicsResult doCreateTopics(RetryContext retrycontext) {
-        List<String> topicNames = kafkaConfgData.getTopicNamesToCreate();
-        LOG.info("Creating {} topic(s), attempt {}", topicNames.size(), retrycontext.getRetryCount());
-        List<NewTopic> topics = topicNames.stream().map(n -> new NewTopic(n.trim(),
-                kafkaConfgData.getNumberOfPartitions(), kafkaConfgData.getReplicationFactor()))
-                .collect(Collectors.toList());
-        var create = adminClient.createTopics(topics);
-        return create;
+    private CompletionStage<Integer> doRegisterSchema(String subject, String schema) {
+        LOG.info("Registering schema for subject {}", subject);
+        return webClient
+                .method(HttpMethod.POST)
+                .uri(kafkaConfgData.getSchemaRegistryUrl() + "/subjects/{subject}/versions", subject)
+                .contentType(SCHEMA_REGISTRY_MEDIA_TYPE)
+                .bodyValue(Map.of("schema", schema))
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
+                })
+                .map(response -> {
+                    if (!(response.get("id") instanceof Number))
+                        throw new KafkaClientException("Schema registry returned no id for subject " + subject + "!");
+                    return ((Number) response.get("id")).intValue();
+                })
+                .toFuture();
     }
 
-    private Collection<TopicListing> getTopics() {
-        Collection<TopicListing> topicListings;
+    private <T> CompletableFuture<T> retryAsync(String action, Supplier<CompletionStage<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(action, call, 1, retryConfigData.getInitialIntervalMs(), result);
+        return result;
+    }
+
+    private <T> void attempt(String action, Supplier<CompletionStage<T>> call, int attempt, long backOffMs,
+            CompletableFuture<T> result) {
+        CompletionStage<T> stage;
         try {
-            topicListings = retryTemplate.execute(this::doGetTopics);
-        } catch (Throwable t) {
-            throw new KafkaClientException("Reached max number of retry for reading kafka topic(s)!", t);
+            stage = call.get();
+        } catch (RuntimeException e) {
+            stage = CompletableFuture.failedFuture(e);
         }
-        return topicListings;
+        stage.whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(e);
+            if (attempt >= retryConfigData.getMaxAttempts()) {
+                result.completeExceptionally(
+                        new KafkaClientException("Reached max number of retry for " + action + "!", cause));
+                return;
+            }
+            LOG.info("Attempt {} at {} failed ({}), retrying in {} ms", attempt, action, cause.toString(),
+                    backOffMs);
+            long nextBackOffMs = Math.min((long) (backOffMs * retryConfigData.getMultiplier()),
+                    retryConfigData.getMaxIntervalMs());
+            CompletableFuture.delayedExecutor(backOffMs, TimeUnit.MILLISECONDS, adminExecutor)
+                    .execute(() -> attempt(action, call, attempt + 1, nextBackOffMs, result));
+        });
     }
 
-    private Collection<TopicListing> doGetTopics(RetryContext retrycontext)
-            throws InterruptedException, ExecutionException {
-        LOG.info("Reading {} topic(s), attempt {}", kafkaConfgData.getTopicNamesToCreate().toArray(),
-                retrycontext.getRetryCount());
-        Collection<TopicListing> topicListings = adminClient.listTopics().listings().get();
-        if (topicListings != null)
-            topicListings.forEach(topic -> LOG.info("Topic with name {}", topic.name()));
-        return topicListings;
+    private static <T> CompletableFuture<T> toCompletableFuture(KafkaFuture<T> kafkaFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        kafkaFuture.whenComplete((value, e) -> {
+            if (e == null)
+                future.complete(value);
+            else
+                future.completeExceptionally(e);
+        });
+        return future;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
     }
 }
@@ -0,0 +1,88 @@
+package com.mctoluene.microservice.demo.kafka.admin.client;
+
+import java.util.List;
+
+/**
+ * Outcome of verifying the configured topics: for each of them, the partition count and replication factor
+ * the brokers describe next to the configured ones, and whether the topic was changed to match.
+ */
+public class TopicReadinessReport {
+    private final List<TopicReadiness> topics;
+
+    TopicReadinessReport(List<TopicReadiness> topics) {
+        this.topics = List.copyOf(topics);
+    }
+
+    public List<TopicReadiness> getTopics() {
+        return topics;
+    }
+
+    /**
+     * True if every topic has the configured layout, possibly after partitions were added.
+     */
+    public boolean isConsistent() {
+        return topics.stream().allMatch(TopicReadiness::isConsistent);
+    }
+
+    @Override
+    public String toString() {
+        return topics.toString();
+    }
+
+    public enum Status {
+        READY, PARTITIONS_ADDED, PARTITION_COUNT_MISMATCH, REPLICATION_FACTOR_MISMATCH
+    }
+
+    public static class TopicReadiness {
+        private final String topicName;
+        private final Status status;
+        private final int expectedPartitions;
+        private final int partitions;
+        private final short expectedReplicationFactor;
+        private final short replicationFactor;
+
+        TopicReadiness(String topicName, Status status, int expectedPartitions, int partitions,
+                short expectedReplicationFactor, short replicationFactor) {
+            this.topicName = topicName;
+            this.status = status;
+            this.expectedPartitions = expectedPartitions;
+            this.partitions = partitions;
+            this.expectedReplicationFactor = expectedReplicationFactor;
+            this.replicationFactor = replicationFactor;
+        }
+
+        public String getTopicName() {
+            return topicName;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public int getExpectedPartitions() {
+            return expectedPartitions;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public short getExpectedReplicationFactor() {
+            return expectedReplicationFactor;
+        }
+
+        public short getReplicationFactor() {
+            return replicationFactor;
+        }
+
+        public boolean isConsistent() {
+            return status == Status.READY || status == Status.PARTITIONS_ADDED;
+        }
+
+        @Override
+        public String toString() {
+            return topicName + " " + status + " (partitions " + partitions + "/" + expectedPartitions
+                    + ", replication factor " + replicationFactor + "/" + expectedReplicationFactor + ")";
+        }
+    }
+}
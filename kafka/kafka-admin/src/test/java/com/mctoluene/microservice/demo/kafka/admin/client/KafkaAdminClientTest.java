@@ -0,0 +1,216 @@
+package com.mctoluene.microservice.demo.kafka.admin.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.CreatePartitionsResult;
+import org.apache.kafka.clients.admin.CreateTopicsResult;
+import org.apache.kafka.clients.admin.DescribeTopicsResult;
+import org.apache.kafka.clients.admin.NewPartitions;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.TopicExistsException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.RetryConfigData;
+import com.mctoluene.microservice.demo.kafka.admin.client.TopicReadinessReport.Status;
+import com.mctoluene.microservice.demo.kafka.admin.client.TopicReadinessReport.TopicReadiness;
+import com.mctoluene.microservice.demo.kafka.admin.exception.KafkaClientException;
+
+import reactor.core.publisher.Mono;
+
+class KafkaAdminClientTest {
+    private static final String TOPIC = "twitter-topic";
+    private static final String JVM_TOPIC = "twitter-jvm-topic";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final List<Node> REPLICAS = List.of(new Node(1, "broker-1", 9092), new Node(2, "broker-2", 9092),
+            new Node(3, "broker-3", 9092));
+
+    private final AdminClient adminClient = mock(AdminClient.class);
+    private final AtomicInteger registryCalls = new AtomicInteger();
+    private final KafkaConfigData kafkaConfigData = new KafkaConfigData();
+    private ManagedExecutors managedExecutors;
+    private int registryFailures;
+
+    @BeforeEach
+    void setUp() {
+        kafkaConfigData.setTopicNamesToCreate(List.of(TOPIC, JVM_TOPIC));
+        kafkaConfigData.setNumberOfPartitions(3);
+        kafkaConfigData.setReplicationFactor((short) 3);
+        kafkaConfigData.setReconcileTopics(true);
+        kafkaConfigData.setSchemaRegistryUrl("http://localhost:8081");
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(false);
+        executorConfigData.setShutdownTimeoutMs(1000L);
+        managedExecutors = new ManagedExecutors(executorConfigData);
+    }
+
+    @AfterEach
+    void tearDown() {
+        managedExecutors.shutDown();
+    }
+
+    @Test
+    void failsWithTheLastErrorOnceTheRetriesAreExhausted() {
+        registryFailures = Integer.MAX_VALUE;
+
+        assertThatThrownBy(() -> kafkaAdminClient().checkSchemaRegistryAsync().get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(KafkaClientException.class)
+                .hasMessageContaining("Reached max number of retry for reaching schema registry")
+                .hasRootCauseMessage("Schema registry responded with 503 SERVICE_UNAVAILABLE");
+        assertThat(registryCalls).hasValue(MAX_ATTEMPTS);
+    }
+
+    @Test
+    void succeedsOnTheLastRetry() throws Exception {
+        registryFailures = MAX_ATTEMPTS - 1;
+
+        kafkaAdminClient().checkSchemaRegistryAsync().get(5, TimeUnit.SECONDS);
+
+        assertThat(registryCalls).hasValue(MAX_ATTEMPTS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createsAMissingTopicNextToAnExistingOne() throws Exception {
+        CreateTopicsResult createTopicsResult = mock(CreateTopicsResult.class);
+        when(createTopicsResult.values()).thenReturn(Map.of(TOPIC, failed(new TopicExistsException(TOPIC)),
+                JVM_TOPIC, KafkaFuture.completedFuture(null)));
+        when(adminClient.createTopics(anyCollection())).thenReturn(createTopicsResult);
+        // The brokers only learn of the new topic after the first describe
+        DescribeTopicsResult unknown = describeResult(failed(new UnknownTopicOrPartitionException(JVM_TOPIC)));
+        DescribeTopicsResult described = describeResult(
+                KafkaFuture.completedFuture(descriptions(Map.of(TOPIC, 3, JVM_TOPIC, 3))));
+        when(adminClient.describeTopics(anyCollection())).thenReturn(unknown, described);
+
+        TopicReadinessReport report = kafkaAdminClient().createTopicAsync().get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Collection<NewTopic>> created = ArgumentCaptor.forClass(Collection.class);
+        verify(adminClient).createTopics(created.capture());
+        assertThat(created.getValue()).extracting(NewTopic::name).containsExactly(TOPIC, JVM_TOPIC);
+        assertThat(created.getValue()).allMatch(topic -> topic.numPartitions() == 3 && topic.replicationFactor() == 3);
+        verify(adminClient, times(2)).describeTopics(anyCollection());
+        assertThat(report.getTopics()).extracting(TopicReadiness::getStatus).containsOnly(Status.READY);
+        assertThat(report.isConsistent()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void raisesAPartitionCountBelowTheConfiguredOne() throws Exception {
+        DescribeTopicsResult described = describeResult(
+                KafkaFuture.completedFuture(descriptions(Map.of(TOPIC, 3, JVM_TOPIC, 1))));
+        when(adminClient.describeTopics(anyCollection())).thenReturn(described);
+        CreatePartitionsResult createPartitionsResult = mock(CreatePartitionsResult.class);
+        when(createPartitionsResult.all()).thenReturn(KafkaFuture.completedFuture(null));
+        when(adminClient.createPartitions(any(Map.class))).thenReturn(createPartitionsResult);
+
+        TopicReadinessReport report = kafkaAdminClient().checkTopicCreatedAsync().get(5, TimeUnit.SECONDS);
+
+        ArgumentCaptor<Map<String, NewPartitions>> increases = ArgumentCaptor.forClass(Map.class);
+        verify(adminClient).createPartitions(increases.capture());
+        assertThat(increases.getValue()).containsOnlyKeys(JVM_TOPIC);
+        assertThat(increases.getValue().get(JVM_TOPIC).totalCount()).isEqualTo(3);
+        assertThat(statusOf(report, JVM_TOPIC)).isEqualTo(Status.PARTITIONS_ADDED);
+        assertThat(statusOf(report, TOPIC)).isEqualTo(Status.READY);
+        assertThat(report.isConsistent()).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsAPartitionCountItCannotReduce() throws Exception {
+        DescribeTopicsResult described = describeResult(
+                KafkaFuture.completedFuture(descriptions(Map.of(TOPIC, 3, JVM_TOPIC, 5))));
+        when(adminClient.describeTopics(anyCollection())).thenReturn(described);
+
+        TopicReadinessReport report = kafkaAdminClient().checkTopicCreatedAsync().get(5, TimeUnit.SECONDS);
+
+        verify(adminClient, never()).createPartitions(any(Map.class));
+        assertThat(statusOf(report, JVM_TOPIC)).isEqualTo(Status.PARTITION_COUNT_MISMATCH);
+        assertThat(report.isConsistent()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failsWhenThePartitionsCannotBeAdded() {
+        DescribeTopicsResult described = describeResult(
+                KafkaFuture.completedFuture(descriptions(Map.of(TOPIC, 1, JVM_TOPIC, 3))));
+        when(adminClient.describeTopics(anyCollection())).thenReturn(described);
+        CreatePartitionsResult createPartitionsResult = mock(CreatePartitionsResult.class);
+        when(createPartitionsResult.all()).thenReturn(failed(new IllegalStateException("not authorized")));
+        when(adminClient.createPartitions(any(Map.class))).thenReturn(createPartitionsResult);
+
+        assertThatThrownBy(() -> kafkaAdminClient().checkTopicCreatedAsync().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(KafkaClientException.class)
+                .hasMessageContaining("Error while adding partitions to topic(s) [" + TOPIC + "]");
+    }
+
+    private KafkaAdminClient kafkaAdminClient() {
+        RetryConfigData retryConfigData = new RetryConfigData();
+        retryConfigData.setInitialIntervalMs(10L);
+        retryConfigData.setMaxIntervalMs(40L);
+        retryConfigData.setMultiplier(2.0);
+        retryConfigData.setMaxAttempts(MAX_ATTEMPTS);
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(
+                        registryCalls.incrementAndGet() > registryFailures ? HttpStatus.OK
+                                : HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .build();
+        return new KafkaAdminClient(kafkaConfigData, retryConfigData, adminClient, webClient, managedExecutors);
+    }
+
+    private static DescribeTopicsResult describeResult(KafkaFuture<Map<String, TopicDescription>> descriptions) {
+        DescribeTopicsResult result = mock(DescribeTopicsResult.class);
+        when(result.allTopicNames()).thenReturn(descriptions);
+        return result;
+    }
+
+    private static Map<String, TopicDescription> descriptions(Map<String, Integer> partitionCounts) {
+        return partitionCounts.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> new TopicDescription(entry.getKey(), false, IntStream.range(0, entry.getValue())
+                        .mapToObj(partition -> new TopicPartitionInfo(partition, REPLICAS.get(0), REPLICAS, REPLICAS))
+                        .collect(Collectors.toList()))));
+    }
+
+    private static Status statusOf(TopicReadinessReport report, String topicName) {
+        return report.getTopics().stream().filter(topic -> topic.getTopicName().equals(topicName))
+                .map(TopicReadiness::getStatus).findFirst().orElseThrow();
+    }
+
+    private static <T> KafkaFuture<T> failed(Throwable e) {
+        KafkaFutureImpl<T> future = new KafkaFutureImpl<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+}
@@ -5,31 +5,36 @@
  */
 package com.mctoluene.microservice.demo.kafka.avro.model;
 
+import org.apache.avro.generic.GenericArray;
 import org.apache.avro.specific.SpecificData;
+import org.apache.avro.util.Utf8;
 import org.apache.avro.message.BinaryMessageEncoder;
 import org.apache.avro.message.BinaryMessageDecoder;
 import org.apache.avro.message.SchemaStore;
 
+/** Version 3 of the tweet record. Versions 1 and 2 are kept in twitter-v1.avsc and twitter-v2.avsc. */
 @org.apache.avro.specific.AvroGenerated
-public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBase {
-    private static final long serialVersionUID = -2929560579419112542L;
+public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
+    private static final long serialVersionUID = -1652296954187515897L;
 
-    public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse(
-            "{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"namespace\":\"com.mctoluene.microservice.demo.kafka.avro.model\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}]},{\"name\":\"createdAt\",\"type\":[\"null\",\"long\"],\"logicalType\":[\"null\",\"date\"]}]}");
 
-    public static org.apache.avro.Schema getClassSchema() {
-        return SCHEMA$;
-    }
+    public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"TwitterAvroModel\",\"namespace\":\"com.mctoluene.microservice.demo.kafka.avro.model\",\"doc\":\"Version 3 of the tweet record. Versions 1 and 2 are kept in twitter-v1.avsc and twitter-v2.avsc.\",\"fields\":[{\"name\":\"userId\",\"type\":\"long\"},{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"text\",\"type\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},{\"name\":\"createdAt\",\"type\":{\"type\":\"long\",\"logicalType\":\"timestamp-millis\"}},{\"name\":\"keyword\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null},{\"name\":\"lang\",\"type\":[\"null\",{\"type\":\"string\",\"avro.java.string\":\"String\"}],\"default\":null},{\"name\":\"keywords\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"string\",\"avro.java.string\":\"String\"}},\"default\":[]}]}");
+    public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
     private static final SpecificData MODEL$ = new SpecificData();
+    static {
+        MODEL$.addLogicalTypeConversion(new org.apache.avro.data.TimeConversions.TimestampMillisConversion());
+    }
 
-    private static final BinaryMessageEncoder<TwitterAvroModel> ENCODER = new BinaryMessageEncoder<>(MODEL$, SCHEMA$);
+    private static final BinaryMessageEncoder<TwitterAvroModel> ENCODER =
+            new BinaryMessageEncoder<>(MODEL$, SCHEMA$);
 
-    private static final BinaryMessageDecoder<TwitterAvroModel> DECODER = new BinaryMessageDecoder<>(MODEL$, SCHEMA$);
+    private static final BinaryMessageDecoder<TwitterAvroModel> DECODER =
+            new BinaryMessageDecoder<>(MODEL$, SCHEMA$);
 
     /**
      * Return the BinaryMessageEncoder instance used by this class.
-     *
      * @return the message encoder used by this class
      */
     public static BinaryMessageEncoder<TwitterAvroModel> getEncoder() {
@@ -38,7 +43,6 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Return the BinaryMessageDecoder instance used by this class.
-     *
      * @return the message decoder used by this class
      */
     public static BinaryMessageDecoder<TwitterAvroModel> getDecoder() {
@@ -46,12 +50,9 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     }
 
     /**
-     * Create a new BinaryMessageDecoder instance for this class that uses the
-     * specified {@link SchemaStore}.
-     *
+     * Create a new BinaryMessageDecoder instance for this class that uses the specified {@link SchemaStore}.
      * @param resolver a {@link SchemaStore} used to find schemas by fingerprint
-     * @return a BinaryMessageDecoder instance for this class backed by the given
-     *         SchemaStore
+     * @return a BinaryMessageDecoder instance for this class backed by the given SchemaStore
      */
     public static BinaryMessageDecoder<TwitterAvroModel> createDecoder(SchemaStore resolver) {
         return new BinaryMessageDecoder<>(MODEL$, SCHEMA$, resolver);
@@ -59,7 +60,6 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Serializes this TwitterAvroModel to a ByteBuffer.
-     *
      * @return a buffer holding the serialized data for this instance
      * @throws java.io.IOException if this instance could not be serialized
      */
@@ -69,11 +69,9 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Deserializes a TwitterAvroModel from a ByteBuffer.
-     *
      * @param b a byte buffer holding serialized data for an instance of this class
      * @return a TwitterAvroModel instance decoded from the given buffer
-     * @throws java.io.IOException if the given bytes could not be deserialized into
-     *                             an instance of this class
+     * @throws java.io.IOException if the given bytes could not be deserialized into an instance of this class
      */
     public static TwitterAvroModel fromByteBuffer(
             java.nio.ByteBuffer b) throws java.io.IOException {
@@ -83,91 +81,103 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     private long userId;
     private long id;
     private java.lang.String text;
-    private java.lang.Long createdAt;
+    private java.time.Instant createdAt;
+    private java.lang.String keyword;
+    private java.lang.String lang;
+    private java.util.List<java.lang.String> keywords;
 
     /**
-     * Default constructor. Note that this does not initialize fields
-     * to their default values from the schema. If that is desired then
+     * Default constructor.  Note that this does not initialize fields
+     * to their default values from the schema.  If that is desired then
      * one should use <code>newBuilder()</code>.
      */
-    public TwitterAvroModel() {
-    }
+    public TwitterAvroModel() {}
 
     /**
      * All-args constructor.
-     *
-     * @param userId    The new value for userId
-     * @param id        The new value for id
-     * @param text      The new value for text
+     * @param userId The new value for userId
+     * @param id The new value for id
+     * @param text The new value for text
      * @param createdAt The new value for createdAt
+     * @param keyword The new value for keyword
+     * @param lang The new value for lang
+     * @param keywords The new value for keywords
      */
-    public TwitterAvroModel(java.lang.Long userId, java.lang.Long id, java.lang.String text, java.lang.Long createdAt) {
+    public TwitterAvroModel(java.lang.Long userId, java.lang.Long id, java.lang.String text, java.time.Instant createdAt, java.lang.String keyword, java.lang.String lang, java.util.List<java.lang.String> keywords) {
         this.userId = userId;
         this.id = id;
         this.text = text;
-        this.createdAt = createdAt;
+        this.createdAt = createdAt.truncatedTo(java.time.temporal.ChronoUnit.MILLIS);
+        this.keyword = keyword;
+        this.lang = lang;
+        this.keywords = keywords;
     }
 
     @Override
-    public org.apache.avro.specific.SpecificData getSpecificData() {
-        return MODEL$;
-    }
+    public org.apache.avro.specific.SpecificData getSpecificData() { return MODEL$; }
 
     @Override
-    public org.apache.avro.Schema getSchema() {
-        return SCHEMA$;
-    }
+    public org.apache.avro.Schema getSchema() { return SCHEMA$; }
 
-    // Used by DatumWriter. Applications should not call.
+    // Used by DatumWriter.  Applications should not call.
     @Override
     public java.lang.Object get(int field$) {
         switch (field$) {
-            case 0:
-                return userId;
-            case 1:
-                return id;
-            case 2:
-                return text;
-            case 3:
-                return createdAt;
-            default:
-                throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        case 0: return userId;
+        case 1: return id;
+        case 2: return text;
+        case 3: return createdAt;
+        case 4: return keyword;
+        case 5: return lang;
+        case 6: return keywords;
+        default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
         }
     }
 
-    // Used by DatumReader. Applications should not call.
+    private static final org.apache.avro.Conversion<?>[] conversions =
+            new org.apache.avro.Conversion<?>[] {
+            null,
+            null,
+            null,
+            new org.apache.avro.data.TimeConversions.TimestampMillisConversion(),
+            null,
+            null,
+            null,
+            null
+    };
+
     @Override
+    public org.apache.avro.Conversion<?> getConversion(int field) {
+        return conversions[field];
+    }
+
+    // Used by DatumReader.  Applications should not call.
+    @Override
+    @SuppressWarnings(value="unchecked")
     public void put(int field$, java.lang.Object value$) {
         switch (field$) {
-            case 0:
-                userId = (java.lang.Long) value$;
-                break;
-            case 1:
-                id = (java.lang.Long) value$;
-                break;
-            case 2:
-                text = value$ != null ? value$.toString() : null;
-                break;
-            case 3:
-                createdAt = (java.lang.Long) value$;
-                break;
-            default:
-                throw new IndexOutOfBoundsException("Invalid index: " + field$);
+        case 0: userId = (java.lang.Long)value$; break;
+        case 1: id = (java.lang.Long)value$; break;
+        case 2: text = value$ != null ? value$.toString() : null; break;
+        case 3: createdAt = (java.time.Instant)value$; break;
+        case 4: keyword = value$ != null ? value$.toString() : null; break;
+        case 5: lang = value$ != null ? value$.toString() : null; break;
+        case 6: keywords = (java.util.List<java.lang.String>)value$; break;
+        default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
         }
     }
 
     /**
      * Gets the value of the 'userId' field.
-     *
      * @return The value of the 'userId' field.
      */
     public long getUserId() {
         return userId;
     }
 
+
     /**
      * Sets the value of the 'userId' field.
-     *
      * @param value the value to set.
      */
     public void setUserId(long value) {
@@ -176,16 +186,15 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Gets the value of the 'id' field.
-     *
      * @return The value of the 'id' field.
      */
     public long getId() {
         return id;
     }
 
+
     /**
      * Sets the value of the 'id' field.
-     *
      * @param value the value to set.
      */
     public void setId(long value) {
@@ -194,16 +203,15 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Gets the value of the 'text' field.
-     *
      * @return The value of the 'text' field.
      */
     public java.lang.String getText() {
         return text;
     }
 
+
     /**
      * Sets the value of the 'text' field.
-     *
      * @param value the value to set.
      */
     public void setText(java.lang.String value) {
@@ -212,25 +220,74 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Gets the value of the 'createdAt' field.
-     *
      * @return The value of the 'createdAt' field.
      */
-    public java.lang.Long getCreatedAt() {
+    public java.time.Instant getCreatedAt() {
         return createdAt;
     }
 
+
     /**
      * Sets the value of the 'createdAt' field.
-     *
      * @param value the value to set.
      */
-    public void setCreatedAt(java.lang.Long value) {
-        this.createdAt = value;
+    public void setCreatedAt(java.time.Instant value) {
+        this.createdAt = value.truncatedTo(java.time.temporal.ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Gets the value of the 'keyword' field.
+     * @return The value of the 'keyword' field.
+     */
+    public java.lang.String getKeyword() {
+        return keyword;
+    }
+
+
+    /**
+     * Sets the value of the 'keyword' field.
+     * @param value the value to set.
+     */
+    public void setKeyword(java.lang.String value) {
+        this.keyword = value;
+    }
+
+    /**
+     * Gets the value of the 'lang' field.
+     * @return The value of the 'lang' field.
+     */
+    public java.lang.String getLang() {
+        return lang;
+    }
+
+
+    /**
+     * Sets the value of the 'lang' field.
+     * @param value the value to set.
+     */
+    public void setLang(java.lang.String value) {
+        this.lang = value;
+    }
+
+    /**
+     * Gets the value of the 'keywords' field.
+     * @return The value of the 'keywords' field.
+     */
+    public java.util.List<java.lang.String> getKeywords() {
+        return keywords;
+    }
+
+
+    /**
+     * Sets the value of the 'keywords' field.
+     * @param value the value to set.
+     */
+    public void setKeywords(java.util.List<java.lang.String> value) {
+        this.keywords = value;
     }
 
     /**
      * Creates a new TwitterAvroModel RecordBuilder.
-     *
      * @return A new TwitterAvroModel RecordBuilder
      */
     public static com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder newBuilder() {
@@ -239,12 +296,10 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
     /**
      * Creates a new TwitterAvroModel RecordBuilder by copying an existing Builder.
-     *
      * @param other The existing builder to copy.
      * @return A new TwitterAvroModel RecordBuilder
      */
-    public static com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder newBuilder(
-            com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder other) {
+    public static com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder newBuilder(com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder other) {
         if (other == null) {
             return new com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder();
         } else {
@@ -253,14 +308,11 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     }
 
     /**
-     * Creates a new TwitterAvroModel RecordBuilder by copying an existing
-     * TwitterAvroModel instance.
-     *
+     * Creates a new TwitterAvroModel RecordBuilder by copying an existing TwitterAvroModel instance.
      * @param other The existing instance to copy.
      * @return A new TwitterAvroModel RecordBuilder
      */
-    public static com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder newBuilder(
-            com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel other) {
+    public static com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder newBuilder(com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel other) {
         if (other == null) {
             return new com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder();
         } else {
@@ -272,12 +324,16 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
      * RecordBuilder for TwitterAvroModel instances.
      */
     @org.apache.avro.specific.AvroGenerated
-    public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<TwitterAvroModel> {
+    public static class Builder extends org.apache.avro.specific.SpecificRecordBuilderBase<TwitterAvroModel>
+        implements org.apache.avro.data.RecordBuilder<TwitterAvroModel> {
 
         private long userId;
         private long id;
         private java.lang.String text;
-        private java.lang.Long createdAt;
+        private java.time.Instant createdAt;
+        private java.lang.String keyword;
+        private java.lang.String lang;
+        private java.util.List<java.lang.String> keywords;
 
         /** Creates a new Builder */
         private Builder() {
@@ -286,7 +342,6 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
 
         /**
          * Creates a Builder by copying an existing Builder.
-         *
          * @param other The existing Builder to copy.
          */
         private Builder(com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder other) {
@@ -307,11 +362,22 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
                 this.createdAt = data().deepCopy(fields()[3].schema(), other.createdAt);
                 fieldSetFlags()[3] = other.fieldSetFlags()[3];
             }
+            if (isValidValue(fields()[4], other.keyword)) {
+                this.keyword = data().deepCopy(fields()[4].schema(), other.keyword);
+                fieldSetFlags()[4] = other.fieldSetFlags()[4];
+            }
+            if (isValidValue(fields()[5], other.lang)) {
+                this.lang = data().deepCopy(fields()[5].schema(), other.lang);
+                fieldSetFlags()[5] = other.fieldSetFlags()[5];
+            }
+            if (isValidValue(fields()[6], other.keywords)) {
+                this.keywords = data().deepCopy(fields()[6].schema(), other.keywords);
+                fieldSetFlags()[6] = other.fieldSetFlags()[6];
+            }
         }
 
         /**
          * Creates a Builder by copying an existing TwitterAvroModel instance
-         *
          * @param other The existing instance to copy.
          */
         private Builder(com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel other) {
@@ -332,23 +398,34 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
                 this.createdAt = data().deepCopy(fields()[3].schema(), other.createdAt);
                 fieldSetFlags()[3] = true;
             }
+            if (isValidValue(fields()[4], other.keyword)) {
+                this.keyword = data().deepCopy(fields()[4].schema(), other.keyword);
+                fieldSetFlags()[4] = true;
+            }
+            if (isValidValue(fields()[5], other.lang)) {
+                this.lang = data().deepCopy(fields()[5].schema(), other.lang);
+                fieldSetFlags()[5] = true;
+            }
+            if (isValidValue(fields()[6], other.keywords)) {
+                this.keywords = data().deepCopy(fields()[6].schema(), other.keywords);
+                fieldSetFlags()[6] = true;
+            }
         }
 
         /**
-         * Gets the value of the 'userId' field.
-         *
-         * @return The value.
-         */
+            * Gets the value of the 'userId' field.
+            * @return The value.
+            */
         public long getUserId() {
             return userId;
         }
 
+
         /**
-         * Sets the value of the 'userId' field.
-         *
-         * @param value The value of 'userId'.
-         * @return This builder.
-         */
+            * Sets the value of the 'userId' field.
+            * @param value The value of 'userId'.
+            * @return This builder.
+            */
         public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setUserId(long value) {
             validate(fields()[0], value);
             this.userId = value;
@@ -357,39 +434,37 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         }
 
         /**
-         * Checks whether the 'userId' field has been set.
-         *
-         * @return True if the 'userId' field has been set, false otherwise.
-         */
+            * Checks whether the 'userId' field has been set.
+            * @return True if the 'userId' field has been set, false otherwise.
+            */
         public boolean hasUserId() {
             return fieldSetFlags()[0];
         }
 
+
         /**
-         * Clears the value of the 'userId' field.
-         *
-         * @return This builder.
-         */
+            * Clears the value of the 'userId' field.
+            * @return This builder.
+            */
         public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearUserId() {
             fieldSetFlags()[0] = false;
             return this;
         }
 
         /**
-         * Gets the value of the 'id' field.
-         *
-         * @return The value.
-         */
+            * Gets the value of the 'id' field.
+            * @return The value.
+            */
         public long getId() {
             return id;
         }
 
+
         /**
-         * Sets the value of the 'id' field.
-         *
-         * @param value The value of 'id'.
-         * @return This builder.
-         */
+            * Sets the value of the 'id' field.
+            * @param value The value of 'id'.
+            * @return This builder.
+            */
         public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setId(long value) {
             validate(fields()[1], value);
             this.id = value;
@@ -398,41 +473,38 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         }
 
         /**
-         * Checks whether the 'id' field has been set.
-         *
-         * @return True if the 'id' field has been set, false otherwise.
-         */
+            * Checks whether the 'id' field has been set.
+            * @return True if the 'id' field has been set, false otherwise.
+            */
         public boolean hasId() {
             return fieldSetFlags()[1];
         }
 
+
         /**
-         * Clears the value of the 'id' field.
-         *
-         * @return This builder.
-         */
+            * Clears the value of the 'id' field.
+            * @return This builder.
+            */
         public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearId() {
             fieldSetFlags()[1] = false;
             return this;
         }
 
         /**
-         * Gets the value of the 'text' field.
-         *
-         * @return The value.
-         */
+            * Gets the value of the 'text' field.
+            * @return The value.
+            */
         public java.lang.String getText() {
             return text;
         }
 
+
         /**
-         * Sets the value of the 'text' field.
-         *
-         * @param value The value of 'text'.
-         * @return This builder.
-         */
-        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setText(
-                java.lang.String value) {
+            * Sets the value of the 'text' field.
+            * @param value The value of 'text'.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setText(java.lang.String value) {
             validate(fields()[2], value);
             this.text = value;
             fieldSetFlags()[2] = true;
@@ -440,19 +512,18 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         }
 
         /**
-         * Checks whether the 'text' field has been set.
-         *
-         * @return True if the 'text' field has been set, false otherwise.
-         */
+            * Checks whether the 'text' field has been set.
+            * @return True if the 'text' field has been set, false otherwise.
+            */
         public boolean hasText() {
             return fieldSetFlags()[2];
         }
 
+
         /**
-         * Clears the value of the 'text' field.
-         *
-         * @return This builder.
-         */
+            * Clears the value of the 'text' field.
+            * @return This builder.
+            */
         public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearText() {
             text = null;
             fieldSetFlags()[2] = false;
@@ -460,56 +531,176 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
         }
 
         /**
-         * Gets the value of the 'createdAt' field.
-         *
-         * @return The value.
-         */
-        public java.lang.Long getCreatedAt() {
+            * Gets the value of the 'createdAt' field.
+            * @return The value.
+            */
+        public java.time.Instant getCreatedAt() {
             return createdAt;
         }
 
+
         /**
-         * Sets the value of the 'createdAt' field.
-         *
-         * @param value The value of 'createdAt'.
-         * @return This builder.
-         */
-        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setCreatedAt(
-                java.lang.Long value) {
+            * Sets the value of the 'createdAt' field.
+            * @param value The value of 'createdAt'.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setCreatedAt(java.time.Instant value) {
             validate(fields()[3], value);
-            this.createdAt = value;
+            this.createdAt = value.truncatedTo(java.time.temporal.ChronoUnit.MILLIS);
             fieldSetFlags()[3] = true;
             return this;
         }
 
         /**
-         * Checks whether the 'createdAt' field has been set.
-         *
-         * @return True if the 'createdAt' field has been set, false otherwise.
-         */
+            * Checks whether the 'createdAt' field has been set.
+            * @return True if the 'createdAt' field has been set, false otherwise.
+            */
         public boolean hasCreatedAt() {
             return fieldSetFlags()[3];
         }
 
+
         /**
-         * Clears the value of the 'createdAt' field.
-         *
-         * @return This builder.
-         */
+            * Clears the value of the 'createdAt' field.
+            * @return This builder.
+            */
         public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearCreatedAt() {
-            createdAt = null;
             fieldSetFlags()[3] = false;
             return this;
         }
 
+        /**
+            * Gets the value of the 'keyword' field.
+            * @return The value.
+            */
+        public java.lang.String getKeyword() {
+            return keyword;
+        }
+
+
+        /**
+            * Sets the value of the 'keyword' field.
+            * @param value The value of 'keyword'.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setKeyword(java.lang.String value) {
+            validate(fields()[4], value);
+            this.keyword = value;
+            fieldSetFlags()[4] = true;
+            return this;
+        }
+
+        /**
+            * Checks whether the 'keyword' field has been set.
+            * @return True if the 'keyword' field has been set, false otherwise.
+            */
+        public boolean hasKeyword() {
+            return fieldSetFlags()[4];
+        }
+
+
+        /**
+            * Clears the value of the 'keyword' field.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearKeyword() {
+            keyword = null;
+            fieldSetFlags()[4] = false;
+            return this;
+        }
+
+        /**
+            * Gets the value of the 'lang' field.
+            * @return The value.
+            */
+        public java.lang.String getLang() {
+            return lang;
+        }
+
+
+        /**
+            * Sets the value of the 'lang' field.
+            * @param value The value of 'lang'.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setLang(java.lang.String value) {
+            validate(fields()[5], value);
+            this.lang = value;
+            fieldSetFlags()[5] = true;
+            return this;
+        }
+
+        /**
+            * Checks whether the 'lang' field has been set.
+            * @return True if the 'lang' field has been set, false otherwise.
+            */
+        public boolean hasLang() {
+            return fieldSetFlags()[5];
+        }
+
+
+        /**
+            * Clears the value of the 'lang' field.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearLang() {
+            lang = null;
+            fieldSetFlags()[5] = false;
+            return this;
+        }
+
+        /**
+            * Gets the value of the 'keywords' field.
+            * @return The value.
+            */
+        public java.util.List<java.lang.String> getKeywords() {
+            return keywords;
+        }
+
+
+        /**
+            * Sets the value of the 'keywords' field.
+            * @param value The value of 'keywords'.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder setKeywords(java.util.List<java.lang.String> value) {
+            validate(fields()[6], value);
+            this.keywords = value;
+            fieldSetFlags()[6] = true;
+            return this;
+        }
+
+        /**
+            * Checks whether the 'keywords' field has been set.
+            * @return True if the 'keywords' field has been set, false otherwise.
+            */
+        public boolean hasKeywords() {
+            return fieldSetFlags()[6];
+        }
+
+
+        /**
+            * Clears the value of the 'keywords' field.
+            * @return This builder.
+            */
+        public com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel.Builder clearKeywords() {
+            keywords = null;
+            fieldSetFlags()[6] = false;
+            return this;
+        }
+
         @Override
+        @SuppressWarnings("unchecked")
         public TwitterAvroModel build() {
             try {
                 TwitterAvroModel record = new TwitterAvroModel();
                 record.userId = fieldSetFlags()[0] ? this.userId : (java.lang.Long) defaultValue(fields()[0]);
                 record.id = fieldSetFlags()[1] ? this.id : (java.lang.Long) defaultValue(fields()[1]);
                 record.text = fieldSetFlags()[2] ? this.text : (java.lang.String) defaultValue(fields()[2]);
-                record.createdAt = fieldSetFlags()[3] ? this.createdAt : (java.lang.Long) defaultValue(fields()[3]);
+                record.createdAt = fieldSetFlags()[3] ? this.createdAt : (java.time.Instant) defaultValue(fields()[3]);
+                record.keyword = fieldSetFlags()[4] ? this.keyword : (java.lang.String) defaultValue(fields()[4]);
+                record.lang = fieldSetFlags()[5] ? this.lang : (java.lang.String) defaultValue(fields()[5]);
+                record.keywords = fieldSetFlags()[6] ? this.keywords : (java.util.List<java.lang.String>) defaultValue(fields()[6]);
                 return record;
             } catch (org.apache.avro.AvroMissingFieldException e) {
                 throw e;
@@ -520,111 +711,21 @@ public class TwitterAvroModel extends org.apache.avro.specific.SpecificRecordBas
     }
 
     @SuppressWarnings("unchecked")
-    private static final org.apache.avro.io.DatumWriter<TwitterAvroModel> WRITER$ = (org.apache.avro.io.DatumWriter<TwitterAvroModel>) MODEL$
-            .createDatumWriter(SCHEMA$);
+    private static final org.apache.avro.io.DatumWriter<TwitterAvroModel>
+        WRITER$ = (org.apache.avro.io.DatumWriter<TwitterAvroModel>)MODEL$.createDatumWriter(SCHEMA$);
 
-    @Override
-    public void writeExternal(java.io.ObjectOutput out)
-            throws java.io.IOException {
+    @Override public void writeExternal(java.io.ObjectOutput out)
+        throws java.io.IOException {
         WRITER$.write(this, SpecificData.getEncoder(out));
     }
 
     @SuppressWarnings("unchecked")
-    private static final org.apache.avro.io.DatumReader<TwitterAvroModel> READER$ = (org.apache.avro.io.DatumReader<TwitterAvroModel>) MODEL$
-            .createDatumReader(SCHEMA$);
+    private static final org.apache.avro.io.DatumReader<TwitterAvroModel>
+        READER$ = (org.apache.avro.io.DatumReader<TwitterAvroModel>)MODEL$.createDatumReader(SCHEMA$);
 
-    @Override
-    public void readExternal(java.io.ObjectInput in)
-            throws java.io.IOException {
+    @Override public void readExternal(java.io.ObjectInput in)
+        throws java.io.IOException {
         READER$.read(this, SpecificData.getDecoder(in));
     }
 
-    @Override
-    protected boolean hasCustomCoders() {
-        return true;
-    }
-
-    @Override
-    public void customEncode(org.apache.avro.io.Encoder out)
-            throws java.io.IOException {
-        out.writeLong(this.userId);
-
-        out.writeLong(this.id);
-
-        if (this.text == null) {
-            out.writeIndex(0);
-            out.writeNull();
-        } else {
-            out.writeIndex(1);
-            out.writeString(this.text);
-        }
-
-        if (this.createdAt == null) {
-            out.writeIndex(0);
-            out.writeNull();
-        } else {
-            out.writeIndex(1);
-            out.writeLong(this.createdAt);
-        }
-
-    }
-
-    @Override
-    public void customDecode(org.apache.avro.io.ResolvingDecoder in)
-            throws java.io.IOException {
-        org.apache.avro.Schema.Field[] fieldOrder = in.readFieldOrderIfDiff();
-        if (fieldOrder == null) {
-            this.userId = in.readLong();
-
-            this.id = in.readLong();
-
-            if (in.readIndex() != 1) {
-                in.readNull();
-                this.text = null;
-            } else {
-                this.text = in.readString();
-            }
-
-            if (in.readIndex() != 1) {
-                in.readNull();
-                this.createdAt = null;
-            } else {
-                this.createdAt = in.readLong();
-            }
-
-        } else {
-            for (int i = 0; i < 4; i++) {
-                switch (fieldOrder[i].pos()) {
-                    case 0:
-                        this.userId = in.readLong();
-                        break;
-
-                    case 1:
-                        this.id = in.readLong();
-                        break;
-
-                    case 2:
-                        if (in.readIndex() != 1) {
-                            in.readNull();
-                            this.text = null;
-                        } else {
-                            this.text = in.readString();
-                        }
-                        break;
-
-                    case 3:
-                        if (in.readIndex() != 1) {
-                            in.readNull();
-                            this.createdAt = null;
-                        } else {
-                            this.createdAt = in.readLong();
-                        }
-                        break;
-
-                    default:
-                        throw new java.io.IOException("Corrupt ResolvingDecoder.");
-                }
-            }
-        }
-    }
 }
@@ -0,0 +1,108 @@
+package com.mctoluene.microservice.demo.kafka.avro.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.apache.avro.SchemaCompatibility.SchemaCompatibilityType;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+/**
+ * The versions of the tweet record schema. {@link TwitterAvroModel} is generated from the latest one, and records
+ * of every version are read into it and written from it:
+ * <ul>
+ * <li>v1 has nullable {@code text} and {@code createdAt}, each paying a union index byte, and a misplaced
+ * {@code logicalType} that leaves {@code createdAt} a plain long.</li>
+ * <li>v2 makes {@code text} and {@code createdAt} required, types {@code createdAt} as {@code timestamp-millis}
+ * and adds the optional {@code keyword} and {@code lang}.</li>
+ * <li>v3 adds {@code keywords}, every configured keyword found in the text, defaulting to an empty array. It is
+ * the last field, so the model's field positions still match v1 and v2 for writing.</li>
+ * </ul>
+ * v1 consumers can read v2 and v3 records (both are forward compatible), but neither can read a v1 record whose
+ * text is null, so a registry subject at the default backward compatibility level refuses them on top of v1. v2
+ * and v3 can each read the other's records.
+ * <p>
+ * The services produce v1 by default, as that is what existing subjects hold. To move a subject on, set its
+ * compatibility level to FORWARD, set kafka-config.value-schema-version to 2 or 3 and, once every consumer reads
+ * the new version, set the level back to BACKWARD. Moving between v2 and v3 needs no change of level.
+ */
+public final class TwitterAvroSchemas {
+    public static final int V1 = 1;
+    public static final int V2 = 2;
+    public static final int V3 = 3;
+    public static final int LATEST = V3;
+
+    private static final Schema V1_SCHEMA = load("/avro/twitter-v1.avsc");
+    private static final Schema V1_WRITER_SCHEMA = timestampWriterSchema(V1_SCHEMA);
+    private static final Schema V2_SCHEMA = load("/avro/twitter-v2.avsc");
+
+    private TwitterAvroSchemas() {
+    }
+
+    /**
+     * The schema of a version as registered in the schema registry.
+     */
+    public static Schema schema(int version) {
+        switch (version) {
+            case V1:
+                return V1_SCHEMA;
+            case V2:
+                return V2_SCHEMA;
+            case V3:
+                return TwitterAvroModel.getClassSchema();
+            default:
+                throw new IllegalArgumentException("Unknown TwitterAvroModel schema version " + version);
+        }
+    }
+
+    /**
+     * The schema to hand a {@link SpecificDatumWriter} to write a {@link TwitterAvroModel} in a version. It
+     * encodes exactly like {@link #schema(int)}, with {@code createdAt} annotated so the model's {@code Instant}
+     * is converted.
+     */
+    public static Schema writerSchema(int version) {
+        return version == V1 ? V1_WRITER_SCHEMA : schema(version);
+    }
+
+    /**
+     * A reader that decodes records written with the given schema into the latest {@link TwitterAvroModel}.
+     */
+    public static SpecificDatumReader<TwitterAvroModel> readerFor(Schema writerSchema) {
+        return new SpecificDatumReader<>(writerSchema, TwitterAvroModel.getClassSchema());
+    }
+
+    /**
+     * Whether records written with the writer schema can be read with the reader schema.
+     */
+    public static boolean canRead(Schema readerSchema, Schema writerSchema) {
+        return SchemaCompatibility.checkReaderWriterCompatibility(readerSchema, writerSchema).getType()
+                == SchemaCompatibilityType.COMPATIBLE;
+    }
+
+    private static Schema load(String resource) {
+        try (InputStream schema = TwitterAvroSchemas.class.getResourceAsStream(resource)) {
+            if (schema == null)
+                throw new IllegalStateException("Schema resource " + resource + " is missing");
+            return new Schema.Parser().parse(schema);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error while reading schema resource " + resource, e);
+        }
+    }
+
+    private static Schema timestampWriterSchema(Schema schema) {
+        List<Schema.Field> fields = new ArrayList<>(schema.getFields().size());
+        for (Schema.Field field : schema.getFields()) {
+            Schema type = field.schema();
+            if ("createdAt".equals(field.name()))
+                type = Schema.createUnion(Schema.create(Schema.Type.NULL),
+                        LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG)));
+            fields.add(new Schema.Field(field, type));
+        }
+        return Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), false, fields);
+    }
+}
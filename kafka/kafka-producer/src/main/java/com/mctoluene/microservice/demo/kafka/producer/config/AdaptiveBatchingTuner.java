@@ -0,0 +1,235 @@
+package com.mctoluene.microservice.demo.kafka.producer.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.common.metrics.DeferredMeterBinder;
+import com.mctoluene.microservice.demo.config.AdaptiveBatchingConfigData;
+import com.mctoluene.microservice.demo.config.AdaptiveBatchingConfigData.Goal;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Periodically reads the producer's own metrics and moves linger.ms and batch.size within the configured bounds.
+ * Kafka producers cannot be reconfigured in place, so a change updates the factory configs and resets it; the
+ * next send builds a producer with the new settings while the old one is closed after flushing. With a producer
+ * pool, the metrics of the first member stand for all of them and every member's factory is changed alike.
+ * <p>
+ * The producer exposes no percentiles, so the tail latency is estimated as record-queue-time-max plus
+ * request-latency-avg.
+ */
+@Component
+@ConditionalOnProperty(name = "adaptive-batching-config.enabled", havingValue = "true")
+public class AdaptiveBatchingTuner implements DeferredMeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBatchingTuner.class);
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+    private static final double FULL_BATCH_RATIO = 0.9;
+
+    private final AdaptiveBatchingConfigData adaptiveBatchingConfigData;
+    private final KafkaTemplate<?, ?> kafkaTemplate;
+    private final List<? extends ProducerFactory<?, ?>> producerFactories;
+    private final ManagedExecutors managedExecutors;
+    private final LongAdder adjustmentCount = new LongAdder();
+    private ExecutorService tunerExecutor;
+    private volatile boolean running;
+    private volatile int lingerMs;
+    private volatile int batchSize;
+    private volatile double estimatedLatencyMs;
+    private volatile Decision lastDecision = Decision.HOLD;
+
+    public enum Decision {
+        HOLD, GROW_BATCH, RAISE_LINGER, SHRINK
+    }
+
+    public AdaptiveBatchingTuner(AdaptiveBatchingConfigData adaptiveBatchingConfigData,
+            KafkaProducerPool<?, ?> kafkaProducerPool, ManagedExecutors managedExecutors) {
+        this.adaptiveBatchingConfigData = adaptiveBatchingConfigData;
+        this.kafkaTemplate = kafkaProducerPool.getKafkaTemplates().get(0);
+        this.producerFactories = kafkaProducerPool.getProducerFactories();
+        this.managedExecutors = managedExecutors;
+        Map<String, Object> configs = kafkaTemplate.getProducerFactory().getConfigurationProperties();
+        this.lingerMs = clamp(intConfig(configs, ProducerConfig.LINGER_MS_CONFIG),
+                adaptiveBatchingConfigData.getMinLingerMs(), adaptiveBatchingConfigData.getMaxLingerMs());
+        this.batchSize = clamp(intConfig(configs, ProducerConfig.BATCH_SIZE_CONFIG),
+                adaptiveBatchingConfigData.getMinBatchSize(), adaptiveBatchingConfigData.getMaxBatchSize());
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        tunerExecutor = managedExecutors.newExecutor("adaptive-batching");
+        tunerExecutor.execute(this::run);
+        LOG.info("Started adaptive batching for goal {} with linger.ms {} and batch.size {}",
+                adaptiveBatchingConfigData.getGoal(), lingerMs, batchSize);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        running = false;
+        if (tunerExecutor != null)
+            tunerExecutor.shutdownNow();
+    }
+
+    public int getLingerMs() {
+        return lingerMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public double getEstimatedLatencyMs() {
+        return estimatedLatencyMs;
+    }
+
+    public Decision getLastDecision() {
+        return lastDecision;
+    }
+
+    public long getAdjustmentCount() {
+        return adjustmentCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kafka.producer.adaptive.linger", this, AdaptiveBatchingTuner::getLingerMs)
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("kafka.producer.adaptive.batch.size", this, AdaptiveBatchingTuner::getBatchSize)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("kafka.producer.adaptive.estimated.latency", this, AdaptiveBatchingTuner::getEstimatedLatencyMs)
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.adaptive.adjustments", this, AdaptiveBatchingTuner::getAdjustmentCount)
+                .register(registry);
+        for (Decision decision : Decision.values()) {
+            Gauge.builder("kafka.producer.adaptive.decision", this, tuner -> tuner.lastDecision == decision ? 1 : 0)
+                    .tag("decision", decision.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(adaptiveBatchingConfigData.getEvaluationIntervalMs());
+                evaluate();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.warn("Error while evaluating producer batching", e);
+            }
+        }
+    }
+
+    private void evaluate() {
+        Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+        double sendRate = metricValue(metrics, "record-send-rate");
+        if (!(sendRate > 0)) {
+            lastDecision = Decision.HOLD;
+            return;
+        }
+        double latencyMs = metricValue(metrics, "record-queue-time-max") + metricValue(metrics, "request-latency-avg");
+        double batchSizeAvg = metricValue(metrics, "batch-size-avg");
+        estimatedLatencyMs = latencyMs;
+
+        Decision decision = decide(latencyMs, batchSizeAvg, sendRate);
+        int nextLingerMs = lingerMs;
+        int nextBatchSize = batchSize;
+        switch (decision) {
+            case SHRINK:
+                nextLingerMs = lingerMs / 2;
+                if (batchSizeAvg < batchSize * FULL_BATCH_RATIO)
+                    nextBatchSize = (int) Math.max(batchSizeAvg * 2, batchSize / 2);
+                break;
+            case GROW_BATCH:
+                nextBatchSize = batchSize * 2;
+                break;
+            case RAISE_LINGER:
+                nextLingerMs = lingerMs + adaptiveBatchingConfigData.getLingerStepMs();
+                break;
+            default:
+                break;
+        }
+        nextLingerMs = clamp(nextLingerMs, adaptiveBatchingConfigData.getMinLingerMs(),
+                adaptiveBatchingConfigData.getMaxLingerMs());
+        nextBatchSize = clamp(nextBatchSize, adaptiveBatchingConfigData.getMinBatchSize(),
+                adaptiveBatchingConfigData.getMaxBatchSize());
+        if (nextLingerMs == lingerMs && nextBatchSize == batchSize) {
+            lastDecision = Decision.HOLD;
+            return;
+        }
+        LOG.info("Adaptive batching {}: linger.ms {} -> {}, batch.size {} -> {} (estimated latency {} ms, "
+                + "batch-size-avg {}, record-send-rate {})", decision, lingerMs, nextLingerMs, batchSize,
+                nextBatchSize, Math.round(latencyMs), Math.round(batchSizeAvg), Math.round(sendRate));
+        lingerMs = nextLingerMs;
+        batchSize = nextBatchSize;
+        lastDecision = decision;
+        adjustmentCount.increment();
+        for (ProducerFactory<?, ?> producerFactory : producerFactories) {
+            producerFactory.updateConfigs(Map.of(ProducerConfig.LINGER_MS_CONFIG, nextLingerMs,
+                    ProducerConfig.BATCH_SIZE_CONFIG, nextBatchSize));
+            producerFactory.reset();
+        }
+    }
+
+    private Decision decide(double latencyMs, double batchSizeAvg, double sendRate) {
+        int targetLatencyMs = adaptiveBatchingConfigData.getTargetLatencyMs();
+        if (Double.isNaN(latencyMs))
+            return Decision.HOLD;
+        if (latencyMs > targetLatencyMs)
+            return Decision.SHRINK;
+        boolean grow = adaptiveBatchingConfigData.getGoal() == Goal.THROUGHPUT
+                ? belowTargetRate(sendRate)
+                : latencyMs < targetLatencyMs / 2.0;
+        if (!grow)
+            return Decision.HOLD;
+        return batchSizeAvg >= batchSize * FULL_BATCH_RATIO ? Decision.GROW_BATCH : Decision.RAISE_LINGER;
+    }
+
+    private boolean belowTargetRate(double sendRate) {
+        Integer targetRecordsPerSecond = adaptiveBatchingConfigData.getTargetRecordsPerSecond();
+        return targetRecordsPerSecond == null || targetRecordsPerSecond <= 0 || sendRate < targetRecordsPerSecond;
+    }
+
+    private double metricValue(Map<MetricName, ? extends Metric> metrics, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> metric : metrics.entrySet()) {
+            MetricName metricName = metric.getKey();
+            if (metricName.name().equals(name) && metricName.group().equals(PRODUCER_METRICS_GROUP)) {
+                Object value = metric.getValue().metricValue();
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static int intConfig(Map<String, Object> configs, String key) {
+        Object value = configs.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(String.valueOf(value));
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
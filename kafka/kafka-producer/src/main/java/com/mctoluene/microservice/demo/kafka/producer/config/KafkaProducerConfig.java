@@ -1,8 +1,11 @@
 package com.mctoluene.microservice.demo.kafka.producer.config;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.avro.specific.SpecificRecordBase;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -10,26 +13,87 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
 import com.mctoluene.microservice.demo.config.KafkaConfigData;
 import com.mctoluene.microservice.demo.config.KafkaProducerConfigData;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.DeliverySemantics;
+import com.mctoluene.microservice.demo.config.SpillJournalConfigData;
+import com.mctoluene.microservice.demo.kafka.producer.config.partitioner.BalancedPartitioner;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+import com.mctoluene.microservice.demo.kafka.producer.config.refresh.RefreshableProducerFactory;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SpecificAvroSerializer;
+import com.mctoluene.microservice.demo.kafka.producer.config.transaction.BatchedTransactionProducerFactory;
+import com.mctoluene.microservice.demo.kafka.producer.config.transaction.TransactionOutcomes;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecordBase> {
+    // The most in-flight requests per connection for which an idempotent producer keeps ordering across retries
+    private static final int IDEMPOTENT_MAX_IN_FLIGHT_REQUESTS = 5;
+
     private final KafkaConfigData kafkaConfigData;
     private final KafkaProducerConfigData kafkaProducerConfigData;
+    private final SpillJournalConfigData spillJournalConfigData;
+    private final SchemaIdCache schemaIdCache;
+    private final MeterRegistry meterRegistry;
+    private final ManagedExecutors managedExecutors;
+    private final Map<Integer, TransactionOutcomes> transactionOutcomes = new ConcurrentHashMap<>();
 
-    public KafkaProducerConfig(KafkaConfigData kafkaConfigData, KafkaProducerConfigData kafkaProducerConfigData) {
+    public KafkaProducerConfig(KafkaConfigData kafkaConfigData, KafkaProducerConfigData kafkaProducerConfigData,
+            SpillJournalConfigData spillJournalConfigData, SchemaIdCache schemaIdCache, MeterRegistry meterRegistry,
+            ManagedExecutors managedExecutors) {
         this.kafkaConfigData = kafkaConfigData;
         this.kafkaProducerConfigData = kafkaProducerConfigData;
+        this.spillJournalConfigData = spillJournalConfigData;
+        this.schemaIdCache = schemaIdCache;
+        this.meterRegistry = meterRegistry;
+        this.managedExecutors = managedExecutors;
     }
 
+    /**
+     * The producer config as it was at startup. The producer factories are built from {@link #newProducerConfig()}
+     * instead, since calls to this method go through the configuration proxy and always return this same map.
+     */
     @Bean
     public Map<String, Object> producerConfig() {
+        return newProducerConfig();
+    }
+
+    @Bean
+    public ProducerFactory<K, V> producerFactory() {
+        return newRefreshableProducerFactory(0);
+    }
+
+    @Bean
+    public KafkaTemplate<K, V> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    @Bean
+    public KafkaProducerPool<K, V> kafkaProducerPool() {
+        int poolSize = Math.max(1, kafkaProducerConfigData.getProducerPoolSize() == null ? 1
+                : kafkaProducerConfigData.getProducerPoolSize());
+        List<KafkaTemplate<K, V>> kafkaTemplates = new ArrayList<>(poolSize);
+        kafkaTemplates.add(kafkaTemplate());
+        for (int i = 1; i < poolSize; i++) {
+            kafkaTemplates.add(new KafkaTemplate<>(newRefreshableProducerFactory(i)));
+        }
+        return new KafkaProducerPool<>(kafkaTemplates, kafkaProducerConfigData.getProducerPoolRouting());
+    }
+
+    /**
+     * Builds the producer config from the current config data, so a factory rebuilt on refresh picks up the change.
+     */
+    private Map<String, Object> newProducerConfig() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaConfigData.getBootstrapServers());
         props.put(kafkaConfigData.getSchemaRegistryUrlKey(), kafkaConfigData.getSchemaRegistryUrl());
+        props.put(SpecificAvroSerializer.SCHEMA_ID_CACHE_CONFIG, schemaIdCache);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, kafkaProducerConfigData.getKeySerializerClass());
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, kafkaProducerConfigData.getValueSerializerClass());
         props.put(ProducerConfig.BATCH_SIZE_CONFIG,
@@ -39,16 +103,71 @@ public class KafkaProducerConfig<K extends Serializable, V extends SpecificRecor
         props.put(ProducerConfig.ACKS_CONFIG, kafkaProducerConfigData.getAcks());
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProducerConfigData.getRequestTimeoutMs());
         props.put(ProducerConfig.RETRIES_CONFIG, kafkaProducerConfigData.getRetryCount());
+        putDeliverySemantics(props);
+        // Unset by default, keeping murmur2 placement. BalancedPartitioner moves the overflow of a hot key to other
+        // partitions, so consumers lose per-key ordering for exactly the keys that overflow
+        if (kafkaProducerConfigData.getPartitionerClass() != null) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, kafkaProducerConfigData.getPartitionerClass());
+            if (kafkaProducerConfigData.getPartitionerMaxLoadFactor() != null)
+                props.put(BalancedPartitioner.MAX_LOAD_FACTOR_CONFIG,
+                        kafkaProducerConfigData.getPartitionerMaxLoadFactor());
+        }
+        if (Boolean.TRUE.equals(spillJournalConfigData.getEnabled()))
+            props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, spillJournalConfigData.getProducerMaxBlockMs());
         return props;
     }
 
-    @Bean
-    public ProducerFactory<K, V> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfig());
+    /**
+     * Without idempotence a retried batch can be written twice, or after a later batch when more than one request
+     * is in flight. With it the broker drops the duplicate and keeps the order for up to 5 in-flight requests, which
+     * requires acks=all.
+     */
+    private void putDeliverySemantics(Map<String, Object> props) {
+        DeliverySemantics deliverySemantics = kafkaProducerConfigData.getDeliverySemantics();
+        Integer maxInFlightRequests = kafkaProducerConfigData.getMaxInFlightRequestsPerConnection();
+        if (deliverySemantics == null) {
+            if (maxInFlightRequests != null)
+                props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+            return;
+        }
+        if (deliverySemantics == DeliverySemantics.AT_LEAST_ONCE) {
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+            if (maxInFlightRequests != null)
+                props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+            return;
+        }
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests == null
+                ? IDEMPOTENT_MAX_IN_FLIGHT_REQUESTS : Math.min(maxInFlightRequests, IDEMPOTENT_MAX_IN_FLIGHT_REQUESTS));
     }
 
-    @Bean
-    public KafkaTemplate<K, V> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    /**
+     * The factory of one pool member, rebuilt from the producer config whenever it is refreshed.
+     */
+    private RefreshableProducerFactory<K, V> newRefreshableProducerFactory(int member) {
+        return new RefreshableProducerFactory<>(() -> newProducerFactory(member),
+                kafkaProducerConfigData.getRefreshDrainTimeoutMs());
+    }
+
+    /**
+     * The factory of one pool member. In transactional mode each member gets its own transactional id, so
+     * restarting the instance fences the producers of its previous run.
+     */
+    private DefaultKafkaProducerFactory<K, V> newProducerFactory(int member) {
+        DefaultKafkaProducerFactory<K, V> producerFactory;
+        if (kafkaProducerConfigData.getDeliverySemantics() == DeliverySemantics.TRANSACTIONAL) {
+            BatchedTransactionProducerFactory<K, V> transactionalFactory = new BatchedTransactionProducerFactory<>(
+                    newProducerConfig(), kafkaProducerConfigData.getTransactionalIdPrefix() + "-" + member,
+                    kafkaProducerConfigData.getTransactionMaxRecords(),
+                    kafkaProducerConfigData.getTransactionMaxMs(), managedExecutors,
+                    transactionOutcomes.computeIfAbsent(member, key -> new TransactionOutcomes()));
+            transactionalFactory.bindTo(meterRegistry);
+            producerFactory = transactionalFactory;
+        } else {
+            producerFactory = new DefaultKafkaProducerFactory<>(newProducerConfig());
+        }
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
     }
 }
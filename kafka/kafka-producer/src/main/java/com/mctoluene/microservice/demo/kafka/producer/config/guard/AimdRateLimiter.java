@@ -0,0 +1,166 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.guard;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
+import com.mctoluene.microservice.demo.config.RateLimiterConfigData;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Rate limit in front of the producer whose rate follows additive increase, multiplicative decrease. At the end
+ * of every adjust interval the rate is multiplied by multiplicative-decrease if the interval's send error rate or
+ * mean send-to-ack latency crossed its threshold, and otherwise grows by additive-increase, within the configured
+ * bounds. It starts at the maximum, so a healthy cluster is never throttled. A sender waits up to max-wait for
+ * its permits, which pushes back on the status queue, and only then gives the records up.
+ */
+@Component
+public class AimdRateLimiter implements MeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(AimdRateLimiter.class);
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long BURST_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final RateLimiterConfigData rateLimiterConfigData;
+    private final long adjustIntervalNanos;
+    private final long maxWaitNanos;
+    private final LongAdder intervalCalls = new LongAdder();
+    private final LongAdder intervalFailures = new LongAdder();
+    private final LongAdder intervalTimedCalls = new LongAdder();
+    private final LongAdder intervalLatencyNanos = new LongAdder();
+    private final LongAdder throttledCount = new LongAdder();
+    private final LongAdder decreaseCount = new LongAdder();
+    private volatile double recordsPerSecond;
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    private volatile long intervalStartNanos = System.nanoTime();
+
+    public AimdRateLimiter(RateLimiterConfigData rateLimiterConfigData) {
+        this.rateLimiterConfigData = rateLimiterConfigData;
+        this.adjustIntervalNanos = isEnabled()
+                ? TimeUnit.MILLISECONDS.toNanos(rateLimiterConfigData.getAdjustIntervalMs())
+                : Long.MAX_VALUE;
+        this.maxWaitNanos = isEnabled() ? TimeUnit.MILLISECONDS.toNanos(rateLimiterConfigData.getMaxWaitMs()) : 0;
+        this.recordsPerSecond = isEnabled() ? rateLimiterConfigData.getMaxRecordsPerSecond() : 0;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(rateLimiterConfigData.getEnabled());
+    }
+
+    /**
+     * Reserves the next slot for the given number of records, as the generic cell rate algorithm does: a send may
+     * run up to the burst ahead of the configured rate, and beyond that waits for its slot if the wait is within
+     * max-wait. A batch larger than the burst is let through and delays the sends after it instead.
+     */
+    public boolean tryAcquire(int records) {
+        if (!isEnabled())
+            return true;
+        long intervalNanos = (long) (records * NANOS_PER_SECOND / recordsPerSecond);
+        long now;
+        long delayNanos;
+        while (true) {
+            now = System.nanoTime();
+            long theoreticalArrival = theoreticalArrivalNanos.get();
+            long start = Math.max(theoreticalArrival, now);
+            delayNanos = start - now - BURST_NANOS;
+            if (delayNanos > maxWaitNanos) {
+                throttledCount.add(records);
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(theoreticalArrival, start + intervalNanos))
+                break;
+        }
+        long wakeUpNanos = now + delayNanos;
+        for (long remaining = delayNanos; remaining > 0; remaining = wakeUpNanos - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Records an acknowledged send with its send-to-ack latency, or {@link SampledTimer#NOT_SAMPLED} if it was
+     * not timed. Only timed sends and failures look at the clock to see whether the interval is over.
+     */
+    public void onSuccess(long latencyNanos) {
+        if (!isEnabled())
+            return;
+        intervalCalls.increment();
+        if (latencyNanos != SampledTimer.NOT_SAMPLED) {
+            intervalTimedCalls.increment();
+            intervalLatencyNanos.add(latencyNanos);
+            adjustIfDue();
+        }
+    }
+
+    public void onFailure() {
+        if (!isEnabled())
+            return;
+        intervalCalls.increment();
+        intervalFailures.increment();
+        adjustIfDue();
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    public long getThrottledCount() {
+        return throttledCount.sum();
+    }
+
+    public long getDecreaseCount() {
+        return decreaseCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kafka.producer.rate.limit", this, AimdRateLimiter::getRecordsPerSecond)
+                .description("Records per second currently let through to the producer")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.rate.throttled", this, AimdRateLimiter::getThrottledCount)
+                .description("Records given up after waiting max-wait for a permit")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.rate.decreases", this, AimdRateLimiter::getDecreaseCount)
+                .register(registry);
+    }
+
+    private void adjustIfDue() {
+        long now = System.nanoTime();
+        if (now - intervalStartNanos < adjustIntervalNanos)
+            return;
+        synchronized (this) {
+            if (now - intervalStartNanos < adjustIntervalNanos)
+                return;
+            intervalStartNanos = now;
+            long calls = intervalCalls.sumThenReset();
+            long failures = intervalFailures.sumThenReset();
+            long timedCalls = intervalTimedCalls.sumThenReset();
+            long latencyNanos = intervalLatencyNanos.sumThenReset();
+            if (calls == 0)
+                return;
+            double errorRate = (double) failures / calls;
+            double meanLatencyMs = timedCalls == 0 ? 0 : latencyNanos / 1e6 / timedCalls;
+            double rate = recordsPerSecond;
+            if (errorRate > rateLimiterConfigData.getErrorRateThreshold()
+                    || meanLatencyMs > rateLimiterConfigData.getLatencyThresholdMs()) {
+                recordsPerSecond = Math.max(rateLimiterConfigData.getMinRecordsPerSecond(),
+                        rate * rateLimiterConfigData.getMultiplicativeDecrease());
+                decreaseCount.increment();
+                LOG.warn("Lowering produce rate limit from {} to {} record(s)/s, error rate {}, mean latency {} ms",
+                        Math.round(rate), Math.round(recordsPerSecond), errorRate, Math.round(meanLatencyMs));
+            } else if (rate < rateLimiterConfigData.getMaxRecordsPerSecond()) {
+                recordsPerSecond = Math.min(rateLimiterConfigData.getMaxRecordsPerSecond(),
+                        rate + rateLimiterConfigData.getAdditiveIncrease());
+            }
+        }
+    }
+}
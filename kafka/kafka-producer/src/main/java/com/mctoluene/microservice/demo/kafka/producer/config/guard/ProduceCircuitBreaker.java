@@ -0,0 +1,232 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.guard;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
+import com.mctoluene.microservice.demo.config.CircuitBreakerConfigData;
+import com.mctoluene.microservice.demo.config.CircuitBreakerConfigData.Fallback;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Stops handing records to the producer while the brokers fail or answer slowly, so records are given to the
+ * fallback at once instead of each waiting out the request timeout. Outcomes are counted in consecutive windows
+ * of window-size sends; a window whose failure rate, or whose rate of sends slower than slow-call-duration,
+ * reaches its threshold opens the circuit. After open-duration the circuit lets half-open-permitted-calls
+ * through and closes if those stay under the thresholds, or opens again. Every record reports its own outcome, so
+ * a batch takes one of those probe permits per record. Latency is only known for the sends the producer timer
+ * sampled, so the slow call rate is taken over those.
+ */
+@Component
+public class ProduceCircuitBreaker implements MeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(ProduceCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final CircuitBreakerConfigData circuitBreakerConfigData;
+    private final long slowCallNanos;
+    private final long openDurationNanos;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final Map<State, LongAdder> transitionCounts = new EnumMap<>(State.class);
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private volatile State state = State.CLOSED;
+    private final AtomicInteger windowCalls = new AtomicInteger();
+    private final LongAdder windowFailures = new LongAdder();
+    private final LongAdder windowTimedCalls = new LongAdder();
+    private final LongAdder windowSlowCalls = new LongAdder();
+    private volatile long openedAtNanos;
+
+    public ProduceCircuitBreaker(CircuitBreakerConfigData circuitBreakerConfigData) {
+        this.circuitBreakerConfigData = circuitBreakerConfigData;
+        this.slowCallNanos = isEnabled()
+                ? TimeUnit.MILLISECONDS.toNanos(circuitBreakerConfigData.getSlowCallDurationMs())
+                : Long.MAX_VALUE;
+        this.openDurationNanos = isEnabled()
+                ? TimeUnit.MILLISECONDS.toNanos(circuitBreakerConfigData.getOpenDurationMs())
+                : 0;
+        for (State target : State.values()) {
+            transitionCounts.put(target, new LongAdder());
+        }
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(circuitBreakerConfigData.getEnabled());
+    }
+
+    /**
+     * Returns how many of the given number of records may be sent: all of them while closed, none while open until
+     * open-duration has passed, and then, half-open, as many as there are probe permits left, one per record.
+     */
+    public int tryAcquire(int records) {
+        if (!isEnabled())
+            return records;
+        State current = state;
+        if (current == State.CLOSED)
+            return records;
+        if (current == State.OPEN && (System.nanoTime() - openedAtNanos < openDurationNanos
+                || !transition(State.OPEN, State.HALF_OPEN) && state != State.HALF_OPEN)) {
+            rejectedCount.add(records);
+            return 0;
+        }
+        int permitted;
+        while (true) {
+            int available = halfOpenPermits.get();
+            permitted = Math.max(0, Math.min(available, records));
+            if (permitted == 0 || halfOpenPermits.compareAndSet(available, available - permitted))
+                break;
+        }
+        rejectedCount.add(records - permitted);
+        return permitted;
+    }
+
+    /**
+     * Gives back permits taken by {@link #tryAcquire(int)} for sends that did not happen after all.
+     */
+    public void release(int records) {
+        if (isEnabled() && state == State.HALF_OPEN)
+            halfOpenPermits.addAndGet(records);
+    }
+
+    /**
+     * Records an acknowledged send with its send-to-ack latency, or {@link SampledTimer#NOT_SAMPLED} if it was
+     * not timed.
+     */
+    public void onSuccess(long latencyNanos) {
+        if (isEnabled())
+            record(false, latencyNanos);
+    }
+
+    public void onFailure() {
+        if (isEnabled())
+            record(true, SampledTimer.NOT_SAMPLED);
+    }
+
+    /**
+     * Whether records the circuit rejects go to the spill journal. Otherwise, or if the journal refuses them,
+     * they are dropped.
+     */
+    public boolean shouldSpill() {
+        return circuitBreakerConfigData.getFallback() == Fallback.SPILL;
+    }
+
+    public void recordFallback(boolean spilled, int records) {
+        (spilled ? spilledCount : droppedCount).add(records);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getTransitionCount(State target) {
+        return transitionCounts.get(target).sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State target : State.values()) {
+            String tag = target.name().toLowerCase();
+            Gauge.builder("kafka.producer.circuit.state", this, breaker -> breaker.state == target ? 1 : 0)
+                    .tag("state", tag)
+                    .register(registry);
+            FunctionCounter.builder("kafka.producer.circuit.transitions", this,
+                    breaker -> breaker.getTransitionCount(target))
+                    .description("Times the produce circuit moved into the state")
+                    .tag("state", tag)
+                    .register(registry);
+        }
+        FunctionCounter.builder("kafka.producer.circuit.rejected", this, ProduceCircuitBreaker::getRejectedCount)
+                .description("Sends refused while the produce circuit was open")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.circuit.fallback", this, ProduceCircuitBreaker::getDroppedCount)
+                .tag("outcome", "dropped")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.circuit.fallback", this, ProduceCircuitBreaker::getSpilledCount)
+                .tag("outcome", "spilled")
+                .register(registry);
+    }
+
+    /**
+     * Counts the outcome into the current window without locking. The send that completes a window evaluates it;
+     * outcomes racing with that evaluation may land in either window.
+     */
+    private void record(boolean failed, long latencyNanos) {
+        State current = state;
+        if (current == State.OPEN)
+            return;
+        if (failed)
+            windowFailures.increment();
+        if (latencyNanos != SampledTimer.NOT_SAMPLED) {
+            windowTimedCalls.increment();
+            if (latencyNanos >= slowCallNanos)
+                windowSlowCalls.increment();
+        }
+        int windowSize = current == State.HALF_OPEN
+                ? circuitBreakerConfigData.getHalfOpenPermittedCalls()
+                : circuitBreakerConfigData.getWindowSize();
+        if (windowCalls.incrementAndGet() != windowSize)
+            return;
+        long failures = windowFailures.sumThenReset();
+        long timedCalls = windowTimedCalls.sumThenReset();
+        long slowCalls = windowSlowCalls.sumThenReset();
+        windowCalls.addAndGet(-windowSize);
+        double failureRate = (double) failures / windowSize;
+        double slowCallRate = timedCalls == 0 ? 0 : (double) slowCalls / timedCalls;
+        boolean unhealthy = failureRate >= circuitBreakerConfigData.getFailureRateThreshold()
+                || slowCallRate >= circuitBreakerConfigData.getSlowCallRateThreshold();
+        State target = unhealthy ? State.OPEN : current == State.HALF_OPEN ? State.CLOSED : null;
+        if (target == null || !transition(current, target))
+            return;
+        if (target == State.CLOSED)
+            LOG.info("Produce circuit closed, failure rate {}, slow call rate {}", failureRate, slowCallRate);
+        else
+            LOG.warn("Produce circuit opened for {} ms, failure rate {}, slow call rate {} over {} send(s)",
+                    circuitBreakerConfigData.getOpenDurationMs(), failureRate, slowCallRate, windowSize);
+    }
+
+    private synchronized boolean transition(State from, State to) {
+        if (state != from)
+            return false;
+        resetWindow();
+        if (to == State.OPEN)
+            openedAtNanos = System.nanoTime();
+        else if (to == State.HALF_OPEN)
+            halfOpenPermits.set(circuitBreakerConfigData.getHalfOpenPermittedCalls());
+        state = to;
+        transitionCounts.get(to).increment();
+        return true;
+    }
+
+    private void resetWindow() {
+        windowCalls.set(0);
+        windowFailures.reset();
+        windowTimedCalls.reset();
+        windowSlowCalls.reset();
+    }
+}
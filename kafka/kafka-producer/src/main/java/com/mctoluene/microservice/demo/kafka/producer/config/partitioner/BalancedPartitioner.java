@@ -0,0 +1,105 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.partitioner;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Keyed partitioning with a bound on load. A record goes to the partition its key hashes to, as with the default
+ * partitioner, unless that partition has already taken more than max-load-factor times its fair share of recent
+ * records; then it goes to the least loaded partition. Keys keep their partition while load is even, and only
+ * the overflow of heavy keys, such as prolific users, is spread out, so per-key ordering holds only for keys
+ * that never overflow.
+ * <p>
+ * Load is counted per topic from the records this producer has partitioned and is halved periodically so that
+ * it follows recent traffic.
+ */
+public class BalancedPartitioner implements Partitioner {
+    public static final String MAX_LOAD_FACTOR_CONFIG = "balanced.partitioner.max.load.factor";
+    private static final double DEFAULT_MAX_LOAD_FACTOR = 1.25;
+    private static final long DECAY_THRESHOLD = 1 << 16;
+
+    private final Map<String, TopicLoad> topicLoads = new ConcurrentHashMap<>();
+    private double maxLoadFactor = DEFAULT_MAX_LOAD_FACTOR;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object configured = configs.get(MAX_LOAD_FACTOR_CONFIG);
+        if (configured != null)
+            maxLoadFactor = Math.max(1.0, Double.parseDouble(configured.toString()));
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+            Cluster cluster) {
+        int numberOfPartitions = cluster.partitionCountForTopic(topic);
+        if (numberOfPartitions <= 1)
+            return 0;
+        TopicLoad load = topicLoad(topic, numberOfPartitions);
+        int partition = keyBytes == null ? ThreadLocalRandom.current().nextInt(numberOfPartitions)
+                : Utils.toPositive(Utils.murmur2(keyBytes)) % numberOfPartitions;
+        if (load.isOverloaded(partition, maxLoadFactor))
+            partition = load.leastLoaded();
+        load.record(partition);
+        return partition;
+    }
+
+    @Override
+    public void close() {
+        topicLoads.clear();
+    }
+
+    private TopicLoad topicLoad(String topic, int numberOfPartitions) {
+        TopicLoad load = topicLoads.get(topic);
+        if (load == null || load.counts.length() != numberOfPartitions) {
+            load = new TopicLoad(numberOfPartitions);
+            topicLoads.put(topic, load);
+        }
+        return load;
+    }
+
+    private static final class TopicLoad {
+        private final AtomicLongArray counts;
+        private volatile long total;
+
+        private TopicLoad(int numberOfPartitions) {
+            this.counts = new AtomicLongArray(numberOfPartitions);
+        }
+
+        private boolean isOverloaded(int partition, double maxLoadFactor) {
+            return counts.get(partition) * counts.length() > (total + counts.length()) * maxLoadFactor;
+        }
+
+        private int leastLoaded() {
+            int leastLoaded = 0;
+            long leastCount = Long.MAX_VALUE;
+            for (int i = 0; i < counts.length(); i++) {
+                long count = counts.get(i);
+                if (count < leastCount) {
+                    leastCount = count;
+                    leastLoaded = i;
+                }
+            }
+            return leastLoaded;
+        }
+
+        private void record(int partition) {
+            counts.incrementAndGet(partition);
+            // racy on purpose: the counts only need to be roughly right
+            if (++total >= DECAY_THRESHOLD) {
+                long sum = 0;
+                for (int i = 0; i < counts.length(); i++) {
+                    long halved = counts.get(i) >> 1;
+                    counts.set(i, halved);
+                    sum += halved;
+                }
+                total = sum;
+            }
+        }
+    }
+}
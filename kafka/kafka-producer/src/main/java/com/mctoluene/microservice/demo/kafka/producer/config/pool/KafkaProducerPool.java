@@ -0,0 +1,129 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.pool;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+
+/**
+ * A fixed set of KafkaTemplates, each over its own producer factory and so its own KafkaProducer, record
+ * accumulator and sender thread. Records are routed to a member by the configured routing:
+ * <ul>
+ * <li>round robin spreads records evenly but sends records of one key through different producers, so their
+ * order is no longer guaranteed;</li>
+ * <li>thread affinity pins every sending thread to one member, which keeps the order of each thread;</li>
+ * <li>partition affinity picks the partition here, by the murmur2 hash of the key as Kafka's default
+ * partitioner does, and sends each partition through one member only. Order per key is kept and every
+ * member batches for its own share of partitions, but the configured partitioner is bypassed. The partition
+ * count is read once per topic, so partitions added later are only used after a restart.</li>
+ * </ul>
+ * The first member is the shared {@code kafkaTemplate} bean, so a pool of one behaves as before.
+ */
+public class KafkaProducerPool<K extends Serializable, V extends SpecificRecordBase> {
+    private final List<KafkaTemplate<K, V>> kafkaTemplates;
+    private final ProducerPoolRouting routing;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final ThreadLocal<Integer> threadIndex = ThreadLocal.withInitial(this::nextIndex);
+    private final Map<String, Integer> partitionCounts = new ConcurrentHashMap<>();
+
+    public KafkaProducerPool(List<KafkaTemplate<K, V>> kafkaTemplates, ProducerPoolRouting routing) {
+        this.kafkaTemplates = List.copyOf(kafkaTemplates);
+        this.routing = routing == null ? ProducerPoolRouting.ROUND_ROBIN : routing;
+    }
+
+    public int size() {
+        return kafkaTemplates.size();
+    }
+
+    public ProducerPoolRouting getRouting() {
+        return routing;
+    }
+
+    public List<KafkaTemplate<K, V>> getKafkaTemplates() {
+        return kafkaTemplates;
+    }
+
+    public List<ProducerFactory<K, V>> getProducerFactories() {
+        return kafkaTemplates.stream().map(KafkaTemplate::getProducerFactory).toList();
+    }
+
+    /**
+     * Builds the record to send, with its partition already set under partition affinity.
+     */
+    public ProducerRecord<K, V> record(String topicName, K key, V value) {
+        if (routing != ProducerPoolRouting.PARTITION_AFFINITY || kafkaTemplates.size() == 1 || key == null)
+            return new ProducerRecord<>(topicName, key, value);
+        int partitionCount = partitionCount(topicName);
+        if (partitionCount == 0)
+            return new ProducerRecord<>(topicName, key, value);
+        return new ProducerRecord<>(topicName, Utils.toPositive(hash(key)) % partitionCount, key, value);
+    }
+
+    /**
+     * Index of the member that should send the record.
+     */
+    public int indexFor(ProducerRecord<K, V> record) {
+        int size = kafkaTemplates.size();
+        if (size == 1)
+            return 0;
+        switch (routing) {
+            case THREAD_AFFINITY:
+                return threadIndex.get();
+            case PARTITION_AFFINITY:
+                if (record.partition() != null)
+                    return record.partition() % size;
+                return nextIndex();
+            case ROUND_ROBIN:
+            default:
+                return nextIndex();
+        }
+    }
+
+    public KafkaTemplate<K, V> templateFor(ProducerRecord<K, V> record) {
+        return kafkaTemplates.get(indexFor(record));
+    }
+
+    public void destroy() {
+        kafkaTemplates.forEach(KafkaTemplate::destroy);
+    }
+
+    private int nextIndex() {
+        return (nextIndex.getAndIncrement() & Integer.MAX_VALUE) % kafkaTemplates.size();
+    }
+
+    /**
+     * Partition count of the topic, read from the producer's metadata once it knows the topic, or zero before.
+     */
+    private int partitionCount(String topicName) {
+        Integer partitionCount = partitionCounts.get(topicName);
+        if (partitionCount != null)
+            return partitionCount;
+        List<PartitionInfo> partitions = kafkaTemplates.get(0).partitionsFor(topicName);
+        if (partitions == null || partitions.isEmpty())
+            return 0;
+        partitionCounts.put(topicName, partitions.size());
+        return partitions.size();
+    }
+
+    private static int hash(Object key) {
+        if (!(key instanceof Long))
+            return key.hashCode();
+        long value = (Long) key;
+        byte[] bytes = new byte[Long.BYTES];
+        for (int i = Long.BYTES - 1; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return Utils.murmur2(bytes);
+    }
+}
@@ -0,0 +1,46 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.refresh;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.properties.ConfigurationPropertiesRebinder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+
+/**
+ * Rebuilds the producers when a config refresh (POST /actuator/refresh after a config-server change) touches
+ * kafka-producer-config, so batch size, linger, compression, acks and delivery semantics change without a restart
+ * and without re-running the stream initializer. The pool size and routing are fixed when the pool is built and
+ * still need a restart.
+ */
+@Component
+public class ProducerConfigRefresher implements ApplicationListener<EnvironmentChangeEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(ProducerConfigRefresher.class);
+    private static final String PRODUCER_CONFIG_PREFIX = "kafka-producer-config.";
+    private static final String PRODUCER_CONFIG_BEAN_NAME = "kafkaProducerConfigData";
+
+    private final KafkaProducerPool<?, ?> kafkaProducerPool;
+    private final ConfigurationPropertiesRebinder configurationPropertiesRebinder;
+
+    public ProducerConfigRefresher(KafkaProducerPool<?, ?> kafkaProducerPool,
+            ConfigurationPropertiesRebinder configurationPropertiesRebinder) {
+        this.kafkaProducerPool = kafkaProducerPool;
+        this.configurationPropertiesRebinder = configurationPropertiesRebinder;
+    }
+
+    @Override
+    public void onApplicationEvent(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(PRODUCER_CONFIG_PREFIX)))
+            return;
+        // The rebinder handles this event too, but in no set order relative to this listener
+        configurationPropertiesRebinder.rebind(PRODUCER_CONFIG_BEAN_NAME);
+        LOG.info("Producer config changed, replacing {} producer(s)", kafkaProducerPool.size());
+        for (ProducerFactory<?, ?> producerFactory : kafkaProducerPool.getProducerFactories()) {
+            if (producerFactory instanceof RefreshableProducerFactory)
+                ((RefreshableProducerFactory<?, ?>) producerFactory).refresh();
+        }
+    }
+}
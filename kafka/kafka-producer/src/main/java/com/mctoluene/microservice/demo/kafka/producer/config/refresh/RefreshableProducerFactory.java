@@ -0,0 +1,316 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.refresh;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.InterruptException;
+import org.apache.kafka.common.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.mctoluene.microservice.demo.kafka.producer.config.transaction.BatchedTransactionProducerFactory;
+
+/**
+ * A producer factory that can be replaced while records are being sent. Every producer it hands out is leased
+ * from the current generation, a DefaultKafkaProducerFactory built by the supplier, until KafkaTemplate closes it,
+ * which for a send is when the record is acknowledged. Replacing the generation first points new leases at the
+ * next one, then flushes the previous one and waits up to the drain timeout for its leases to be returned, and
+ * only then destroys it. Senders never see a closed producer and no record is dropped by the swap.
+ * <p>
+ * Producers of both generations send side by side while the previous one drains, except when they share a
+ * transactional id: the next producer would fence the previous one and abort its open transaction, so new
+ * leases wait until the previous generation is closed.
+ * <p>
+ * {@link #refresh()} builds the next generation from the current configuration. {@link #reset()} does the same
+ * but keeps the configs set through {@link #updateConfigs(Map)}, as the adaptive batching tuner relies on.
+ */
+public class RefreshableProducerFactory<K, V> implements ProducerFactory<K, V>, DisposableBean {
+    private static final Logger LOG = LoggerFactory.getLogger(RefreshableProducerFactory.class);
+    private static final long DRAIN_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Supplier<DefaultKafkaProducerFactory<K, V>> factorySupplier;
+    private final long drainTimeoutNanos;
+    private final Map<String, Object> configOverrides = new HashMap<>();
+    private volatile Generation<K, V> current;
+
+    public RefreshableProducerFactory(Supplier<DefaultKafkaProducerFactory<K, V>> factorySupplier,
+            long drainTimeoutMs) {
+        this.factorySupplier = factorySupplier;
+        this.drainTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(drainTimeoutMs);
+        this.current = new Generation<>(factorySupplier.get(), false);
+    }
+
+    @Override
+    public Producer<K, V> createProducer() {
+        while (true) {
+            Generation<K, V> generation = current;
+            generation.leaseCount.increment();
+            if (generation != current) {
+                generation.leaseCount.decrement();
+                continue;
+            }
+            try {
+                generation.awaitReady();
+                return new LeasedProducer<>(generation.factory.createProducer(), generation.leaseCount);
+            } catch (RuntimeException e) {
+                generation.leaseCount.decrement();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Replaces the producers with ones built from the current configuration, dropping earlier config updates.
+     */
+    public void refresh() {
+        synchronized (configOverrides) {
+            configOverrides.clear();
+        }
+        swap();
+    }
+
+    /**
+     * Replaces the producers with ones built from the current configuration and the updated configs.
+     */
+    @Override
+    public void reset() {
+        swap();
+    }
+
+    @Override
+    public void updateConfigs(Map<String, Object> updates) {
+        synchronized (configOverrides) {
+            configOverrides.putAll(updates);
+        }
+        current.factory.updateConfigs(updates);
+    }
+
+    @Override
+    public void removeConfig(String configKey) {
+        synchronized (configOverrides) {
+            configOverrides.remove(configKey);
+        }
+        current.factory.removeConfig(configKey);
+    }
+
+    @Override
+    public Map<String, Object> getConfigurationProperties() {
+        return current.factory.getConfigurationProperties();
+    }
+
+    @Override
+    public boolean transactionCapable() {
+        return current.factory.transactionCapable();
+    }
+
+    @Override
+    public Supplier<Serializer<K>> getKeySerializerSupplier() {
+        return current.factory.getKeySerializerSupplier();
+    }
+
+    @Override
+    public Supplier<Serializer<V>> getValueSerializerSupplier() {
+        return current.factory.getValueSerializerSupplier();
+    }
+
+    @Override
+    public Duration getPhysicalCloseTimeout() {
+        return current.factory.getPhysicalCloseTimeout();
+    }
+
+    @Override
+    public List<Listener<K, V>> getListeners() {
+        return current.factory.getListeners();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        current.factory.destroy();
+    }
+
+    private synchronized void swap() {
+        Generation<K, V> previous = current;
+        DefaultKafkaProducerFactory<K, V> factory = factorySupplier.get();
+        synchronized (configOverrides) {
+            if (!configOverrides.isEmpty())
+                factory.updateConfigs(configOverrides);
+        }
+        Generation<K, V> next = new Generation<>(factory,
+                previous.factory instanceof BatchedTransactionProducerFactory);
+        current = next;
+        try {
+            if (previous.leaseCount.sum() > 0)
+                flush(previous);
+            long deadline = System.nanoTime() + drainTimeoutNanos;
+            long leases;
+            while ((leases = previous.leaseCount.sum()) > 0 && System.nanoTime() - deadline < 0) {
+                LockSupport.parkNanos(DRAIN_POLL_NANOS);
+            }
+            if (leases > 0)
+                LOG.warn("{} producer lease(s) still open after {} ms, closing the previous producer anyway", leases,
+                        TimeUnit.NANOSECONDS.toMillis(drainTimeoutNanos));
+            previous.factory.destroy();
+        } finally {
+            next.ready.countDown();
+        }
+        LOG.info("Replaced producer factory, previous one closed");
+    }
+
+    /**
+     * Sends what the previous producer still holds back for linger and waits for it, which returns the leases of
+     * those sends.
+     */
+    private void flush(Generation<K, V> previous) {
+        try (Producer<K, V> producer = previous.factory.createProducer()) {
+            producer.flush();
+        } catch (RuntimeException e) {
+            LOG.warn("Error while flushing the previous producer", e);
+        }
+    }
+
+    private static final class Generation<K, V> {
+        private final DefaultKafkaProducerFactory<K, V> factory;
+        private final LongAdder leaseCount = new LongAdder();
+        private final CountDownLatch ready;
+
+        private Generation(DefaultKafkaProducerFactory<K, V> factory, boolean afterPrevious) {
+            this.factory = factory;
+            this.ready = new CountDownLatch(afterPrevious ? 1 : 0);
+        }
+
+        private void awaitReady() {
+            if (ready.getCount() == 0)
+                return;
+            try {
+                ready.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptException(e);
+            }
+        }
+    }
+
+    /**
+     * A producer lent to one KafkaTemplate operation. The lease is returned on the first close, or when a send
+     * throws, since KafkaTemplate does not close the producer then.
+     */
+    private static final class LeasedProducer<K, V> implements Producer<K, V> {
+        private final Producer<K, V> delegate;
+        private final LongAdder leaseCount;
+        private volatile boolean returned;
+
+        private LeasedProducer(Producer<K, V> delegate, LongAdder leaseCount) {
+            this.delegate = delegate;
+            this.leaseCount = leaseCount;
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<K, V> record) {
+            return send(record, null);
+        }
+
+        @Override
+        public Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+            try {
+                return delegate.send(record, callback);
+            } catch (RuntimeException e) {
+                returnLease();
+                throw e;
+            }
+        }
+
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+
+        @Override
+        public List<PartitionInfo> partitionsFor(String topic) {
+            return delegate.partitionsFor(topic);
+        }
+
+        @Override
+        public Map<MetricName, ? extends Metric> metrics() {
+            return delegate.metrics();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                returnLease();
+            }
+        }
+
+        @Override
+        public void close(Duration timeout) {
+            try {
+                delegate.close(timeout);
+            } finally {
+                returnLease();
+            }
+        }
+
+        @Override
+        public void initTransactions() {
+            delegate.initTransactions();
+        }
+
+        @Override
+        public void beginTransaction() {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        @Deprecated
+        public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets,
+                String consumerGroupId) {
+            delegate.sendOffsetsToTransaction(offsets, consumerGroupId);
+        }
+
+        @Override
+        public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets,
+                ConsumerGroupMetadata groupMetadata) {
+            delegate.sendOffsetsToTransaction(offsets, groupMetadata);
+        }
+
+        @Override
+        public void commitTransaction() {
+            delegate.commitTransaction();
+        }
+
+        @Override
+        public void abortTransaction() {
+            delegate.abortTransaction();
+        }
+
+        private void returnLease() {
+            if (returned)
+                return;
+            returned = true;
+            leaseCount.decrement();
+        }
+    }
+}
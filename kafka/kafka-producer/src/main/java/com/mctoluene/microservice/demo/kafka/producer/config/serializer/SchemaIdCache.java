@@ -0,0 +1,49 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.serializer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.avro.Schema;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schema registry ids resolved at startup, keyed by topic name so the serializer can look them up per record
+ * without building subject names. Each id is kept with the schema to encode records with, which need not be the
+ * schema of the record class.
+ */
+@Component
+public class SchemaIdCache {
+    private static final String VALUE_SUBJECT_SUFFIX = "-value";
+
+    private final Map<String, RegisteredSchema> schemasByTopic = new ConcurrentHashMap<>();
+
+    public static String valueSubject(String topicName) {
+        return topicName + VALUE_SUBJECT_SUFFIX;
+    }
+
+    public void put(String topicName, int schemaId, Schema writerSchema) {
+        schemasByTopic.put(topicName, new RegisteredSchema(schemaId, writerSchema));
+    }
+
+    public RegisteredSchema get(String topicName) {
+        return schemasByTopic.get(topicName);
+    }
+
+    public static final class RegisteredSchema {
+        private final int id;
+        private final Schema writerSchema;
+
+        private RegisteredSchema(int id, Schema writerSchema) {
+            this.id = id;
+            this.writerSchema = writerSchema;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public Schema getWriterSchema() {
+            return writerSchema;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.serializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache.RegisteredSchema;
+
+/**
+ * Writes specific Avro records in the Confluent wire format (magic byte, 4 byte schema id, Avro binary payload)
+ * using the schema id resolved once at startup, so nothing is looked up in the schema registry per record.
+ * Records are encoded with the schema registered under that id, so a record class generated from a newer schema
+ * can still be written in an older version.
+ * Encoders and buffers are reused per thread; the only allocation per record is the returned array.
+ */
+public class SpecificAvroSerializer<T extends SpecificRecord> implements Serializer<T> {
+    public static final String SCHEMA_ID_CACHE_CONFIG = "specific.avro.schema.id.cache";
+
+    private static final byte MAGIC_BYTE = 0x0;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final ThreadLocal<EncodingBuffer> ENCODING_BUFFER = ThreadLocal.withInitial(EncodingBuffer::new);
+
+    private SchemaIdCache schemaIdCache;
+    private volatile CachedWriter<T> cachedWriter;
+
+    public SpecificAvroSerializer() {
+    }
+
+    public SpecificAvroSerializer(SchemaIdCache schemaIdCache) {
+        this.schemaIdCache = schemaIdCache;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(SCHEMA_ID_CACHE_CONFIG);
+        if (configured instanceof SchemaIdCache)
+            schemaIdCache = (SchemaIdCache) configured;
+        if (schemaIdCache == null)
+            throw new IllegalStateException(SCHEMA_ID_CACHE_CONFIG + " must be set to a SchemaIdCache instance!");
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null)
+            return null;
+        RegisteredSchema registered = schemaIdCache.get(topic);
+        if (registered == null)
+            throw new SerializationException("No schema id registered for topic " + topic + "!");
+        EncodingBuffer buffer = ENCODING_BUFFER.get();
+        try {
+            buffer.reset();
+            buffer.write(MAGIC_BYTE);
+            buffer.writeInt(registered.getId());
+            BinaryEncoder encoder = buffer.encoder();
+            writerFor(registered.getWriterSchema()).write(data, encoder);
+            encoder.flush();
+            return buffer.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Error serializing Avro message for topic " + topic + "!", e);
+        }
+    }
+
+    private SpecificDatumWriter<T> writerFor(Schema schema) {
+        CachedWriter<T> writer = cachedWriter;
+        if (writer == null || writer.schema != schema) {
+            writer = new CachedWriter<>(schema);
+            cachedWriter = writer;
+        }
+        return writer.datumWriter;
+    }
+
+    private static final class CachedWriter<T> {
+        private final Schema schema;
+        private final SpecificDatumWriter<T> datumWriter;
+
+        private CachedWriter(Schema schema) {
+            this.schema = schema;
+            this.datumWriter = new SpecificDatumWriter<>(schema);
+        }
+    }
+
+    private static final class EncodingBuffer extends OutputStream {
+        private ByteBuffer byteBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private BinaryEncoder binaryEncoder;
+
+        private BinaryEncoder encoder() {
+            binaryEncoder = EncoderFactory.get().directBinaryEncoder(this, binaryEncoder);
+            return binaryEncoder;
+        }
+
+        private void reset() {
+            byteBuffer.clear();
+        }
+
+        private void writeInt(int value) {
+            ensureRemaining(Integer.BYTES);
+            byteBuffer.putInt(value);
+        }
+
+        @Override
+        public void write(int b) {
+            ensureRemaining(1);
+            byteBuffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            ensureRemaining(length);
+            byteBuffer.put(bytes, offset, length);
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(byteBuffer.array(), byteBuffer.position());
+        }
+
+        private void ensureRemaining(int length) {
+            if (byteBuffer.remaining() >= length)
+                return;
+            int capacity = Math.max(byteBuffer.capacity() * 2, byteBuffer.position() + length);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            byteBuffer.flip();
+            grown.put(byteBuffer);
+            byteBuffer = grown;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.service;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+public class BatchSendResult<K, V> {
+    private final String topicName;
+    private final int totalCount;
+    private final List<Entry<K, V>> failedRecords;
+    private final Throwable firstFailure;
+
+    public BatchSendResult(String topicName, int totalCount, List<Entry<K, V>> failedRecords, Throwable firstFailure) {
+        this.topicName = topicName;
+        this.totalCount = totalCount;
+        this.failedRecords = failedRecords;
+        this.firstFailure = firstFailure;
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public int getSuccessCount() {
+        return totalCount - failedRecords.size();
+    }
+
+    public int getFailureCount() {
+        return failedRecords.size();
+    }
+
+    public boolean hasFailures() {
+        return !failedRecords.isEmpty();
+    }
+
+    public List<Entry<K, V>> getFailedRecords() {
+        return failedRecords;
+    }
+
+    public Throwable getFirstFailure() {
+        return firstFailure;
+    }
+}
@@ -1,9 +1,19 @@
 package com.mctoluene.microservice.demo.kafka.producer.config.service;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.avro.specific.SpecificRecordBase;
 
 public interface KafkaProducer<K extends Serializable, V extends SpecificRecordBase> {
     void send(String topicName, K key, V message);
+
+    CompletableFuture<BatchSendResult<K, V>> sendBatch(String topicName, Collection<Entry<K, V>> records);
+
+    /**
+     * Parks a record for a later send instead of sending it now. Returns false if there is nowhere to park it.
+     */
+    boolean spill(String topicName, K key, V message);
 }
@@ -0,0 +1,107 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sampled send-to-ack timers per topic and record outcome counters per topic and partition. Meters are looked up
+ * once and cached so that recording an acknowledgement does not build meter ids on the producer's I/O thread.
+ * A per topic skew gauge, the busiest partition's acknowledged count over the mean, summarizes the balance.
+ */
+class ProducerMeters {
+    private static final String SEND_ACK_TIMER = "kafka.producer.send.ack";
+    private static final String RECORDS_COUNTER = "kafka.producer.records";
+    private static final String PARTITION_SKEW_GAUGE = "kafka.producer.partition.skew";
+    private static final String UNKNOWN_PARTITION = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final int timerSampleRate;
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+
+    ProducerMeters(MeterRegistry meterRegistry, int timerSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.timerSampleRate = timerSampleRate;
+    }
+
+    long startSend(String topicName) {
+        return topicMeters(topicName).sendAckTimer.start();
+    }
+
+    void recordAcknowledged(String topicName, int partition, long sendStartNanos) {
+        TopicMeters meters = topicMeters(topicName);
+        meters.sendAckTimer.stop(sendStartNanos);
+        meters.counter(partition, true).increment();
+    }
+
+    /**
+     * Returns whether this acknowledgement was sampled for the timer.
+     */
+    boolean recordBatchAcknowledged(String topicName, int partition, long batchStartNanos) {
+        TopicMeters meters = topicMeters(topicName);
+        boolean sampled = meters.sendAckTimer.sample();
+        if (sampled)
+            meters.sendAckTimer.stop(batchStartNanos);
+        meters.counter(partition, true).increment();
+        return sampled;
+    }
+
+    void recordFailed(String topicName, int partition) {
+        topicMeters(topicName).counter(partition, false).increment();
+    }
+
+    private TopicMeters topicMeters(String topicName) {
+        TopicMeters meters = topicMeters.get(topicName);
+        return meters != null ? meters : topicMeters.computeIfAbsent(topicName, TopicMeters::new);
+    }
+
+    private final class TopicMeters {
+        private final String topicName;
+        private final SampledTimer sendAckTimer;
+        private final Map<Integer, Counter> acknowledgedByPartition = new ConcurrentHashMap<>();
+        private final Map<Integer, Counter> failedByPartition = new ConcurrentHashMap<>();
+
+        private TopicMeters(String topicName) {
+            this.topicName = topicName;
+            this.sendAckTimer = new SampledTimer(Timer.builder(SEND_ACK_TIMER)
+                    .description("Time from KafkaTemplate send to broker acknowledgement")
+                    .tag("topic", topicName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry), timerSampleRate);
+            Gauge.builder(PARTITION_SKEW_GAUGE, this, TopicMeters::partitionSkew)
+                    .description("Records acknowledged by the busiest partition over the mean across partitions")
+                    .tag("topic", topicName)
+                    .register(meterRegistry);
+        }
+
+        private double partitionSkew() {
+            double max = 0;
+            double sum = 0;
+            for (Counter counter : acknowledgedByPartition.values()) {
+                double count = counter.count();
+                max = Math.max(max, count);
+                sum += count;
+            }
+            return sum == 0 ? 0 : max * acknowledgedByPartition.size() / sum;
+        }
+
+        private Counter counter(int partition, boolean acknowledged) {
+            Map<Integer, Counter> counters = acknowledged ? acknowledgedByPartition : failedByPartition;
+            Counter counter = counters.get(partition);
+            if (counter == null)
+                counter = counters.computeIfAbsent(partition, p -> Counter.builder(RECORDS_COUNTER)
+                        .description("Records completed by the kafka producer")
+                        .tag("topic", topicName)
+                        .tag("partition", p < 0 ? UNKNOWN_PARTITION : String.valueOf(p))
+                        .tag("result", acknowledged ? "success" : "failure")
+                        .register(meterRegistry));
+            return counter;
+        }
+    }
+}
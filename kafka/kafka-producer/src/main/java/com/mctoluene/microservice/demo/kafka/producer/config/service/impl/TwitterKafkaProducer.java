@@ -1,64 +1,377 @@
 package com.mctoluene.microservice.demo.kafka.producer.config.service.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 import javax.annotation.PreDestroy;
 
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.common.logging.RateLimitedLog;
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+import com.mctoluene.microservice.demo.config.MetricsConfigData;
 import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.AimdRateLimiter;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.ProduceCircuitBreaker;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.BatchSendResult;
 import com.mctoluene.microservice.demo.kafka.producer.config.service.KafkaProducer;
+import com.mctoluene.microservice.demo.kafka.producer.config.spill.KafkaSpillBuffer;
+import com.mctoluene.microservice.demo.kafka.producer.exception.KafkaProducerException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class TwitterKafkaProducer implements KafkaProducer<Long, TwitterAvroModel> {
     private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaProducer.class);
-    private final KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+    private final KafkaProducerPool<Long, TwitterAvroModel> kafkaProducerPool;
+    private final Executor callbackExecutor;
+    private final RateLimitedLog progressLog;
+    private final RateLimitedLog failureLog;
+    private final ProducerMeters producerMeters;
+    private final KafkaSpillBuffer kafkaSpillBuffer;
+    private final ProduceCircuitBreaker produceCircuitBreaker;
+    private final AimdRateLimiter aimdRateLimiter;
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder acknowledgedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
 
-    public TwitterKafkaProducer(KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate) {
-        this.kafkaTemplate = kafkaTemplate;
+    public TwitterKafkaProducer(KafkaProducerPool<Long, TwitterAvroModel> kafkaProducerPool,
+            ManagedExecutors managedExecutors, LogSamplingConfigData logSamplingConfigData,
+            MetricsConfigData metricsConfigData, MeterRegistry meterRegistry, KafkaSpillBuffer kafkaSpillBuffer,
+            ProduceCircuitBreaker produceCircuitBreaker, AimdRateLimiter aimdRateLimiter) {
+        this.kafkaProducerPool = kafkaProducerPool;
+        this.callbackExecutor = managedExecutors.newExecutor("kafka-producer-callback");
+        this.progressLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
+        this.failureLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
+        this.producerMeters = new ProducerMeters(meterRegistry, metricsConfigData.getTimerSampleRate());
+        this.kafkaSpillBuffer = kafkaSpillBuffer;
+        this.produceCircuitBreaker = produceCircuitBreaker;
+        this.aimdRateLimiter = aimdRateLimiter;
+        if ((produceCircuitBreaker.isEnabled() || aimdRateLimiter.isEnabled()) && produceCircuitBreaker.shouldSpill()
+                && !kafkaSpillBuffer.isEnabled())
+            throw new KafkaProducerException("circuit-breaker-config.fallback is spill but spill-journal-config is "
+                    + "disabled, so records the circuit breaker or rate limiter refuse would be dropped! Enable the "
+                    + "spill journal or set the fallback to drop.");
+        FunctionCounter.builder("kafka.producer.records.sent", this, TwitterKafkaProducer::getSentCount)
+                .description("Records handed to the kafka producer")
+                .register(meterRegistry);
     }
 
     @Override
     public void send(String topicName, Long key, TwitterAvroModel message) {
-        LOG.info("Sending message = '{}' to topic = '{}' ", message, topicName);
-        ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture = kafkaTemplate.send(topicName, key,
-                message);
-        addCallback(topicName, message, kafkaResultFuture);
+        if (LOG.isTraceEnabled())
+            LOG.trace("Sending message with id {} to topic {}", message.getId(), topicName);
+        if (admit(1) == 0) {
+            fallback(topicName, key, message);
+            return;
+        }
+        long sendStartNanos = producerMeters.startSend(topicName);
+        ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture;
+        try {
+            ProducerRecord<Long, TwitterAvroModel> record = kafkaProducerPool.record(topicName, key, message);
+            kafkaResultFuture = kafkaProducerPool.templateFor(record).send(record);
+        } catch (RuntimeException e) {
+            recordFailure();
+            failedCount.increment();
+            producerMeters.recordFailed(topicName, RecordMetadata.UNKNOWN_PARTITION);
+            if (!kafkaSpillBuffer.spillFailed(topicName, key, message))
+                throw e;
+            return;
+        }
+        sentCount.increment();
+        addCallback(topicName, key, message, sendStartNanos, kafkaResultFuture);
+    }
+
+    @Override
+    public CompletableFuture<BatchSendResult<Long, TwitterAvroModel>> sendBatch(String topicName,
+            Collection<Entry<Long, TwitterAvroModel>> records) {
+        BatchCompletion batchCompletion = new BatchCompletion(topicName, records);
+        if (records.isEmpty())
+            return batchCompletion.seal();
+        int admitted = admit(records.size());
+        if (admitted == 0)
+            return CompletableFuture.completedFuture(fallback(topicName, batchCompletion.records));
+        if (admitted == records.size())
+            return sendAdmitted(topicName, batchCompletion);
+        List<Entry<Long, TwitterAvroModel>> all = batchCompletion.records;
+        BatchSendResult<Long, TwitterAvroModel> refused = fallback(topicName, all.subList(admitted, all.size()));
+        return sendAdmitted(topicName, new BatchCompletion(topicName, all.subList(0, admitted)))
+                .thenApply(sent -> merge(sent, refused));
+    }
+
+    private CompletableFuture<BatchSendResult<Long, TwitterAvroModel>> sendAdmitted(String topicName,
+            BatchCompletion batchCompletion) {
+        int recordCount = batchCompletion.records.size();
+        List<ProducerRecord<Long, TwitterAvroModel>> producerRecords = new ArrayList<>(recordCount);
+        for (Entry<Long, TwitterAvroModel> record : batchCompletion.records) {
+            producerRecords.add(kafkaProducerPool.record(topicName, record.getKey(), record.getValue()));
+        }
+        int[] members = new int[recordCount];
+        if (kafkaProducerPool.getRouting() == ProducerPoolRouting.PARTITION_AFFINITY) {
+            for (int i = 0; i < recordCount; i++) {
+                members[i] = kafkaProducerPool.indexFor(producerRecords.get(i));
+            }
+        } else {
+            Arrays.fill(members, kafkaProducerPool.indexFor(producerRecords.get(0)));
+        }
+        boolean[] sent = new boolean[kafkaProducerPool.size()];
+        for (int member : members) {
+            if (!sent[member]) {
+                sent[member] = true;
+                sendAll(member, members, producerRecords, batchCompletion);
+            }
+        }
+        sentCount.add(recordCount);
+        return batchCompletion.seal();
+    }
+
+    /**
+     * Sends the records of a batch that are routed to one pool member in a single producer call. Only partition
+     * affinity splits a batch over members; under the other routings a batch stays one producer batch.
+     */
+    private void sendAll(int member, int[] members, List<ProducerRecord<Long, TwitterAvroModel>> producerRecords,
+            BatchCompletion batchCompletion) {
+        try {
+            kafkaProducerPool.getKafkaTemplates().get(member).execute(producer -> {
+                for (int i = 0; i < members.length; i++) {
+                    if (members[i] != member)
+                        continue;
+                    try {
+                        batchCompletion.futures[i] = producer.send(producerRecords.get(i), batchCompletion);
+                    } catch (RuntimeException e) {
+                        batchCompletion.fail(i, e);
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < members.length; i++) {
+                if (members[i] == member && batchCompletion.futures[i] == null)
+                    batchCompletion.fail(i, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean spill(String topicName, Long key, TwitterAvroModel message) {
+        return kafkaSpillBuffer.spillOverflow(topicName, key, message);
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledgedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
     }
 
     @PreDestroy
     public void close() {
-        if (kafkaTemplate != null) {
-            LOG.info("Closing kafka producer");
-            kafkaTemplate.destroy();
+        if (kafkaProducerPool != null) {
+            LOG.info("Closing {} kafka producer(s). Sent {}, acknowledged {}, failed {}", kafkaProducerPool.size(),
+                    getSentCount(), getAcknowledgedCount(), getFailedCount());
+            kafkaProducerPool.destroy();
         }
     }
 
-    private void addCallback(String topicName, TwitterAvroModel message,
+    private void addCallback(String topicName, Long key, TwitterAvroModel message, long sendStartNanos,
             ListenableFuture<SendResult<Long, TwitterAvroModel>> kafkaResultFuture) {
         kafkaResultFuture.addCallback(new ListenableFutureCallback<>() {
 
             @Override
             public void onSuccess(SendResult<Long, TwitterAvroModel> result) {
+                acknowledgedCount.increment();
                 RecordMetadata recordMetadata = result.getRecordMetadata();
-                LOG.debug("Recieved new metadata. Topic: {}; Partition {}; Offset {}; Timestamp {}, at time {}",
-                        recordMetadata.topic(),
-                        recordMetadata.partition(),
-                        recordMetadata.offset(),
-                        recordMetadata.timestamp());
+                producerMeters.recordAcknowledged(topicName, recordMetadata.partition(), sendStartNanos);
+                recordSuccess(sendStartNanos);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Recieved new metadata. Topic: {}; Partition {}; Offset {}; Timestamp {}",
+                            recordMetadata.topic(),
+                            recordMetadata.partition(),
+                            recordMetadata.offset(),
+                            recordMetadata.timestamp());
+                }
+                logProgress();
             }
 
             @Override
             public void onFailure(Throwable ex) {
-                LOG.error("Error while sending message {} to topic {}", message.toString(), topicName, ex);
+                recordFailure();
+                failedCount.increment();
+                producerMeters.recordFailed(topicName, RecordMetadata.UNKNOWN_PARTITION);
+                boolean spilled = kafkaSpillBuffer.spillFailed(topicName, key, message);
+                if (failureLog.tryAcquire())
+                    LOG.error("Error while sending message with key {} to topic {}{} ({} similar error(s) suppressed)",
+                            key, topicName, spilled ? ", spilled for replay" : "", failureLog.takeSuppressedCount(),
+                            ex);
             }
 
         });
     }
 
+    /**
+     * Asks the circuit breaker, then the rate limiter, to let the records through, and returns how many of them,
+     * from the first, may be sent. A half-open circuit may admit only part of a batch. Probe permits are given back
+     * if the limiter then refuses, so that they are not lost without an outcome.
+     */
+    private int admit(int records) {
+        int permitted = produceCircuitBreaker.tryAcquire(records);
+        if (permitted == 0)
+            return 0;
+        if (aimdRateLimiter.tryAcquire(permitted))
+            return permitted;
+        produceCircuitBreaker.release(permitted);
+        return 0;
+    }
+
+    private void fallback(String topicName, Long key, TwitterAvroModel message) {
+        boolean spilled = produceCircuitBreaker.shouldSpill() && kafkaSpillBuffer.spillFailed(topicName, key, message);
+        produceCircuitBreaker.recordFallback(spilled, 1);
+    }
+
+    private BatchSendResult<Long, TwitterAvroModel> fallback(String topicName,
+            List<Entry<Long, TwitterAvroModel>> records) {
+        int spilledCount = 0;
+        if (produceCircuitBreaker.shouldSpill()) {
+            for (Entry<Long, TwitterAvroModel> record : records) {
+                if (kafkaSpillBuffer.spillFailed(topicName, record.getKey(), record.getValue()))
+                    spilledCount++;
+            }
+        }
+        produceCircuitBreaker.recordFallback(true, spilledCount);
+        produceCircuitBreaker.recordFallback(false, records.size() - spilledCount);
+        return new BatchSendResult<>(topicName, records.size(), records, new KafkaProducerException("Batch of "
+                + records.size() + " record(s) was not sent while the producer is throttled, " + spilledCount
+                + " spilled for replay"));
+    }
+
+    private static BatchSendResult<Long, TwitterAvroModel> merge(BatchSendResult<Long, TwitterAvroModel> sent,
+            BatchSendResult<Long, TwitterAvroModel> refused) {
+        List<Entry<Long, TwitterAvroModel>> failedRecords = new ArrayList<>(sent.getFailedRecords());
+        failedRecords.addAll(refused.getFailedRecords());
+        return new BatchSendResult<>(sent.getTopicName(), sent.getTotalCount() + refused.getTotalCount(),
+                failedRecords, sent.getFirstFailure() != null ? sent.getFirstFailure() : refused.getFirstFailure());
+    }
+
+    private void recordSuccess(long sendStartNanos) {
+        long latencyNanos = sendStartNanos == SampledTimer.NOT_SAMPLED ? SampledTimer.NOT_SAMPLED
+                : System.nanoTime() - sendStartNanos;
+        produceCircuitBreaker.onSuccess(latencyNanos);
+        aimdRateLimiter.onSuccess(latencyNanos);
+    }
+
+    private void recordFailure() {
+        produceCircuitBreaker.onFailure();
+        aimdRateLimiter.onFailure();
+    }
+
+    private void logProgress() {
+        if (LOG.isInfoEnabled() && progressLog.tryAcquire())
+            LOG.info("Sent {} message(s) to kafka so far, {} acknowledged, {} failed", getSentCount(),
+                    getAcknowledgedCount(), getFailedCount());
+    }
+
+    /**
+     * Single callback shared by every record of a batch. It only counts completions; the per-record outcome is
+     * read back from the producer futures once the whole batch is done. Kafka fires callbacks before it marks
+     * those futures done, so that final pass runs off the producer's I/O thread.
+     */
+    private final class BatchCompletion implements Callback {
+        private final String topicName;
+        private final List<Entry<Long, TwitterAvroModel>> records;
+        private final Future<?>[] futures;
+        private final AtomicInteger pending;
+        private final long sendStartNanos = System.nanoTime();
+        private final CompletableFuture<BatchSendResult<Long, TwitterAvroModel>> result = new CompletableFuture<>();
+
+        private BatchCompletion(String topicName, Collection<Entry<Long, TwitterAvroModel>> records) {
+            this.topicName = topicName;
+            this.records = records instanceof List ? (List<Entry<Long, TwitterAvroModel>>) records
+                    : new ArrayList<>(records);
+            this.futures = new Future<?>[records.size()];
+            this.pending = new AtomicInteger(records.size() + 1);
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            int partition = metadata != null ? metadata.partition() : RecordMetadata.UNKNOWN_PARTITION;
+            if (exception == null) {
+                acknowledgedCount.increment();
+                boolean timed = producerMeters.recordBatchAcknowledged(topicName, partition, sendStartNanos);
+                recordSuccess(timed ? sendStartNanos : SampledTimer.NOT_SAMPLED);
+            } else {
+                recordFailure();
+                failedCount.increment();
+                producerMeters.recordFailed(topicName, partition);
+            }
+            if (pending.decrementAndGet() == 0)
+                CompletableFuture.runAsync(this::complete, callbackExecutor);
+        }
+
+        private void fail(int index, RuntimeException exception) {
+            futures[index] = CompletableFuture.failedFuture(exception);
+            onCompletion(null, exception);
+        }
+
+        private CompletableFuture<BatchSendResult<Long, TwitterAvroModel>> seal() {
+            if (pending.decrementAndGet() == 0)
+                complete();
+            return result;
+        }
+
+        private void complete() {
+            List<Entry<Long, TwitterAvroModel>> failedRecords = new ArrayList<>();
+            Throwable firstFailure = null;
+            for (int i = 0; i < futures.length; i++) {
+                try {
+                    futures[i].get();
+                } catch (ExecutionException e) {
+                    failedRecords.add(records.get(i));
+                    if (firstFailure == null)
+                        firstFailure = e.getCause();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+            int spilledCount = 0;
+            for (Entry<Long, TwitterAvroModel> failedRecord : failedRecords) {
+                if (kafkaSpillBuffer.spillFailed(topicName, failedRecord.getKey(), failedRecord.getValue()))
+                    spilledCount++;
+            }
+            if (firstFailure != null && failureLog.tryAcquire())
+                LOG.error("{} of {} message(s) in batch failed to send to topic {}, {} spilled for replay ({} similar "
+                        + "error(s) suppressed)", failedRecords.size(), records.size(), topicName, spilledCount,
+                        failureLog.takeSuppressedCount(), firstFailure);
+            logProgress();
+            result.complete(new BatchSendResult<>(topicName, records.size(), failedRecords, firstFailure));
+        }
+    }
 }
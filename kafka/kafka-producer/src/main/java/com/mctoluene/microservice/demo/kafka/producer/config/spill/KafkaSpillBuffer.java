@@ -0,0 +1,219 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.spill;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.common.logging.RateLimitedLog;
+import com.mctoluene.microservice.demo.common.metrics.DeferredMeterBinder;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.SpillJournalConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.exception.KafkaProducerException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps records that failed to send, or that overflowed upstream, in a {@link SpillJournal} and replays them in
+ * journal order on its own thread. Replay waits until no send has failed for a replay interval, sends one batch
+ * at a time through the shared producer and only commits the batch once every record of it is acknowledged, so
+ * delivery is at least once and live sends never wait on replay.
+ */
+@Component
+public class KafkaSpillBuffer implements DeferredMeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(KafkaSpillBuffer.class);
+
+    private final SpillJournalConfigData spillJournalConfigData;
+    private final KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate;
+    private final ManagedExecutors managedExecutors;
+    private final RateLimitedLog failureLog;
+    private final LongAdder spilledCount = new LongAdder();
+    private final LongAdder replayedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private SpillJournal spillJournal;
+    private ExecutorService replayExecutor;
+    private volatile boolean running;
+    private volatile long lastFailureNanos = System.nanoTime();
+
+    public KafkaSpillBuffer(SpillJournalConfigData spillJournalConfigData,
+            KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate, ManagedExecutors managedExecutors,
+            LogSamplingConfigData logSamplingConfigData) {
+        this.spillJournalConfigData = spillJournalConfigData;
+        this.kafkaTemplate = kafkaTemplate;
+        this.managedExecutors = managedExecutors;
+        this.failureLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled())
+            return;
+        spillJournal = new SpillJournal(Paths.get(spillJournalConfigData.getDirectory()),
+                spillJournalConfigData.getSegmentSizeBytes());
+        running = true;
+        replayExecutor = managedExecutors.newExecutor("kafka-spill-replay");
+        replayExecutor.execute(this::replay);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(spillJournalConfigData.getEnabled());
+    }
+
+    /**
+     * Journals a record the producer gave up on and holds back replay for another interval.
+     */
+    public boolean spillFailed(String topicName, Long key, TwitterAvroModel message) {
+        lastFailureNanos = System.nanoTime();
+        return spill(topicName, key, message);
+    }
+
+    /**
+     * Journals a record that was never handed to the producer because the caller's queue was full.
+     */
+    public boolean spillOverflow(String topicName, Long key, TwitterAvroModel message) {
+        return spill(topicName, key, message);
+    }
+
+    public long getPendingCount() {
+        return spillJournal == null ? 0 : spillJournal.getPendingRecords();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    public long getReplayedCount() {
+        return replayedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return spillJournal == null ? 0 : spillJournal.getSkippedRecords();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kafka.producer.spill.pending", this, KafkaSpillBuffer::getPendingCount)
+                .description("Records in the spill journal waiting to be replayed")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.spill.spilled", this, KafkaSpillBuffer::getSpilledCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.spill.replayed", this, KafkaSpillBuffer::getReplayedCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.spill.rejected", this, KafkaSpillBuffer::getRejectedCount)
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.spill.skipped", this, KafkaSpillBuffer::getSkippedCount)
+                .description("Journaled records skipped on replay because they could not be decoded")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (!running)
+            return;
+        running = false;
+        replayExecutor.shutdownNow();
+        try {
+            replayExecutor.awaitTermination(spillJournalConfigData.getReplayIntervalMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Closing spill journal. Spilled {}, replayed {}, rejected {}, skipped {}, {} left to replay",
+                getSpilledCount(), getReplayedCount(), getRejectedCount(), getSkippedCount(), getPendingCount());
+        spillJournal.close();
+    }
+
+    private boolean spill(String topicName, Long key, TwitterAvroModel message) {
+        if (spillJournal == null)
+            return false;
+        try {
+            if (spillJournal.append(topicName, key, message)) {
+                spilledCount.increment();
+                return true;
+            }
+            LOG.warn("Record with key {} is larger than a spill journal segment and was not journaled", key);
+        } catch (KafkaProducerException e) {
+            if (failureLog.tryAcquire())
+                LOG.error("Error while spilling record with key {} ({} similar error(s) suppressed)", key,
+                        failureLog.takeSuppressedCount(), e);
+        }
+        rejectedCount.increment();
+        return false;
+    }
+
+    private void replay() {
+        long replayIntervalNanos = TimeUnit.MILLISECONDS.toNanos(spillJournalConfigData.getReplayIntervalMs());
+        while (running) {
+            try {
+                List<SpilledRecord> records = System.nanoTime() - lastFailureNanos < replayIntervalNanos
+                        ? List.of()
+                        : spillJournal.read(spillJournalConfigData.getReplayBatchSize());
+                if (records.isEmpty()) {
+                    Thread.sleep(spillJournalConfigData.getReplayIntervalMs());
+                    continue;
+                }
+                if (send(records)) {
+                    spillJournal.commit(records);
+                    replayedCount.add(records.size());
+                    if (spillJournal.getPendingRecords() == 0)
+                        LOG.info("Replayed all spilled records, {} in total", getReplayedCount());
+                } else {
+                    lastFailureNanos = System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                lastFailureNanos = System.nanoTime();
+                if (failureLog.tryAcquire())
+                    LOG.error("Error while replaying spill journal ({} similar error(s) suppressed)",
+                            failureLog.takeSuppressedCount(), e);
+            }
+        }
+    }
+
+    private boolean send(List<SpilledRecord> records) throws InterruptedException {
+        List<Future<RecordMetadata>> futures = kafkaTemplate.execute(producer -> {
+            List<Future<RecordMetadata>> sent = new ArrayList<>(records.size());
+            for (SpilledRecord record : records) {
+                sent.add(producer.send(new ProducerRecord<>(record.getTopicName(), record.getKey(),
+                        record.getValue())));
+            }
+            return sent;
+        });
+        boolean acknowledged = true;
+        for (Future<RecordMetadata> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (acknowledged && failureLog.tryAcquire())
+                    LOG.warn("Replay of {} spilled record(s) failed, retrying after {} ms ({} similar error(s) "
+                            + "suppressed)", records.size(), spillJournalConfigData.getReplayIntervalMs(),
+                            failureLog.takeSuppressedCount(), e.getCause());
+                acknowledged = false;
+            }
+        }
+        return acknowledged;
+    }
+}
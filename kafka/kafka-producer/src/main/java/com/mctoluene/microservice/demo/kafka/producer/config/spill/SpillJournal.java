@@ -0,0 +1,375 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.spill;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroSchemas;
+import com.mctoluene.microservice.demo.kafka.producer.exception.KafkaProducerException;
+
+/**
+ * Append-only journal of records that could not be handed to Kafka, kept in memory-mapped segment files of a
+ * fixed size. A record body is the topic name, the key and the avro-encoded value. Records are read back in
+ * append order from a cursor that only moves on {@link #commit(List)}, which also persists it to a checkpoint
+ * file and deletes segments that are fully behind it, so a restart replays anything not yet committed.
+ * <p>
+ * Values are written with the schema of the {@link TwitterAvroModel} class. When that changes between runs, the
+ * journal moves on to a new segment and remembers in a schemas file which segments hold which schema, so records
+ * journaled by an older version are still decoded. Journals from before the schemas file hold v1 records.
+ * <p>
+ * A record whose checksum holds but that cannot be decoded, for instance one written by a build with a schema
+ * this one does not know, is skipped and counted once it reaches the cursor, so it cannot stall replay.
+ * <p>
+ * Data written to a mapped segment survives a crash of the process but not of the host until it is forced,
+ * which happens when a segment is rotated, on commit and on close.
+ */
+public class SpillJournal implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(SpillJournal.class);
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "spill.checkpoint";
+    private static final String SCHEMAS_FILE = "spill.schemas";
+
+    private final Path directory;
+    private final int segmentSizeBytes;
+    private final NavigableMap<Long, SpillSegment> segments = new TreeMap<>();
+    private final SpecificDatumWriter<TwitterAvroModel> datumWriter = new SpecificDatumWriter<>(
+            TwitterAvroModel.class);
+    private final NavigableMap<Long, Schema> writerSchemas = new TreeMap<>();
+    private final Map<Schema, SpecificDatumReader<TwitterAvroModel>> datumReaders = new HashMap<>();
+    private final RecordBuffer recordBuffer = new RecordBuffer();
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    private BinaryEncoder encoder;
+    private BinaryDecoder decoder;
+    private byte[] readBuffer = new byte[256];
+    private SpillSegment writeSegment;
+    private long readSegmentIndex;
+    private int readPosition;
+    private long pendingRecords;
+    private long skippedRecords;
+    private boolean closed;
+
+    public SpillJournal(Path directory, int segmentSizeBytes) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        try {
+            Files.createDirectories(directory);
+            open();
+        } catch (IOException e) {
+            closeSegments();
+            throw new KafkaProducerException("Error while opening spill journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns false if the encoded record is larger than a segment and can never be journaled.
+     */
+    public synchronized boolean append(String topicName, Long key, TwitterAvroModel value) {
+        ensureOpen();
+        try {
+            recordBuffer.reset();
+            recordOutput.writeUTF(topicName);
+            recordOutput.writeLong(key);
+            encoder = EncoderFactory.get().directBinaryEncoder(recordBuffer, encoder);
+            datumWriter.write(value, encoder);
+            int length = recordBuffer.size();
+            if (SpillSegment.HEADER_BYTES + length > segmentSizeBytes)
+                return false;
+            if (!writeSegment.append(recordBuffer.array(), length)) {
+                writeSegment.force();
+                writeSegment = openSegment(writeSegment.index() + 1);
+                writeSegment.append(recordBuffer.array(), length);
+            }
+            pendingRecords++;
+            return true;
+        } catch (IOException e) {
+            throw new KafkaProducerException("Error while appending to spill journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Reads up to the given number of records from the cursor without moving it.
+     */
+    public synchronized List<SpilledRecord> read(int maxRecords) {
+        ensureOpen();
+        List<SpilledRecord> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        long segmentIndex = readSegmentIndex;
+        int position = readPosition;
+        while (records.size() < maxRecords) {
+            SpillSegment segment = segments.get(segmentIndex);
+            int length = segment == null ? 0 : segment.lengthAt(position);
+            if (length == 0 || !segment.isValid(position, length)) {
+                if (length != 0)
+                    LOG.warn("Skipping corrupt spill journal record in segment {} at position {}", segmentIndex,
+                            position);
+                Long nextSegmentIndex = segments.higherKey(segmentIndex);
+                if (nextSegmentIndex == null || segment == writeSegment)
+                    break;
+                segmentIndex = nextSegmentIndex;
+                position = 0;
+                continue;
+            }
+            SpilledRecord record = decode(segment, segmentIndex, position, length);
+            position += SpillSegment.HEADER_BYTES + length;
+            if (record != null) {
+                records.add(record);
+            } else if (records.isEmpty()) {
+                skip(segmentIndex, position);
+            } else {
+                // Returned first, the undecodable record is at the cursor once these are committed
+                break;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Moves the cursor past the given records, which must be the ones last returned by {@link #read(int)}.
+     */
+    public synchronized void commit(List<SpilledRecord> records) {
+        ensureOpen();
+        if (records.isEmpty())
+            return;
+        SpilledRecord last = records.get(records.size() - 1);
+        readSegmentIndex = last.getSegmentIndex();
+        readPosition = last.getEndPosition();
+        pendingRecords = Math.max(0, pendingRecords - records.size());
+        try {
+            Iterator<Map.Entry<Long, SpillSegment>> iterator = segments.headMap(readSegmentIndex).entrySet()
+                    .iterator();
+            while (iterator.hasNext()) {
+                iterator.next().getValue().delete();
+                iterator.remove();
+            }
+            Long readSchemaIndex = writerSchemas.floorKey(readSegmentIndex);
+            if (readSchemaIndex != null && !writerSchemas.headMap(readSchemaIndex).isEmpty()) {
+                writerSchemas.headMap(readSchemaIndex).clear();
+                writeWriterSchemas();
+            }
+            writeSegment.force();
+            writeCheckpoint();
+        } catch (IOException e) {
+            throw new KafkaProducerException("Error while committing spill journal in " + directory, e);
+        }
+    }
+
+    public synchronized long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long getSkippedRecords() {
+        return skippedRecords;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        if (writeSegment != null)
+            writeSegment.force();
+        closeSegments();
+    }
+
+    // Segments are unmapped on close, so they must not be reached afterwards
+    private void ensureOpen() {
+        if (closed)
+            throw new KafkaProducerException("Spill journal in " + directory + " is closed");
+    }
+
+    private void open() throws IOException {
+        readCheckpoint();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+                    continue;
+                long index = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                if (index < readSegmentIndex)
+                    Files.delete(file);
+                else
+                    segments.put(index, SpillSegment.open(index, file, segmentSizeBytes));
+            }
+        }
+        if (segments.isEmpty()) {
+            readPosition = 0;
+            writeSegment = openSegment(readSegmentIndex);
+        } else {
+            if (segments.firstKey() > readSegmentIndex) {
+                readSegmentIndex = segments.firstKey();
+                readPosition = 0;
+            }
+            for (SpillSegment segment : segments.values()) {
+                int records = segment.recover();
+                if (segment.index() == readSegmentIndex)
+                    records -= countRecords(segment, readPosition);
+                pendingRecords += Math.max(0, records);
+            }
+            writeSegment = segments.lastEntry().getValue();
+        }
+        openWriterSchemas();
+        LOG.info("Opened spill journal in {} with {} segment(s) and {} record(s) to replay", directory,
+                segments.size(), pendingRecords);
+    }
+
+    private void openWriterSchemas() throws IOException {
+        readWriterSchemas();
+        if (writerSchemas.isEmpty() && pendingRecords > 0)
+            writerSchemas.put(readSegmentIndex, TwitterAvroSchemas.schema(TwitterAvroSchemas.V1));
+        Map.Entry<Long, Schema> latest = writerSchemas.lastEntry();
+        Schema schema = TwitterAvroModel.getClassSchema();
+        if (latest != null && latest.getValue().equals(schema))
+            return;
+        if (latest != null && writeSegment.writePosition() > 0) {
+            writeSegment.force();
+            writeSegment = openSegment(writeSegment.index() + 1);
+        }
+        writerSchemas.put(writeSegment.index(), schema);
+        writeWriterSchemas();
+    }
+
+    private int countRecords(SpillSegment segment, int endPosition) {
+        int position = 0;
+        int records = 0;
+        int length;
+        while (position < endPosition && (length = segment.lengthAt(position)) > 0) {
+            position += SpillSegment.HEADER_BYTES + length;
+            records++;
+        }
+        return records;
+    }
+
+    private SpillSegment openSegment(long index) throws IOException {
+        SpillSegment segment = SpillSegment.open(index,
+                directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX)),
+                segmentSizeBytes);
+        segments.put(index, segment);
+        return segment;
+    }
+
+    private void skip(long segmentIndex, int endPosition) {
+        readSegmentIndex = segmentIndex;
+        readPosition = endPosition;
+        pendingRecords = Math.max(0, pendingRecords - 1);
+        skippedRecords++;
+        try {
+            writeCheckpoint();
+        } catch (IOException e) {
+            throw new KafkaProducerException("Error while committing spill journal in " + directory, e);
+        }
+    }
+
+    private SpilledRecord decode(SpillSegment segment, long segmentIndex, int position, int length) {
+        if (readBuffer.length < length)
+            readBuffer = new byte[Math.max(length, readBuffer.length * 2)];
+        segment.read(position, readBuffer, length);
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(readBuffer, 0, length));
+            String topicName = input.readUTF();
+            long key = input.readLong();
+            int valueOffset = length - input.available();
+            decoder = DecoderFactory.get().binaryDecoder(readBuffer, valueOffset, length - valueOffset, decoder);
+            SpecificDatumReader<TwitterAvroModel> datumReader = datumReaders.computeIfAbsent(
+                    writerSchemas.floorEntry(segmentIndex).getValue(), TwitterAvroSchemas::readerFor);
+            return new SpilledRecord(topicName, key, datumReader.read(null, decoder), segmentIndex,
+                    position + SpillSegment.HEADER_BYTES + length);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Skipping spill journal record in segment {} at position {} that cannot be decoded",
+                    segmentIndex, position, e);
+            return null;
+        }
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint))
+            return;
+        String[] cursor = Files.readString(checkpoint).trim().split(":");
+        try {
+            readSegmentIndex = Long.parseLong(cursor[0]);
+            readPosition = Integer.parseInt(cursor[1]);
+        } catch (RuntimeException e) {
+            LOG.warn("Ignoring unreadable spill journal checkpoint {}, replaying from the oldest segment",
+                    checkpoint);
+            readSegmentIndex = 0;
+            readPosition = 0;
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temporary, readSegmentIndex + ":" + readPosition);
+        Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readWriterSchemas() throws IOException {
+        Path schemas = directory.resolve(SCHEMAS_FILE);
+        if (!Files.exists(schemas))
+            return;
+        for (String line : Files.readAllLines(schemas)) {
+            int separator = line.indexOf('\t');
+            if (separator > 0)
+                writerSchemas.put(Long.parseLong(line.substring(0, separator)),
+                        new Schema.Parser().parse(line.substring(separator + 1)));
+        }
+    }
+
+    private void writeWriterSchemas() throws IOException {
+        List<String> lines = new ArrayList<>(writerSchemas.size());
+        for (Map.Entry<Long, Schema> entry : writerSchemas.entrySet()) {
+            lines.add(entry.getKey() + "\t" + entry.getValue());
+        }
+        Path schemas = directory.resolve(SCHEMAS_FILE);
+        Path temporary = directory.resolve(SCHEMAS_FILE + ".tmp");
+        Files.write(temporary, lines);
+        Files.move(temporary, schemas, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void closeSegments() {
+        for (SpillSegment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                LOG.warn("Error while closing spill journal segment {}", segment.index(), e);
+            }
+        }
+        segments.clear();
+    }
+
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        private byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.spill;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import org.apache.kafka.common.utils.ByteBufferUnmapper;
+
+/**
+ * One fixed-size, memory-mapped journal file. Each record is framed as length, crc32 and body, and the length is
+ * written last, so a zero length marks the end of the data: a new file is zero filled.
+ */
+final class SpillSegment {
+    static final int HEADER_BYTES = 8;
+
+    private final long index;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    private int writePosition;
+
+    private SpillSegment(long index, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static SpillSegment open(long index, Path path, int sizeBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            int size = (int) Math.max(channel.size(), sizeBytes);
+            return new SpillSegment(index, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long index() {
+        return index;
+    }
+
+    int writePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Finds the end of the valid records after a restart and zeroes anything behind it, so a torn write cannot
+     * be mistaken for a record once new ones are appended over it. Returns the number of valid records.
+     */
+    int recover() {
+        int position = 0;
+        int records = 0;
+        int length;
+        while ((length = lengthAt(position)) > 0 && isValid(position, length)) {
+            position += HEADER_BYTES + length;
+            records++;
+        }
+        writePosition = position;
+        for (int i = position; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0)
+                buffer.put(i, (byte) 0);
+        }
+        return records;
+    }
+
+    boolean append(byte[] body, int length) {
+        if (writePosition + HEADER_BYTES + length > buffer.capacity())
+            return false;
+        buffer.put(writePosition + HEADER_BYTES, body, 0, length);
+        crc.reset();
+        crc.update(body, 0, length);
+        buffer.putInt(writePosition + 4, (int) crc.getValue());
+        buffer.putInt(writePosition, length);
+        writePosition += HEADER_BYTES + length;
+        return true;
+    }
+
+    /**
+     * Length of the record at the position, or zero when nothing has been written there.
+     */
+    int lengthAt(int position) {
+        if (position + HEADER_BYTES > buffer.capacity())
+            return 0;
+        int length = buffer.getInt(position);
+        return length > 0 && position + HEADER_BYTES + length <= buffer.capacity() ? length : 0;
+    }
+
+    boolean isValid(int position, int length) {
+        crc.reset();
+        crc.update(buffer.slice(position + HEADER_BYTES, length));
+        return buffer.getInt(position + 4) == (int) crc.getValue();
+    }
+
+    void read(int position, byte[] target, int length) {
+        buffer.get(position + HEADER_BYTES, target, 0, length);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Unmaps the segment as well, as a mapping otherwise lives until the buffer is garbage collected and keeps a
+     * deleted file's disk space in use. The segment must not be touched afterwards.
+     */
+    void close() throws IOException {
+        try {
+            ByteBufferUnmapper.unmap(path.toString(), buffer);
+        } finally {
+            channel.close();
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(path);
+    }
+}
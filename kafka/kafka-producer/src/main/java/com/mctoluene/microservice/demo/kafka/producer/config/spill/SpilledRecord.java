@@ -0,0 +1,39 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.spill;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+public class SpilledRecord {
+    private final String topicName;
+    private final Long key;
+    private final TwitterAvroModel value;
+    private final long segmentIndex;
+    private final int endPosition;
+
+    SpilledRecord(String topicName, Long key, TwitterAvroModel value, long segmentIndex, int endPosition) {
+        this.topicName = topicName;
+        this.key = key;
+        this.value = value;
+        this.segmentIndex = segmentIndex;
+        this.endPosition = endPosition;
+    }
+
+    public String getTopicName() {
+        return topicName;
+    }
+
+    public Long getKey() {
+        return key;
+    }
+
+    public TwitterAvroModel getValue() {
+        return value;
+    }
+
+    long getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    int getEndPosition() {
+        return endPosition;
+    }
+}
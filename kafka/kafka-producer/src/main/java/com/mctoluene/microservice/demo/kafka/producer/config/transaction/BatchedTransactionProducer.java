@@ -0,0 +1,328 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.transaction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.AuthorizationException;
+import org.apache.kafka.common.errors.OutOfOrderSequenceException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.errors.UnsupportedVersionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs every send inside a transaction it begins and commits itself, grouping up to max-records records or
+ * max-ms of sends per transaction so the commit round trip is paid once per group instead of once per record.
+ * A record's callback and future complete when its transaction does: with the record's own outcome once
+ * committed, or with the commit failure once aborted, since read-committed consumers never see an aborted
+ * record even if the broker acknowledged it.
+ * <p>
+ * Sends share a read lock and a commit takes the write lock, so a commit waits for the sends in progress and
+ * holds new ones back until it is done. A transaction reaching max-records is committed by the send that filled
+ * it, an older one by a commit thread. A producer that is fenced or fails fatally is closed and replaced by a new
+ * one on the next send, which also aborts whatever the old one left open.
+ */
+public class BatchedTransactionProducer<K, V> implements Producer<K, V> {
+    private static final Logger LOG = LoggerFactory.getLogger(BatchedTransactionProducer.class);
+
+    private final Supplier<Producer<K, V>> producerSupplier;
+    private final int maxRecords;
+    private final long maxNanos;
+    private final ExecutorService commitExecutor;
+    private final TransactionOutcomes transactionOutcomes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Producer<K, V> delegate;
+    private volatile Transaction transaction;
+    private volatile Thread commitThread;
+    private volatile boolean closed;
+
+    public BatchedTransactionProducer(Supplier<Producer<K, V>> producerSupplier, int maxRecords, long maxMs,
+            ExecutorService commitExecutor, TransactionOutcomes transactionOutcomes) {
+        this.producerSupplier = producerSupplier;
+        this.maxRecords = Math.max(1, maxRecords);
+        this.maxNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxMs));
+        this.commitExecutor = commitExecutor;
+        this.transactionOutcomes = transactionOutcomes;
+        commitExecutor.execute(this::commitExpired);
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<K, V> record) {
+        return send(record, null);
+    }
+
+    @Override
+    public Future<RecordMetadata> send(ProducerRecord<K, V> record, Callback callback) {
+        DeferredSend deferredSend = new DeferredSend(callback);
+        Transaction current;
+        int records;
+        lock.readLock().lock();
+        try {
+            if (closed)
+                throw new IllegalStateException("Cannot send after the producer has been closed");
+            current = begin();
+            current.sends.add(deferredSend);
+            records = current.recordCount.incrementAndGet();
+            try {
+                delegate.send(record, deferredSend);
+            } catch (RuntimeException e) {
+                deferredSend.abandoned = true;
+                throw e;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (records == maxRecords)
+            commit(current);
+        return deferredSend.future;
+    }
+
+    /**
+     * Commits the open transaction, which flushes it first.
+     */
+    @Override
+    public void flush() {
+        Transaction current = transaction;
+        if (current != null)
+            commit(current);
+    }
+
+    @Override
+    public List<PartitionInfo> partitionsFor(String topic) {
+        return producer().partitionsFor(topic);
+    }
+
+    @Override
+    public Map<MetricName, ? extends Metric> metrics() {
+        return producer().metrics();
+    }
+
+    @Override
+    public void close() {
+        close(Duration.ofMillis(Long.MAX_VALUE));
+    }
+
+    @Override
+    public void close(Duration timeout) {
+        if (closed)
+            return;
+        closed = true;
+        LockSupport.unpark(commitThread);
+        commitExecutor.shutdownNow();
+        Transaction current = transaction;
+        if (current != null)
+            commit(current);
+        Producer<K, V> producer = delegate;
+        if (producer != null)
+            producer.close(timeout);
+    }
+
+    @Override
+    public void initTransactions() {
+        throw transactionsManaged();
+    }
+
+    @Override
+    public void beginTransaction() {
+        throw transactionsManaged();
+    }
+
+    @Override
+    @Deprecated
+    public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets, String consumerGroupId) {
+        throw transactionsManaged();
+    }
+
+    @Override
+    public void sendOffsetsToTransaction(Map<TopicPartition, OffsetAndMetadata> offsets,
+            ConsumerGroupMetadata groupMetadata) {
+        throw transactionsManaged();
+    }
+
+    @Override
+    public void commitTransaction() {
+        throw transactionsManaged();
+    }
+
+    @Override
+    public void abortTransaction() {
+        throw transactionsManaged();
+    }
+
+    /**
+     * Returns the open transaction, beginning one if there is none. No send can be in progress while there is no
+     * transaction, so this is also where a failed producer is replaced.
+     */
+    private Transaction begin() {
+        Transaction current = transaction;
+        if (current != null)
+            return current;
+        synchronized (this) {
+            if (transaction == null) {
+                Producer<K, V> producer = producer();
+                try {
+                    producer.beginTransaction();
+                } catch (KafkaException e) {
+                    discard(producer, e);
+                    throw e;
+                }
+                transaction = new Transaction();
+                LockSupport.unpark(commitThread);
+            }
+            return transaction;
+        }
+    }
+
+    private void commit(Transaction expected) {
+        KafkaException failure;
+        lock.writeLock().lock();
+        try {
+            if (transaction != expected)
+                return;
+            transaction = null;
+            failure = commitOrAbort(expected);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        expected.complete(failure);
+    }
+
+    private KafkaException commitOrAbort(Transaction current) {
+        Producer<K, V> producer = delegate;
+        try {
+            producer.commitTransaction();
+            transactionOutcomes.committed(current.recordCount.get());
+            return null;
+        } catch (KafkaException e) {
+            transactionOutcomes.aborted();
+            if (!isFatal(e)) {
+                try {
+                    producer.abortTransaction();
+                    LOG.warn("Aborted transaction of {} record(s)", current.recordCount.get(), e);
+                    return e;
+                } catch (KafkaException abortFailure) {
+                    e.addSuppressed(abortFailure);
+                }
+            }
+            discard(producer, e);
+            return e;
+        }
+    }
+
+    private synchronized Producer<K, V> producer() {
+        if (delegate == null)
+            delegate = producerSupplier.get();
+        return delegate;
+    }
+
+    private synchronized void discard(Producer<K, V> producer, KafkaException cause) {
+        LOG.error("Closing transactional producer after a fatal error, a new one will be created", cause);
+        if (delegate == producer)
+            delegate = null;
+        try {
+            producer.close(Duration.ZERO);
+        } catch (RuntimeException e) {
+            LOG.warn("Error while closing transactional producer", e);
+        }
+    }
+
+    private void commitExpired() {
+        commitThread = Thread.currentThread();
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            Transaction current = transaction;
+            long waitNanos = current == null ? maxNanos : current.startNanos + maxNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+                continue;
+            }
+            try {
+                commit(current);
+            } catch (RuntimeException e) {
+                LOG.error("Error while committing transaction", e);
+            }
+        }
+    }
+
+    private static boolean isFatal(KafkaException e) {
+        return e instanceof ProducerFencedException || e instanceof OutOfOrderSequenceException
+                || e instanceof AuthorizationException || e instanceof UnsupportedVersionException;
+    }
+
+    private static UnsupportedOperationException transactionsManaged() {
+        return new UnsupportedOperationException("Transactions are begun and committed by the producer itself");
+    }
+
+    private static final class Transaction {
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger recordCount = new AtomicInteger();
+        private final Queue<DeferredSend> sends = new ConcurrentLinkedQueue<>();
+
+        private void complete(KafkaException failure) {
+            for (DeferredSend send : sends) {
+                send.complete(failure);
+            }
+        }
+    }
+
+    /**
+     * Holds a record's outcome from the producer until its transaction ends. The producer has completed every
+     * send of a transaction by the time the commit returns.
+     */
+    private static final class DeferredSend implements Callback {
+        private final Callback callback;
+        private final CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+        private RecordMetadata metadata;
+        private Exception exception;
+        private volatile boolean abandoned;
+
+        private DeferredSend(Callback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            this.metadata = metadata;
+            this.exception = exception;
+        }
+
+        private void complete(KafkaException transactionFailure) {
+            if (abandoned)
+                return;
+            Exception failure = exception != null ? exception : transactionFailure;
+            if (failure == null)
+                future.complete(metadata);
+            else
+                future.completeExceptionally(failure);
+            if (callback == null)
+                return;
+            try {
+                callback.onCompletion(metadata, failure);
+            } catch (RuntimeException e) {
+                LOG.error("Error in send callback", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.transaction;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Producer factory whose shared producer is a {@link BatchedTransactionProducer} over one transactional id. The
+ * factory itself is not transactional, so a KafkaTemplate sends through it without a surrounding transaction and
+ * the transactions are begun and committed underneath.
+ */
+public class BatchedTransactionProducerFactory<K, V> extends DefaultKafkaProducerFactory<K, V> {
+    private final String transactionalId;
+    private final int maxRecords;
+    private final long maxMs;
+    private final ManagedExecutors managedExecutors;
+    private final TransactionOutcomes transactionOutcomes;
+
+    /**
+     * The outcomes are passed in so that factories rebuilt for the same transactional id keep counting on them.
+     */
+    public BatchedTransactionProducerFactory(Map<String, Object> configs, String transactionalId, int maxRecords,
+            long maxMs, ManagedExecutors managedExecutors, TransactionOutcomes transactionOutcomes) {
+        super(configs);
+        this.transactionalId = transactionalId;
+        this.maxRecords = maxRecords;
+        this.maxMs = maxMs;
+        this.managedExecutors = managedExecutors;
+        this.transactionOutcomes = transactionOutcomes;
+    }
+
+    public TransactionOutcomes getTransactionOutcomes() {
+        return transactionOutcomes;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("kafka.producer.transactions", transactionOutcomes,
+                TransactionOutcomes::getCommittedCount)
+                .description("Transactions ended by the batched transactional producer")
+                .tag("transactional.id", transactionalId)
+                .tag("outcome", "committed")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.transactions", transactionOutcomes,
+                TransactionOutcomes::getAbortedCount)
+                .description("Transactions ended by the batched transactional producer")
+                .tag("transactional.id", transactionalId)
+                .tag("outcome", "aborted")
+                .register(registry);
+        FunctionCounter.builder("kafka.producer.transaction.records", transactionOutcomes,
+                TransactionOutcomes::getCommittedRecordCount)
+                .description("Records in committed transactions")
+                .tag("transactional.id", transactionalId)
+                .register(registry);
+    }
+
+    @Override
+    protected Producer<K, V> createKafkaProducer() {
+        return new BatchedTransactionProducer<>(this::newTransactionalProducer, maxRecords, maxMs,
+                managedExecutors.newExecutor("kafka-transaction-commit"), transactionOutcomes);
+    }
+
+    private Producer<K, V> newTransactionalProducer() {
+        Map<String, Object> configs = new HashMap<>(getConfigurationProperties());
+        configs.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transactionalId);
+        Producer<K, V> producer = createRawProducer(configs);
+        try {
+            producer.initTransactions();
+        } catch (RuntimeException e) {
+            producer.close(Duration.ZERO);
+            throw e;
+        }
+        return producer;
+    }
+}
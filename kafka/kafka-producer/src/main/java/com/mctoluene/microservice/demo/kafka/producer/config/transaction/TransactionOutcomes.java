@@ -0,0 +1,34 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.transaction;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counts of the transactions of one transactional id, kept apart from the producer so they carry over
+ * when a fenced or reset producer is replaced.
+ */
+public final class TransactionOutcomes {
+    private final LongAdder committedCount = new LongAdder();
+    private final LongAdder abortedCount = new LongAdder();
+    private final LongAdder committedRecordCount = new LongAdder();
+
+    void committed(int records) {
+        committedCount.increment();
+        committedRecordCount.add(records);
+    }
+
+    void aborted() {
+        abortedCount.increment();
+    }
+
+    public long getCommittedCount() {
+        return committedCount.sum();
+    }
+
+    public long getAbortedCount() {
+        return abortedCount.sum();
+    }
+
+    public long getCommittedRecordCount() {
+        return committedRecordCount.sum();
+    }
+}
@@ -0,0 +1,15 @@
+package com.mctoluene.microservice.demo.kafka.producer.exception;
+
+public class KafkaProducerException extends RuntimeException {
+    public KafkaProducerException() {
+        super();
+    }
+
+    public KafkaProducerException(String message) {
+        super(message);
+    }
+
+    public KafkaProducerException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
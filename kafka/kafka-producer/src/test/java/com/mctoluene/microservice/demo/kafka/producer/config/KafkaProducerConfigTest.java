@@ -0,0 +1,82 @@
+package com.mctoluene.microservice.demo.kafka.producer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.kafka.core.ProducerFactory;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData;
+import com.mctoluene.microservice.demo.config.SpillJournalConfigData;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+import com.mctoluene.microservice.demo.kafka.producer.config.refresh.RefreshableProducerFactory;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KafkaProducerConfigTest {
+    private final KafkaProducerConfigData kafkaProducerConfigData = new KafkaProducerConfigData();
+    private final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+
+    @BeforeEach
+    void setUp() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setBootstrapServers("localhost:19092");
+        kafkaConfigData.setSchemaRegistryUrlKey("schema.registry.url");
+        kafkaConfigData.setSchemaRegistryUrl("http://localhost:8081");
+        kafkaProducerConfigData.setKeySerializerClass(LongSerializer.class.getName());
+        kafkaProducerConfigData.setValueSerializerClass(StringSerializer.class.getName());
+        kafkaProducerConfigData.setCompressionType("none");
+        kafkaProducerConfigData.setAcks("all");
+        kafkaProducerConfigData.setBatchSize(16384);
+        kafkaProducerConfigData.setBatchSizeBoostFactor(1);
+        kafkaProducerConfigData.setLingerMs(5);
+        kafkaProducerConfigData.setRequestTimeoutMs(60000);
+        kafkaProducerConfigData.setRetryCount(5);
+        kafkaProducerConfigData.setProducerPoolSize(2);
+        kafkaProducerConfigData.setRefreshDrainTimeoutMs(1000L);
+        SpillJournalConfigData spillJournalConfigData = new SpillJournalConfigData();
+        spillJournalConfigData.setEnabled(false);
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(false);
+        executorConfigData.setShutdownTimeoutMs(1000L);
+
+        context.getBeanFactory().registerSingleton("kafkaConfigData", kafkaConfigData);
+        context.getBeanFactory().registerSingleton("kafkaProducerConfigData", kafkaProducerConfigData);
+        context.getBeanFactory().registerSingleton("spillJournalConfigData", spillJournalConfigData);
+        context.getBeanFactory().registerSingleton("schemaIdCache", new SchemaIdCache());
+        context.getBeanFactory().registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        context.getBeanFactory().registerSingleton("managedExecutors", new ManagedExecutors(executorConfigData));
+        context.register(KafkaProducerConfig.class);
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void rebuildsEveryPoolMemberFromTheChangedConfig() {
+        KafkaProducerPool<?, ?> pool = context.getBean(KafkaProducerPool.class);
+        assertThat(pool.getProducerFactories()).hasSize(2)
+                .allSatisfy(factory -> assertThat(lingerMs(factory)).isEqualTo(5));
+
+        kafkaProducerConfigData.setLingerMs(50);
+        pool.getProducerFactories().forEach(factory -> ((RefreshableProducerFactory<?, ?>) factory).refresh());
+
+        assertThat(pool.getProducerFactories()).allSatisfy(factory -> assertThat(lingerMs(factory)).isEqualTo(50));
+    }
+
+    private static Object lingerMs(ProducerFactory<?, ?> factory) {
+        return factory.getConfigurationProperties().get(ProducerConfig.LINGER_MS_CONFIG);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.guard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
+import com.mctoluene.microservice.demo.config.CircuitBreakerConfigData;
+import com.mctoluene.microservice.demo.config.CircuitBreakerConfigData.Fallback;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.ProduceCircuitBreaker.State;
+
+class ProduceCircuitBreakerTest {
+    private static final int WINDOW_SIZE = 10;
+    private static final int HALF_OPEN_PERMITTED_CALLS = 4;
+    // Long enough that a slow test run does not reach half-open before it checks the open state
+    private static final long OPEN_DURATION_MS = 500;
+
+    private final ProduceCircuitBreaker breaker = new ProduceCircuitBreaker(configData());
+
+    @Test
+    void opensWhenAWindowFailsAndRejectsEveryRecord() {
+        open();
+
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire(5)).isZero();
+        assertThat(breaker.getRejectedCount()).isEqualTo(5);
+    }
+
+    @Test
+    void takesOneHalfOpenPermitPerRecordOfABatch() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION_MS + 50);
+
+        assertThat(breaker.tryAcquire(3)).isEqualTo(3);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire(3)).isEqualTo(1);
+        assertThat(breaker.tryAcquire(1)).isZero();
+        assertThat(breaker.getRejectedCount()).isEqualTo(2 + 1);
+
+        breaker.release(1);
+        assertThat(breaker.tryAcquire(2)).isEqualTo(1);
+    }
+
+    @Test
+    void closesWhenTheHalfOpenProbesSucceed() throws InterruptedException {
+        open();
+        Thread.sleep(OPEN_DURATION_MS + 50);
+        int permitted = breaker.tryAcquire(HALF_OPEN_PERMITTED_CALLS);
+
+        for (int i = 0; i < permitted; i++) {
+            breaker.onSuccess(SampledTimer.NOT_SAMPLED);
+        }
+
+        assertThat(permitted).isEqualTo(HALF_OPEN_PERMITTED_CALLS);
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquire(100)).isEqualTo(100);
+    }
+
+    @Test
+    void letsEverythingThroughWhenDisabled() {
+        CircuitBreakerConfigData configData = configData();
+        configData.setEnabled(false);
+        ProduceCircuitBreaker disabled = new ProduceCircuitBreaker(configData);
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            disabled.onFailure();
+        }
+
+        assertThat(disabled.tryAcquire(100)).isEqualTo(100);
+        assertThat(disabled.getState()).isEqualTo(State.CLOSED);
+    }
+
+    private void open() {
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            breaker.onFailure();
+        }
+    }
+
+    private static CircuitBreakerConfigData configData() {
+        CircuitBreakerConfigData configData = new CircuitBreakerConfigData();
+        configData.setEnabled(true);
+        configData.setWindowSize(WINDOW_SIZE);
+        configData.setFailureRateThreshold(0.5);
+        configData.setSlowCallDurationMs(5000L);
+        configData.setSlowCallRateThreshold(0.5);
+        configData.setOpenDurationMs(OPEN_DURATION_MS);
+        configData.setHalfOpenPermittedCalls(HALF_OPEN_PERMITTED_CALLS);
+        configData.setFallback(Fallback.DROP);
+        return configData;
+    }
+}
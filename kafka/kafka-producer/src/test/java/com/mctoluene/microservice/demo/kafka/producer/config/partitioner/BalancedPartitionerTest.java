@@ -0,0 +1,110 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.partitioner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.Test;
+
+class BalancedPartitionerTest {
+    private static final String TOPIC = "twitter-topic";
+    private static final int PARTITIONS = 4;
+
+    private final BalancedPartitioner partitioner = new BalancedPartitioner();
+
+    @Test
+    void keepsKeysOnTheirHashedPartitionWhileLoadIsEven() {
+        Cluster cluster = cluster(TOPIC, PARTITIONS);
+        // one key per partition in turn, so the load stays even
+        List<List<Long>> keysByPartition = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS; i++) {
+            keysByPartition.add(new ArrayList<>());
+        }
+        for (long key = 0; keysByPartition.stream().anyMatch(keys -> keys.size() < 1000); key++) {
+            keysByPartition.get(hashed(keyBytes(key))).add(key);
+        }
+        for (int i = 0; i < 1000; i++) {
+            for (int partition = 0; partition < PARTITIONS; partition++) {
+                long key = keysByPartition.get(partition).get(i);
+
+                assertThat(partitioner.partition(TOPIC, key, keyBytes(key), null, null, cluster)).isEqualTo(partition);
+            }
+        }
+    }
+
+    @Test
+    void spreadsTheOverflowOfAHeavyKey() {
+        Cluster cluster = cluster(TOPIC, PARTITIONS);
+        byte[] heavyKey = keyBytes(42);
+        int[] counts = new int[PARTITIONS];
+        for (long i = 0; i < 10_000; i++) {
+            byte[] keyBytes = i % 2 == 0 ? heavyKey : keyBytes(i);
+            counts[partitioner.partition(TOPIC, i, keyBytes, null, null, cluster)]++;
+        }
+
+        int fairShare = 10_000 / PARTITIONS;
+        for (int count : counts) {
+            assertThat(count).isLessThanOrEqualTo((int) (fairShare * 1.25) + PARTITIONS);
+        }
+    }
+
+    @Test
+    void honoursAConfiguredMaxLoadFactor() {
+        partitioner.configure(Map.of(BalancedPartitioner.MAX_LOAD_FACTOR_CONFIG, "2.0"));
+        Cluster cluster = cluster(TOPIC, PARTITIONS);
+        byte[] heavyKey = keyBytes(42);
+        int heavyPartition = hashed(heavyKey);
+        int onHeavyPartition = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (partitioner.partition(TOPIC, 42L, heavyKey, null, null, cluster) == heavyPartition)
+                onHeavyPartition++;
+        }
+
+        assertThat(onHeavyPartition).isBetween(480, 520);
+    }
+
+    @Test
+    void sendsEverythingToTheOnlyPartition() {
+        Cluster cluster = cluster(TOPIC, 1);
+
+        assertThat(partitioner.partition(TOPIC, 1L, keyBytes(1), null, null, cluster)).isZero();
+        assertThat(partitioner.partition(TOPIC, null, null, null, null, cluster)).isZero();
+    }
+
+    @Test
+    void startsOverWhenThePartitionCountChanges() {
+        byte[] heavyKey = keyBytes(42);
+        for (int i = 0; i < 1000; i++) {
+            partitioner.partition(TOPIC, 42L, heavyKey, null, null, cluster(TOPIC, PARTITIONS));
+        }
+        Cluster resized = cluster(TOPIC, PARTITIONS * 2);
+
+        assertThat(partitioner.partition(TOPIC, 42L, heavyKey, null, null, resized))
+                .isEqualTo(Utils.toPositive(Utils.murmur2(heavyKey)) % (PARTITIONS * 2));
+    }
+
+    private static int hashed(byte[] keyBytes) {
+        return Utils.toPositive(Utils.murmur2(keyBytes)) % PARTITIONS;
+    }
+
+    private static byte[] keyBytes(long key) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(key).array();
+    }
+
+    private static Cluster cluster(String topic, int partitions) {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitionInfos = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            partitionInfos.add(new PartitionInfo(topic, i, node, new Node[] { node }, new Node[] { node }));
+        }
+        return new Cluster("cluster", List.of(node), partitionInfos, Set.of(), Set.of());
+    }
+}
@@ -0,0 +1,139 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.internals.DefaultPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.mctoluene.microservice.demo.config.KafkaProducerConfigData.ProducerPoolRouting;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+class KafkaProducerPoolTest {
+    private static final String TOPIC = "twitter-topic";
+    private static final int PARTITION_COUNT = 6;
+    private static final int POOL_SIZE = 3;
+    private static final Node BROKER = new Node(1, "localhost", 9092);
+    private static final TwitterAvroModel MODEL = new TwitterAvroModel();
+
+    private final List<KafkaTemplate<Long, TwitterAvroModel>> kafkaTemplates = templates(POOL_SIZE);
+
+    @Test
+    void pinsEachKeyToTheDefaultPartitionersPartitionAndItsMember() {
+        KafkaProducerPool<Long, TwitterAvroModel> pool = new KafkaProducerPool<>(kafkaTemplates,
+                ProducerPoolRouting.PARTITION_AFFINITY);
+        Cluster cluster = cluster(PARTITION_COUNT);
+        DefaultPartitioner defaultPartitioner = new DefaultPartitioner();
+        LongSerializer keySerializer = new LongSerializer();
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 1_000; i++) {
+            long key = i < 2 ? (i == 0 ? Long.MIN_VALUE : -1L) : random.nextLong();
+            ProducerRecord<Long, TwitterAvroModel> record = pool.record(TOPIC, key, MODEL);
+
+            int expected = defaultPartitioner.partition(TOPIC, key, keySerializer.serialize(TOPIC, key), MODEL,
+                    null, cluster);
+            assertThat(record.partition()).as("partition of key %d", key).isEqualTo(expected);
+            assertThat(pool.indexFor(record)).isEqualTo(expected % POOL_SIZE);
+            assertThat(pool.indexFor(pool.record(TOPIC, key, MODEL))).isEqualTo(expected % POOL_SIZE);
+        }
+        // The partition count is read once per topic
+        verify(kafkaTemplates.get(0), times(1)).partitionsFor(TOPIC);
+    }
+
+    @Test
+    void leavesThePartitionToTheProducerUntilItKnowsTheTopic() {
+        when(kafkaTemplates.get(0).partitionsFor("new-topic")).thenReturn(List.of(), partitions("new-topic", 2));
+        KafkaProducerPool<Long, TwitterAvroModel> pool = new KafkaProducerPool<>(kafkaTemplates,
+                ProducerPoolRouting.PARTITION_AFFINITY);
+
+        assertThat(pool.record("new-topic", 7L, MODEL).partition()).isNull();
+        assertThat(pool.record("new-topic", 7L, MODEL).partition()).isNotNull();
+        assertThat(pool.record(TOPIC, null, MODEL).partition()).isNull();
+    }
+
+    @Test
+    void spreadsRecordsEvenlyRoundRobin() {
+        KafkaProducerPool<Long, TwitterAvroModel> pool = new KafkaProducerPool<>(kafkaTemplates,
+                ProducerPoolRouting.ROUND_ROBIN);
+        int[] counts = new int[POOL_SIZE];
+
+        for (int i = 0; i < 300; i++) {
+            ProducerRecord<Long, TwitterAvroModel> record = pool.record(TOPIC, 1L, MODEL);
+            assertThat(record.partition()).isNull();
+            counts[pool.indexFor(record)]++;
+        }
+
+        assertThat(counts).containsOnly(100);
+    }
+
+    @Test
+    void keepsEachThreadOnOneMember() {
+        KafkaProducerPool<Long, TwitterAvroModel> pool = new KafkaProducerPool<>(kafkaTemplates,
+                ProducerPoolRouting.THREAD_AFFINITY);
+        Map<Integer, Set<Integer>> membersByThread = new ConcurrentHashMap<>();
+
+        CompletableFuture.allOf(IntStream.range(0, POOL_SIZE).mapToObj(thread -> CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 50; i++) {
+                membersByThread.computeIfAbsent(thread, t -> ConcurrentHashMap.newKeySet())
+                        .add(pool.indexFor(pool.record(TOPIC, (long) i, MODEL)));
+            }
+        }, runnable -> new Thread(runnable).start())).toArray(CompletableFuture<?>[]::new)).join();
+
+        assertThat(membersByThread.values()).allMatch(members -> members.size() == 1);
+        assertThat(membersByThread.values().stream().flatMap(Set::stream).collect(Collectors.toSet()))
+                .hasSize(POOL_SIZE);
+    }
+
+    @Test
+    void sendsEverythingThroughASingleMember() {
+        KafkaProducerPool<Long, TwitterAvroModel> pool = new KafkaProducerPool<>(templates(1),
+                ProducerPoolRouting.PARTITION_AFFINITY);
+
+        ProducerRecord<Long, TwitterAvroModel> record = pool.record(TOPIC, 7L, MODEL);
+
+        assertThat(record.partition()).isNull();
+        assertThat(pool.indexFor(record)).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<KafkaTemplate<Long, TwitterAvroModel>> templates(int size) {
+        List<KafkaTemplate<Long, TwitterAvroModel>> templates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = mock(KafkaTemplate.class);
+            when(kafkaTemplate.partitionsFor(TOPIC)).thenReturn(partitions(TOPIC, PARTITION_COUNT));
+            templates.add(kafkaTemplate);
+        }
+        return templates;
+    }
+
+    private static List<PartitionInfo> partitions(String topic, int count) {
+        Node[] replicas = { BROKER };
+        return IntStream.range(0, count)
+                .mapToObj(partition -> new PartitionInfo(topic, partition, BROKER, replicas, replicas))
+                .collect(Collectors.toList());
+    }
+
+    private static Cluster cluster(int partitionCount) {
+        return new Cluster("cluster", List.of(BROKER), partitions(TOPIC, partitionCount), Set.of(), Set.of());
+    }
+}
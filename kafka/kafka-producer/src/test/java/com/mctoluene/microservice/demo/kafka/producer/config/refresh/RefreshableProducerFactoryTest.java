@@ -0,0 +1,133 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.refresh;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+
+class RefreshableProducerFactoryTest {
+    private static final String TOPIC = "twitter-topic";
+    // KafkaTemplate always passes a callback, and the producers of DefaultKafkaProducerFactory rely on it
+    private static final Callback NO_CALLBACK = (metadata, exception) -> {
+    };
+
+    private final List<MockProducer<Long, String>> delegates = new CopyOnWriteArrayList<>();
+    private RefreshableProducerFactory<Long, String> factory;
+
+    @AfterEach
+    void tearDown() {
+        if (factory != null)
+            factory.destroy();
+    }
+
+    @Test
+    void closesThePreviousProducerOnlyOnceItsLeasesAreReturned() throws Exception {
+        factory = new RefreshableProducerFactory<>(() -> new MockProducerFactory(false), 10_000);
+        Producer<Long, String> leased = factory.createProducer();
+        leased.send(new ProducerRecord<>(TOPIC, 1L, "one"), NO_CALLBACK);
+
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(factory::refresh);
+        Producer<Long, String> next = factory.createProducer();
+        while (delegates.size() < 2) {
+            next.close();
+            Thread.yield();
+            next = factory.createProducer();
+        }
+        next.send(new ProducerRecord<>(TOPIC, 2L, "two"), NO_CALLBACK);
+        assertThat(delegates.get(1).history()).hasSize(1);
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(refresh).isNotDone();
+        assertThat(delegates.get(0).closed()).isFalse();
+
+        leased.close();
+        refresh.get(5, TimeUnit.SECONDS);
+        assertThat(delegates.get(0).closed()).isTrue();
+        assertThat(delegates.get(0).history()).hasSize(1);
+        assertThat(delegates.get(1).closed()).isFalse();
+        next.close();
+    }
+
+    @Test
+    void losesNoLeaseWhileSendersRaceTheSwaps() throws Exception {
+        factory = new RefreshableProducerFactory<>(() -> new MockProducerFactory(true), 10_000);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong sent = new AtomicLong();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> senders = List.of(sender(running, sent, failures),
+                sender(running, sent, failures), sender(running, sent, failures));
+
+        for (int swap = 0; swap < 20; swap++) {
+            long before = sent.get();
+            while (sent.get() < before + 50 && failures.isEmpty()) {
+                Thread.yield();
+            }
+            long start = System.nanoTime();
+            factory.refresh();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                    .as("a swap waits for no lease that was never returned").isLessThan(5_000);
+        }
+        running.set(false);
+        CompletableFuture.allOf(senders.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+        assertThat(failures).isEmpty();
+        // The last generation creates its producer on its first lease, which the senders may not have taken
+        assertThat(delegates).hasSizeBetween(20, 21);
+        assertThat(delegates.subList(0, 20)).allMatch(MockProducer::closed);
+        assertThat(delegates.stream().mapToLong(delegate -> delegate.history().size()).sum()).isEqualTo(sent.get());
+    }
+
+    // Sends the way KafkaTemplate does: one leased producer per send, closed once the record is acknowledged
+    private CompletableFuture<Void> sender(AtomicBoolean running, AtomicLong sent, List<Throwable> failures) {
+        return CompletableFuture.runAsync(() -> {
+            while (running.get()) {
+                try {
+                    Producer<Long, String> producer = factory.createProducer();
+                    try {
+                        producer.send(new ProducerRecord<>(TOPIC, 1L, "tweet"), NO_CALLBACK).get();
+                        sent.incrementAndGet();
+                    } finally {
+                        producer.close();
+                    }
+                } catch (Exception e) {
+                    failures.add(e);
+                    return;
+                }
+                Thread.yield();
+            }
+        });
+    }
+
+    private class MockProducerFactory extends DefaultKafkaProducerFactory<Long, String> {
+        private final boolean autoComplete;
+
+        private MockProducerFactory(boolean autoComplete) {
+            super(Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:19092"), new LongSerializer(),
+                    new StringSerializer());
+            this.autoComplete = autoComplete;
+        }
+
+        @Override
+        protected Producer<Long, String> createRawProducer(Map<String, Object> rawConfigs) {
+            MockProducer<Long, String> delegate = new MockProducer<>(autoComplete, new LongSerializer(),
+                    new StringSerializer());
+            delegates.add(delegate);
+            return delegate;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.serializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroSchemas;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+
+class SpecificAvroSerializerTest {
+    // Larger than the initial encoding buffer, so the thread-local buffer has to grow
+    private static final String LONG_TEXT = "Kafka ".repeat(400);
+
+    private final MockSchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient();
+    private final SchemaIdCache schemaIdCache = new SchemaIdCache();
+
+    @ParameterizedTest
+    @ValueSource(ints = { TwitterAvroSchemas.V1, TwitterAvroSchemas.V2, TwitterAvroSchemas.V3 })
+    void writesTheSameBytesAsKafkaAvroSerializer(int version) throws Exception {
+        String topic = register(version);
+        KafkaAvroSerializer stockSerializer = stockSerializer();
+        SpecificAvroSerializer<TwitterAvroModel> specificAvroSerializer = new SpecificAvroSerializer<>(schemaIdCache);
+
+        for (TwitterAvroModel model : List.of(model("short"), model(LONG_TEXT), model("after the buffer grew"),
+                tagged(model("Kafka and Java")))) {
+            assertThat(specificAvroSerializer.serialize(topic, model)).as(model.getText())
+                    .isEqualTo(stockSerializer.serialize(topic, model));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { TwitterAvroSchemas.V1 })
+    void writesNullTextAndCreatedAtLikeKafkaAvroSerializer(int version) throws Exception {
+        String topic = register(version);
+        KafkaAvroSerializer stockSerializer = stockSerializer();
+        SpecificAvroSerializer<TwitterAvroModel> specificAvroSerializer = new SpecificAvroSerializer<>(schemaIdCache);
+        TwitterAvroModel model = model(null);
+        model.setCreatedAt(null);
+
+        assertThat(specificAvroSerializer.serialize(topic, model)).isEqualTo(stockSerializer.serialize(topic, model));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { TwitterAvroSchemas.V2, TwitterAvroSchemas.V3 })
+    void refusesNullTextWhereTheSchemaRequiresIt(int version) throws Exception {
+        String topic = register(version);
+        KafkaAvroSerializer stockSerializer = stockSerializer();
+        SpecificAvroSerializer<TwitterAvroModel> specificAvroSerializer = new SpecificAvroSerializer<>(schemaIdCache);
+
+        assertThatThrownBy(() -> stockSerializer.serialize(topic, model(null)))
+                .isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> specificAvroSerializer.serialize(topic, model(null)))
+                .isInstanceOf(SerializationException.class);
+        assertThat(specificAvroSerializer.serialize(topic, model("still usable")))
+                .isEqualTo(stockSerializer.serialize(topic, model("still usable")));
+    }
+
+    // Registers the schema the model is written with in a version. For v1 that is the registered schema with
+    // createdAt annotated, which encodes the same but lets both serializers convert the model's Instant.
+    private String register(int version) throws Exception {
+        String topic = "twitter-topic-v" + version;
+        int schemaId = schemaRegistryClient.register(SchemaIdCache.valueSubject(topic),
+                new AvroSchema(TwitterAvroSchemas.writerSchema(version)));
+        schemaIdCache.put(topic, schemaId, TwitterAvroSchemas.writerSchema(version));
+        return topic;
+    }
+
+    // Writes with the latest registered schema of the subject, as the services do, not the model's own
+    private KafkaAvroSerializer stockSerializer() {
+        KafkaAvroSerializer stockSerializer = new KafkaAvroSerializer(schemaRegistryClient);
+        stockSerializer.configure(Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "mock://test",
+                AbstractKafkaSchemaSerDeConfig.AUTO_REGISTER_SCHEMAS, false,
+                AbstractKafkaSchemaSerDeConfig.USE_LATEST_VERSION, true,
+                AbstractKafkaSchemaSerDeConfig.LATEST_COMPATIBILITY_STRICT, false), false);
+        return stockSerializer;
+    }
+
+    private static TwitterAvroModel model(String text) {
+        TwitterAvroModel model = new TwitterAvroModel();
+        model.setUserId(1253678012598759424L);
+        model.setId(1557658329045606401L);
+        model.setText(text);
+        model.setCreatedAt(Instant.ofEpochMilli(1660212930000L));
+        model.setKeywords(List.of());
+        return model;
+    }
+
+    private static TwitterAvroModel tagged(TwitterAvroModel model) {
+        model.setKeyword("Kafka");
+        model.setKeywords(List.of("Kafka", "Java"));
+        model.setLang("en");
+        return model;
+    }
+}
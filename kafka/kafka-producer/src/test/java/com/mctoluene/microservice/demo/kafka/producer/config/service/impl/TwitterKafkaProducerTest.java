@@ -0,0 +1,94 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.MetricsConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.AimdRateLimiter;
+import com.mctoluene.microservice.demo.kafka.producer.config.guard.ProduceCircuitBreaker;
+import com.mctoluene.microservice.demo.kafka.producer.config.pool.KafkaProducerPool;
+import com.mctoluene.microservice.demo.kafka.producer.config.spill.KafkaSpillBuffer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TwitterKafkaProducerTest {
+    private static final String TOPIC = "twitter-topic";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaProducerPool<Long, TwitterAvroModel> kafkaProducerPool = mock(KafkaProducerPool.class);
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<Long, TwitterAvroModel> kafkaTemplate = mock(KafkaTemplate.class);
+    private final KafkaSpillBuffer kafkaSpillBuffer = mock(KafkaSpillBuffer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ManagedExecutors managedExecutors;
+    private TwitterKafkaProducer twitterKafkaProducer;
+
+    @BeforeEach
+    void setUp() {
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(false);
+        executorConfigData.setShutdownTimeoutMs(1000L);
+        managedExecutors = new ManagedExecutors(executorConfigData);
+        LogSamplingConfigData logSamplingConfigData = new LogSamplingConfigData();
+        logSamplingConfigData.setIntervalMs(1000L);
+        MetricsConfigData metricsConfigData = new MetricsConfigData();
+        metricsConfigData.setTimerSampleRate(1);
+        ProduceCircuitBreaker produceCircuitBreaker = mock(ProduceCircuitBreaker.class);
+        when(produceCircuitBreaker.tryAcquire(anyInt())).thenAnswer(invocation -> invocation.getArgument(0));
+        AimdRateLimiter aimdRateLimiter = mock(AimdRateLimiter.class);
+        when(aimdRateLimiter.tryAcquire(anyInt())).thenReturn(true);
+
+        ProducerRecord<Long, TwitterAvroModel> record = new ProducerRecord<>(TOPIC, 1L, new TwitterAvroModel());
+        when(kafkaProducerPool.record(any(), any(), any())).thenReturn(record);
+        when(kafkaProducerPool.templateFor(record)).thenReturn(kafkaTemplate);
+        when(kafkaTemplate.send(record)).thenThrow(new TimeoutException("Topic not present in metadata"));
+        twitterKafkaProducer = new TwitterKafkaProducer(kafkaProducerPool, managedExecutors, logSamplingConfigData,
+                metricsConfigData, meterRegistry, kafkaSpillBuffer, produceCircuitBreaker, aimdRateLimiter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        managedExecutors.shutDown();
+    }
+
+    @Test
+    void countsASynchronousFailureTheJournalRefused() {
+        when(kafkaSpillBuffer.spillFailed(any(), any(), any())).thenReturn(false);
+
+        assertThatThrownBy(() -> twitterKafkaProducer.send(TOPIC, 1L, new TwitterAvroModel()))
+                .isInstanceOf(TimeoutException.class);
+
+        assertThat(twitterKafkaProducer.getFailedCount()).isEqualTo(1);
+        assertThat(failureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void countsASynchronousFailureTheJournalTook() {
+        when(kafkaSpillBuffer.spillFailed(any(), any(), any())).thenReturn(true);
+
+        twitterKafkaProducer.send(TOPIC, 1L, new TwitterAvroModel());
+
+        assertThat(twitterKafkaProducer.getFailedCount()).isEqualTo(1);
+        assertThat(failureCount()).isEqualTo(1);
+    }
+
+    private double failureCount() {
+        return meterRegistry.get("kafka.producer.records").tag("topic", TOPIC).tag("result", "failure").counter()
+                .count();
+    }
+}
@@ -0,0 +1,211 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.spill;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroSchemas;
+import com.mctoluene.microservice.demo.kafka.producer.exception.KafkaProducerException;
+
+class SpillJournalTest {
+    private static final int SEGMENT_SIZE_BYTES = 4096;
+    private static final String TOPIC = "twitter-topic";
+
+    @TempDir
+    Path directory;
+
+    private SpillJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null)
+            journal.close();
+    }
+
+    @Test
+    void readsWithoutMovingTheCursorUntilCommitted() {
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        for (long id = 1; id <= 3; id++) {
+            assertThat(journal.append(TOPIC, id * 10, model(id))).isTrue();
+        }
+
+        List<SpilledRecord> first = journal.read(2);
+        assertThat(ids(first)).containsExactly(1L, 2L);
+        assertThat(ids(journal.read(2))).containsExactly(1L, 2L);
+        assertThat(first.get(1).getTopicName()).isEqualTo(TOPIC);
+        assertThat(first.get(1).getKey()).isEqualTo(20L);
+
+        journal.commit(first);
+
+        assertThat(journal.getPendingRecords()).isEqualTo(1);
+        assertThat(ids(journal.read(10))).containsExactly(3L);
+    }
+
+    @Test
+    void rotatesSegmentsAndDeletesTheOnesBehindTheCursor() {
+        journal = new SpillJournal(directory, 512);
+        for (long id = 1; id <= 20; id++) {
+            journal.append(TOPIC, id, model(id));
+        }
+        assertThat(journal.getSegmentCount()).isGreaterThan(1);
+        assertThat(journal.append(TOPIC, 0L, model(0, "x".repeat(1024)))).isFalse();
+
+        List<SpilledRecord> records = journal.read(100);
+        assertThat(ids(records)).hasSize(20).startsWith(1L).endsWith(20L);
+        journal.commit(records);
+
+        assertThat(journal.getSegmentCount()).isEqualTo(1);
+        assertThat(journal.getPendingRecords()).isZero();
+    }
+
+    @Test
+    void replaysWhatWasNotCommittedAfterReopening() {
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        for (long id = 1; id <= 3; id++) {
+            journal.append(TOPIC, id, model(id));
+        }
+        journal.commit(journal.read(1));
+        journal.close();
+
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+
+        assertThat(journal.getPendingRecords()).isEqualTo(2);
+        assertThat(ids(journal.read(10))).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void recoversFromATornTail() throws IOException {
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.append(TOPIC, 1L, model(1));
+        journal.append(TOPIC, 2L, model(2));
+        int end = journal.read(2).get(1).getEndPosition();
+        journal.close();
+        // a record whose length made it to disk but whose body did not
+        try (FileChannel channel = FileChannel.open(segmentPath(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(12).putInt(40).putInt(12345).putInt(7).flip(), end);
+        }
+
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.append(TOPIC, 3L, model(3));
+
+        assertThat(journal.getPendingRecords()).isEqualTo(3);
+        assertThat(ids(journal.read(10))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void readsRecordsOfAnOlderSchemaAfterRotatingToTheCurrentOne() throws IOException {
+        // a journal from before the schemas file, holding a v1 record
+        SpillSegment segment = SpillSegment.open(0, segmentPath(0), SEGMENT_SIZE_BYTES);
+        byte[] body = body(TOPIC, 1L, model(1), new SpecificDatumWriter<>(
+                TwitterAvroSchemas.writerSchema(TwitterAvroSchemas.V1)));
+        segment.append(body, body.length);
+        segment.force();
+        segment.close();
+
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.append(TOPIC, 2L, model(2));
+
+        assertThat(journal.getSegmentCount()).isEqualTo(2);
+        List<SpilledRecord> records = journal.read(10);
+        assertThat(ids(records)).containsExactly(1L, 2L);
+        assertThat(records.get(0).getValue().getText()).isEqualTo("tweet 1");
+        assertThat(records.get(0).getValue().getCreatedAt()).isEqualTo(Instant.ofEpochMilli(1000));
+
+        journal.commit(records);
+        journal.close();
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.append(TOPIC, 3L, model(3));
+        assertThat(journal.getSegmentCount()).isEqualTo(1);
+        assertThat(ids(journal.read(10))).containsExactly(3L);
+    }
+
+    @Test
+    void skipsARecordThatCannotBeDecoded() throws IOException {
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.append(TOPIC, 1L, model(1));
+        journal.close();
+        SpillSegment segment = SpillSegment.open(0, segmentPath(0), SEGMENT_SIZE_BYTES);
+        segment.recover();
+        // a valid checksum over a value that is not avro
+        byte[] body = body(TOPIC, 2L, new byte[] { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff });
+        segment.append(body, body.length);
+        segment.force();
+        segment.close();
+
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.append(TOPIC, 3L, model(3));
+        assertThat(journal.getPendingRecords()).isEqualTo(3);
+
+        List<SpilledRecord> records = journal.read(10);
+        assertThat(ids(records)).containsExactly(1L);
+        journal.commit(records);
+        records = journal.read(10);
+        assertThat(ids(records)).containsExactly(3L);
+        journal.commit(records);
+
+        assertThat(journal.getSkippedRecords()).isEqualTo(1);
+        assertThat(journal.getPendingRecords()).isZero();
+        assertThat(journal.read(10)).isEmpty();
+    }
+
+    @Test
+    void rejectsUseAfterClose() {
+        journal = new SpillJournal(directory, SEGMENT_SIZE_BYTES);
+        journal.close();
+
+        assertThatThrownBy(() -> journal.append(TOPIC, 1L, model(1))).isInstanceOf(KafkaProducerException.class);
+        assertThatThrownBy(() -> journal.read(1)).isInstanceOf(KafkaProducerException.class);
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("spill-%020d.log", index));
+    }
+
+    private static TwitterAvroModel model(long id) {
+        return model(id, "tweet " + id);
+    }
+
+    private static TwitterAvroModel model(long id, String text) {
+        return TwitterAvroModel.newBuilder().setId(id).setUserId(42).setText(text)
+                .setCreatedAt(Instant.ofEpochMilli(id * 1000)).build();
+    }
+
+    private static List<Long> ids(List<SpilledRecord> records) {
+        return records.stream().map(record -> record.getValue().getId()).toList();
+    }
+
+    private static byte[] body(String topic, Long key, TwitterAvroModel value,
+            SpecificDatumWriter<TwitterAvroModel> datumWriter) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(encoded, null);
+        datumWriter.write(value, encoder);
+        return body(topic, key, encoded.toByteArray());
+    }
+
+    private static byte[] body(String topic, Long key, byte[] value) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(body);
+        output.writeUTF(topic);
+        output.writeLong(key);
+        output.write(value);
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,156 @@
+package com.mctoluene.microservice.demo.kafka.producer.config.transaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.ProducerFencedException;
+import org.apache.kafka.common.serialization.LongSerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchedTransactionProducerTest {
+    private static final String TOPIC = "twitter-topic";
+
+    private final List<MockProducer<Long, String>> delegates = new ArrayList<>();
+    private final TransactionOutcomes transactionOutcomes = new TransactionOutcomes();
+    private BatchedTransactionProducer<Long, String> producer;
+
+    @AfterEach
+    void tearDown() {
+        if (producer != null)
+            producer.close();
+    }
+
+    @Test
+    void commitsWhenATransactionIsFull() throws Exception {
+        producer = producer(3, 60_000);
+
+        List<Future<RecordMetadata>> futures = send(2);
+        assertThat(futures).noneMatch(Future::isDone);
+        futures.addAll(send(1));
+
+        for (Future<RecordMetadata> future : futures) {
+            assertThat(future.get(1, TimeUnit.SECONDS).topic()).isEqualTo(TOPIC);
+        }
+        assertThat(delegate().transactionCommitted()).isTrue();
+        assertThat(delegate().history()).hasSize(3);
+        assertThat(transactionOutcomes.getCommittedCount()).isEqualTo(1);
+        assertThat(transactionOutcomes.getCommittedRecordCount()).isEqualTo(3);
+    }
+
+    @Test
+    void commitsAnExpiredTransactionFromTheCommitThread() throws Exception {
+        producer = producer(100, 50);
+
+        Future<RecordMetadata> future = send(1).get(0);
+
+        assertThat(future.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(transactionOutcomes.getCommittedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failsEveryRecordOfAnAbortedTransaction() throws Exception {
+        producer = producer(100, 60_000);
+        List<Exception> callbackFailures = new ArrayList<>();
+        KafkaException commitFailure = new KafkaException("commit failed");
+        delegates(1);
+        delegate().commitTransactionException = commitFailure;
+
+        Future<RecordMetadata> first = producer.send(new ProducerRecord<>(TOPIC, 1L, "one"),
+                (metadata, exception) -> callbackFailures.add(exception));
+        Future<RecordMetadata> second = send(1).get(0);
+        producer.flush();
+
+        assertThatThrownBy(first::get).isInstanceOf(ExecutionException.class).hasCause(commitFailure);
+        assertThatThrownBy(second::get).isInstanceOf(ExecutionException.class).hasCause(commitFailure);
+        assertThat(callbackFailures).containsExactly(commitFailure);
+        assertThat(delegate().transactionAborted()).isTrue();
+        assertThat(transactionOutcomes.getAbortedCount()).isEqualTo(1);
+
+        delegate().commitTransactionException = null;
+        Future<RecordMetadata> retried = send(1).get(0);
+        producer.flush();
+        assertThat(retried.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(delegates).as("an aborted transaction keeps its producer").hasSize(1);
+    }
+
+    @Test
+    void replacesAFencedProducer() throws Exception {
+        producer = producer(100, 60_000);
+        delegates(1);
+        delegate().commitTransactionException = new ProducerFencedException("fenced");
+
+        Future<RecordMetadata> fenced = send(1).get(0);
+        producer.flush();
+
+        assertThatThrownBy(fenced::get).hasCauseInstanceOf(ProducerFencedException.class);
+        assertThat(delegate().closed()).isTrue();
+
+        Future<RecordMetadata> next = send(1).get(0);
+        producer.flush();
+        assertThat(next.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(delegates).hasSize(2);
+        assertThat(delegate().transactionCommitted()).isTrue();
+    }
+
+    @Test
+    void commitsTheOpenTransactionOnClose() throws Exception {
+        producer = producer(100, 60_000);
+        Future<RecordMetadata> future = send(1).get(0);
+
+        producer.close();
+
+        assertThat(future.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(delegate().closed()).isTrue();
+        assertThatThrownBy(() -> send(1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void managesTransactionsItself() {
+        producer = producer(100, 60_000);
+
+        assertThatThrownBy(producer::beginTransaction).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(producer::commitTransaction).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(producer::abortTransaction).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private BatchedTransactionProducer<Long, String> producer(int maxRecords, long maxMs) {
+        return new BatchedTransactionProducer<>(() -> {
+            MockProducer<Long, String> delegate = new MockProducer<>(true, new LongSerializer(),
+                    new StringSerializer());
+            delegate.initTransactions();
+            delegates.add(delegate);
+            return delegate;
+        }, maxRecords, maxMs, Executors.newSingleThreadExecutor(), transactionOutcomes);
+    }
+
+    // Creates the delegate up front, so a test can set it up before the first send
+    private void delegates(int expected) {
+        producer.partitionsFor(TOPIC);
+        assertThat(delegates).hasSize(expected);
+    }
+
+    private MockProducer<Long, String> delegate() {
+        return delegates.get(delegates.size() - 1);
+    }
+
+    private List<Future<RecordMetadata>> send(int records) {
+        List<Future<RecordMetadata>> futures = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            futures.add(producer.send(new ProducerRecord<>(TOPIC, (long) i, "tweet " + i)));
+        }
+        return futures;
+    }
+}
@@ -1,35 +1,78 @@
 package com.mctoluene.microservice.demo.twitter.to.kafka.service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.ComponentScan;
 
+import com.mctoluene.microservice.demo.config.FastStartConfigData;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
 import com.mctoluene.microservice.demo.twitter.to.kafka.service.init.StreamInitializer;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.queue.StatusDispatcher;
 import com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.StreamRunner;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.mctoluene.microservice.demo")
 public class TwitterToKafkaServiceApplication implements CommandLineRunner {
     private static final Logger LOG = LoggerFactory.getLogger(TwitterToKafkaServiceApplication.class);
+    private static final int STARTUP_STEP_CAPACITY = 4096;
     private final StreamRunner streamRunner;
     private final StreamInitializer streamInitializer;
+    private final StatusDispatcher statusDispatcher;
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+    private final FastStartConfigData fastStartConfigData;
 
-    public TwitterToKafkaServiceApplication(StreamRunner runner, StreamInitializer initializer) {
+    public TwitterToKafkaServiceApplication(StreamRunner runner, StreamInitializer initializer,
+            StatusDispatcher dispatcher, TwitterToKafkaServiceConfigData configData,
+            FastStartConfigData fastStartConfigData) {
         this.streamRunner = runner;
         this.streamInitializer = initializer;
+        this.statusDispatcher = dispatcher;
+        this.twitterToKafkaServiceConfigData = configData;
+        this.fastStartConfigData = fastStartConfigData;
     }
 
     public static void main(String[] args) {
-        SpringApplication.run(TwitterToKafkaServiceApplication.class, args);
+        SpringApplication application = new SpringApplication(TwitterToKafkaServiceApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+        ConfigurableApplicationContext context = application.run(args);
+        // A training run for the class-data-sharing archive stops once the context is up, dumping it on exit
+        if (Boolean.TRUE.equals(context.getBean(FastStartConfigData.class).getTrainingRun()))
+            System.exit(SpringApplication.exit(context));
     }
 
     @Override
     public void run(String... args) throws Exception {
+        if (Boolean.TRUE.equals(fastStartConfigData.getTrainingRun())) {
+            LOG.info("Training run, not starting the stream");
+            return;
+        }
         LOG.info("Application running...");
-        streamInitializer.init();
-        streamRunner.start();
+        CompletableFuture<Void> initialized = streamInitializer.init();
+        if (Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getBufferWhileInitializing())
+                && statusDispatcher.holdUntil(initialized)) {
+            streamRunner.start();
+            awaitInitialized(initialized);
+        } else {
+            awaitInitialized(initialized);
+            streamRunner.start();
+        }
+    }
+
+    private void awaitInitialized(CompletableFuture<Void> initialized) {
+        try {
+            initialized.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
     }
 }
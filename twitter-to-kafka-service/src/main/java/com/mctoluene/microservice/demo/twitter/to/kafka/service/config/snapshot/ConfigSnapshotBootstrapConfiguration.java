@@ -0,0 +1,36 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.config.snapshot;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+
+import com.mctoluene.microservice.demo.config.ConfigSnapshotConfigData;
+
+/**
+ * Registered in META-INF/spring.factories for the bootstrap context only, and ordered ahead of the config client's
+ * own bootstrap configuration so its locator is the one used. Not a @Configuration, which would let the main
+ * context's component scan pick it up too. The snapshot holds whatever the server sent in plain text, so it is
+ * only written when config-snapshot-config.enabled is set to true.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "spring.cloud.config.enabled", matchIfMissing = true)
+public class ConfigSnapshotBootstrapConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "config-snapshot-config.enabled", havingValue = "true")
+    public SnapshotConfigServicePropertySourceLocator snapshotConfigServicePropertySource(
+            ConfigClientProperties configClientProperties, Environment environment) {
+        ConfigSnapshotConfigData configSnapshotConfigData = Binder.get(environment)
+                .bind("config-snapshot-config", ConfigSnapshotConfigData.class)
+                .orElseGet(ConfigSnapshotConfigData::new);
+        return new SnapshotConfigServicePropertySourceLocator(configClientProperties,
+                new ConfigSnapshotStore(Path.of(configSnapshotConfigData.getPath())),
+                configSnapshotConfigData.getMaxAgeMs());
+    }
+}
@@ -0,0 +1,73 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.config.snapshot;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.config.snapshot.SnapshotConfigServicePropertySourceLocator.LocateSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Once the application is ready after starting from the config snapshot, refreshes the context in the background,
+ * which fetches from the config server, replaces the snapshot and rebinds whatever changed meanwhile. Exposes how
+ * long the configuration took to locate as config.client.locate.time, tagged with where it came from, to compare
+ * with application.ready.time.
+ */
+@Component
+public class ConfigSnapshotRevalidator implements ApplicationListener<ApplicationReadyEvent>, MeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigSnapshotRevalidator.class);
+
+    private final ObjectProvider<SnapshotConfigServicePropertySourceLocator> locatorProvider;
+    private final ObjectProvider<ContextRefresher> contextRefresherProvider;
+    private final ManagedExecutors managedExecutors;
+
+    public ConfigSnapshotRevalidator(ObjectProvider<SnapshotConfigServicePropertySourceLocator> locatorProvider,
+            ObjectProvider<ContextRefresher> contextRefresherProvider, ManagedExecutors managedExecutors) {
+        this.locatorProvider = locatorProvider;
+        this.contextRefresherProvider = contextRefresherProvider;
+        this.managedExecutors = managedExecutors;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        SnapshotConfigServicePropertySourceLocator locator = locatorProvider.getIfAvailable();
+        ContextRefresher contextRefresher = contextRefresherProvider.getIfAvailable();
+        if (locator == null || contextRefresher == null || locator.getLocateSource() == LocateSource.CONFIG_SERVER)
+            return;
+        managedExecutors.newExecutor("config-snapshot-revalidation").execute(() -> revalidate(contextRefresher));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        SnapshotConfigServicePropertySourceLocator locator = locatorProvider.getIfAvailable();
+        if (locator == null || locator.getLocateSource() == null)
+            return;
+        Gauge.builder("config.client.locate.time", locator, SnapshotConfigServicePropertySourceLocator::getLocateMs)
+                .description("Time taken to locate the configuration at startup")
+                .baseUnit("milliseconds")
+                .tag("source", locator.getLocateSource().name().toLowerCase())
+                .register(registry);
+    }
+
+    private void revalidate(ContextRefresher contextRefresher) {
+        long start = System.nanoTime();
+        try {
+            Set<String> changedKeys = contextRefresher.refresh();
+            LOG.info("Revalidated the config snapshot against the config server in {} ms, {} key(s) changed: {}",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), changedKeys.size(), changedKeys);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not revalidate the config snapshot, running on it until the next refresh", e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.config.snapshot;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.CompositePropertySource;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the last property sources fetched from the config server in one JSON file, together with the
+ * application, profile and label they were fetched for. Values are stored as the server sent them, so ENC(...)
+ * values stay encrypted and are decrypted by jasypt when read, as they are when fetched; the file is still only
+ * readable by its owner, since the server may have decrypted {cipher} values.
+ */
+public class ConfigSnapshotStore {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigSnapshotStore.class);
+    private static final TypeReference<Map<String, Object>> SNAPSHOT_TYPE = new TypeReference<>() {
+    };
+
+    private final Path path;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ConfigSnapshotStore(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Returns the snapshot taken for the key if it is no older than maxAgeMs, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public CompositePropertySource load(String key, long maxAgeMs) {
+        if (!Files.exists(path))
+            return null;
+        try {
+            Map<String, Object> snapshot = objectMapper.readValue(path.toFile(), SNAPSHOT_TYPE);
+            if (!key.equals(snapshot.get("key")))
+                return null;
+            long ageMs = System.currentTimeMillis() - ((Number) snapshot.get("savedAtMs")).longValue();
+            if (ageMs > maxAgeMs)
+                return null;
+            CompositePropertySource propertySource = new CompositePropertySource(
+                    (String) snapshot.get("name"));
+            for (Map<String, Object> source : (List<Map<String, Object>>) snapshot.get("propertySources")) {
+                propertySource.addPropertySource(new MapPropertySource((String) source.get("name"),
+                        (Map<String, Object>) source.get("properties")));
+            }
+            LOG.info("Read config snapshot {} taken {} ms ago", path, ageMs);
+            return propertySource;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Ignoring unreadable config snapshot {}", path, e);
+            return null;
+        }
+    }
+
+    public void save(String key, PropertySource<?> located) {
+        List<Map<String, Object>> propertySources = new ArrayList<>();
+        List<PropertySource<?>> sources = located instanceof CompositePropertySource
+                ? new ArrayList<>(((CompositePropertySource) located).getPropertySources())
+                : List.of(located);
+        for (PropertySource<?> source : sources) {
+            if (!(source instanceof EnumerablePropertySource))
+                continue;
+            EnumerablePropertySource<?> enumerable = (EnumerablePropertySource<?>) source;
+            Map<String, Object> properties = new LinkedHashMap<>();
+            for (String name : enumerable.getPropertyNames()) {
+                Object value = enumerable.getProperty(name);
+                properties.put(name, value == null ? null : value.toString());
+            }
+            propertySources.add(Map.of("name", source.getName(), "properties", properties));
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("key", key);
+        snapshot.put("name", located.getName());
+        snapshot.put("savedAtMs", System.currentTimeMillis());
+        snapshot.put("propertySources", propertySources);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.deleteIfExists(temporary);
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix"))
+                Files.createFile(temporary,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            objectMapper.writeValue(temporary.toFile(), snapshot);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Could not save config snapshot {}", path, e);
+        }
+    }
+}
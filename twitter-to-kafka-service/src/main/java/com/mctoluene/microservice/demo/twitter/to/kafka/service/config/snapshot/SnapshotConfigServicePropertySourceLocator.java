@@ -0,0 +1,89 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.config.snapshot;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * Locates the configuration from the last snapshot on the first fetch of the process, when one was taken for the
+ * same application, profile and label within max-age-ms, so startup does not wait on the config server. Every
+ * other fetch, including the ones a refresh makes, goes to the config server and replaces the snapshot; if the
+ * server cannot be reached the snapshot is used whatever its age, and only without one does the fetch fail.
+ */
+public class SnapshotConfigServicePropertySourceLocator extends ConfigServicePropertySourceLocator {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotConfigServicePropertySourceLocator.class);
+    // A refresh builds a new bootstrap context, and with it a new locator
+    private static final AtomicBoolean FIRST_LOCATE = new AtomicBoolean(true);
+
+    public enum LocateSource {
+        SNAPSHOT, CONFIG_SERVER, SNAPSHOT_FALLBACK
+    }
+
+    private final ConfigClientProperties defaultProperties;
+    private final ConfigSnapshotStore configSnapshotStore;
+    private final long maxAgeMs;
+    private volatile LocateSource locateSource;
+    private volatile long locateMs;
+
+    public SnapshotConfigServicePropertySourceLocator(ConfigClientProperties defaultProperties,
+            ConfigSnapshotStore configSnapshotStore, long maxAgeMs) {
+        super(defaultProperties);
+        this.defaultProperties = defaultProperties;
+        this.configSnapshotStore = configSnapshotStore;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    @Override
+    public PropertySource<?> locate(Environment environment) {
+        long start = System.nanoTime();
+        ConfigClientProperties properties = defaultProperties.override(environment);
+        String key = String.join(":", properties.getName(), properties.getProfile(),
+                String.valueOf(properties.getLabel()));
+        if (FIRST_LOCATE.getAndSet(false)) {
+            PropertySource<?> snapshot = configSnapshotStore.load(key, maxAgeMs);
+            if (snapshot != null)
+                return located(snapshot, LocateSource.SNAPSHOT, start);
+        }
+        PropertySource<?> located;
+        try {
+            located = super.locate(environment);
+        } catch (RuntimeException e) {
+            PropertySource<?> snapshot = configSnapshotStore.load(key, Long.MAX_VALUE);
+            if (snapshot == null)
+                throw e;
+            LOG.warn("Could not fetch the configuration from the config server, using the last snapshot", e);
+            return located(snapshot, LocateSource.SNAPSHOT_FALLBACK, start);
+        }
+        if (located == null) {
+            PropertySource<?> snapshot = configSnapshotStore.load(key, Long.MAX_VALUE);
+            if (snapshot != null) {
+                LOG.warn("Config server returned no configuration, using the last snapshot");
+                return located(snapshot, LocateSource.SNAPSHOT_FALLBACK, start);
+            }
+            return null;
+        }
+        configSnapshotStore.save(key, located);
+        return located(located, LocateSource.CONFIG_SERVER, start);
+    }
+
+    public LocateSource getLocateSource() {
+        return locateSource;
+    }
+
+    public long getLocateMs() {
+        return locateMs;
+    }
+
+    private PropertySource<?> located(PropertySource<?> propertySource, LocateSource source, long start) {
+        locateSource = source;
+        locateMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        LOG.info("Located configuration from {} in {} ms", source, locateMs);
+        return propertySource;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.config.startup;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.config.FastStartConfigData;
+
+/**
+ * In fast-start mode, marks the beans listed in lazy-beans as lazy, so the admin client, the web client and the
+ * admin checks built on them are created when the stream initializer first asks for them, off the main thread,
+ * instead of holding up the context refresh. Runs before the configuration properties are bound, so it binds
+ * fast-start-config itself.
+ */
+@Component
+public class LazyBeansPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+    private static final Logger LOG = LoggerFactory.getLogger(LazyBeansPostProcessor.class);
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        FastStartConfigData fastStartConfigData = Binder.get(environment)
+                .bind("fast-start-config", FastStartConfigData.class)
+                .orElseGet(FastStartConfigData::new);
+        if (!Boolean.TRUE.equals(fastStartConfigData.getEnabled()) || fastStartConfigData.getLazyBeans() == null)
+            return;
+        List<String> lazyBeans = fastStartConfigData.getLazyBeans().stream()
+                .filter(beanFactory::containsBeanDefinition)
+                .toList();
+        lazyBeans.forEach(beanName -> beanFactory.getBeanDefinition(beanName).setLazyInit(true));
+        LOG.info("Fast start, creating {} on first use", lazyBeans);
+    }
+}
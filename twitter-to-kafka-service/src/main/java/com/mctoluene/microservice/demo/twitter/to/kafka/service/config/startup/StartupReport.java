@@ -0,0 +1,69 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.config.startup;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.config.FastStartConfigData;
+
+/**
+ * Logs the startup steps, bean instantiations and context phases, that took the longest on their own, not
+ * counting the steps nested in them. The full timeline is served by the actuator startup endpoint, and
+ * application.started.time and application.ready.time have the totals.
+ */
+@Component
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+    private static final Logger LOG = LoggerFactory.getLogger(StartupReport.class);
+
+    private final FastStartConfigData fastStartConfigData;
+
+    public StartupReport(FastStartConfigData fastStartConfigData) {
+        this.fastStartConfigData = fastStartConfigData;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup))
+            return;
+        List<TimelineEvent> timeline = ((BufferingApplicationStartup) event.getApplicationContext()
+                .getApplicationStartup()).getBufferedTimeline().getEvents();
+        Map<Long, Duration> selfDurations = new HashMap<>();
+        for (TimelineEvent timelineEvent : timeline) {
+            selfDurations.merge(timelineEvent.getStartupStep().getId(), timelineEvent.getDuration(), Duration::plus);
+            Long parentId = timelineEvent.getStartupStep().getParentId();
+            if (parentId != null)
+                selfDurations.merge(parentId, timelineEvent.getDuration().negated(), Duration::plus);
+        }
+        String slowestSteps = timeline.stream()
+                .sorted(Comparator.comparing(
+                        (TimelineEvent timelineEvent) -> selfDurations.get(timelineEvent.getStartupStep().getId()))
+                        .reversed())
+                .limit(fastStartConfigData.getReportSlowestSteps())
+                .map(timelineEvent -> describe(timelineEvent.getStartupStep()) + " "
+                        + selfDurations.get(timelineEvent.getStartupStep().getId()).toMillis() + " ms")
+                .collect(Collectors.joining(", "));
+        LOG.info("Ready in {} ms, slowest startup steps: {}", event.getTimeTaken() == null ? -1
+                : event.getTimeTaken().toMillis(), slowestSteps);
+    }
+
+    private static String describe(StartupStep startupStep) {
+        String tags = StreamSupport.stream(startupStep.getTags().spliterator(), false)
+                .filter(tag -> "beanName".equals(tag.getKey()))
+                .map(StartupStep.Tag::getValue)
+                .collect(Collectors.joining());
+        return tags.isEmpty() ? startupStep.getName() : startupStep.getName() + "(" + tags + ")";
+    }
+}
@@ -0,0 +1,78 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs with linear probing, sized once and never resized. Zero marks a
+ * free slot, so an id of zero is tracked with a flag instead. Not thread safe.
+ */
+final class LongIdSet {
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private final long[] slots;
+    private final int mask;
+    private final int shift;
+    private boolean containsZero;
+    private int size;
+
+    LongIdSet(int capacity) {
+        int slotCount = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.slots = new long[slotCount];
+        this.mask = slotCount - 1;
+        this.shift = Long.numberOfLeadingZeros(slotCount - 1L);
+    }
+
+    boolean contains(long id) {
+        if (id == 0)
+            return containsZero;
+        for (int slot = slot(id);; slot = (slot + 1) & mask) {
+            long current = slots[slot];
+            if (current == id)
+                return true;
+            if (current == 0)
+                return false;
+        }
+    }
+
+    /**
+     * Adds the id unless present and returns whether it was added. The caller keeps the size below the
+     * capacity, so probing always finds a free slot.
+     */
+    boolean add(long id) {
+        if (id == 0) {
+            if (containsZero)
+                return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        for (int slot = slot(id);; slot = (slot + 1) & mask) {
+            long current = slots[slot];
+            if (current == id)
+                return false;
+            if (current == 0) {
+                slots[slot] = id;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int slotCount() {
+        return slots.length;
+    }
+
+    void clear() {
+        Arrays.fill(slots, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    private int slot(long id) {
+        return (int) ((id * MIX) >>> shift);
+    }
+}
@@ -0,0 +1,151 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.config.DeduplicationConfigData;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Remembers recently seen tweet ids so that a status delivered twice, after a reconnect or through two keyword
+ * streams, is only produced once. Ids are kept in lock-striped pairs of generations: new ids go to the current
+ * generation, and when it has been filling for half the TTL or reaches its share of max-entries, the previous
+ * generation is evicted and the current one takes its place. An id is therefore remembered for between half the
+ * TTL and the TTL, and memory stays fixed at 16 to 32 bytes per max-entries.
+ */
+@Component
+public class StatusDeduplicator implements MeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusDeduplicator.class);
+    private static final int STRIPE_COUNT = 16;
+    // Not the multiplier LongIdSet probes with, so the ids of one stripe still spread over all of its slots
+    private static final long STRIPE_MIX = 0xC2B2AE3D27D4EB4FL;
+
+    private final DeduplicationConfigData deduplicationConfigData;
+    private final Stripe[] stripes;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public StatusDeduplicator(DeduplicationConfigData deduplicationConfigData) {
+        this.deduplicationConfigData = deduplicationConfigData;
+        if (!isEnabled()) {
+            this.stripes = null;
+            return;
+        }
+        int generationEntries = Math.max(1, deduplicationConfigData.getMaxEntries() / STRIPE_COUNT / 2);
+        long generationMs = Math.max(1, deduplicationConfigData.getTtlMs() / 2);
+        this.stripes = new Stripe[STRIPE_COUNT];
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe(generationEntries, generationMs);
+        }
+        LOG.info("Deduplicating status ids for up to {} ms, bounded to {} id(s)", deduplicationConfigData.getTtlMs(),
+                deduplicationConfigData.getMaxEntries());
+    }
+
+    /**
+     * Returns true the first time an id is seen within the TTL and records it, false for a duplicate.
+     */
+    public boolean firstSeen(long id) {
+        if (stripes == null)
+            return true;
+        Stripe stripe = stripes[(int) ((id * STRIPE_MIX) >>> 60)];
+        boolean firstSeen;
+        synchronized (stripe) {
+            firstSeen = stripe.add(id, System.currentTimeMillis());
+        }
+        if (firstSeen)
+            missCount.increment();
+        else
+            hitCount.increment();
+        return firstSeen;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(deduplicationConfigData.getEnabled());
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getSize() {
+        if (stripes == null)
+            return 0;
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.current.size() + stripe.previous.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("twitter.status.dedup.hits", this, StatusDeduplicator::getHitCount)
+                .description("Statuses dropped as duplicates")
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dedup.misses", this, StatusDeduplicator::getMissCount)
+                .description("Statuses seen for the first time")
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dedup.evictions", this, StatusDeduplicator::getEvictionCount)
+                .description("Status ids forgotten because their generation expired or the cache was full")
+                .register(registry);
+        Gauge.builder("twitter.status.dedup.size", this, StatusDeduplicator::getSize)
+                .description("Status ids currently remembered")
+                .register(registry);
+    }
+
+    private final class Stripe {
+        private final int generationEntries;
+        private final long generationMs;
+        private LongIdSet current;
+        private LongIdSet previous;
+        private long generationStartMs = System.currentTimeMillis();
+
+        private Stripe(int generationEntries, long generationMs) {
+            this.generationEntries = generationEntries;
+            this.generationMs = generationMs;
+            this.current = new LongIdSet(generationEntries * 2);
+            this.previous = new LongIdSet(generationEntries * 2);
+        }
+
+        private boolean add(long id, long nowMs) {
+            long elapsedMs = nowMs - generationStartMs;
+            if (elapsedMs >= generationMs) {
+                rotate(nowMs);
+                if (elapsedMs >= generationMs * 2)
+                    rotate(nowMs);
+            }
+            if (current.contains(id) || previous.contains(id))
+                return false;
+            if (current.size() >= generationEntries)
+                rotate(nowMs);
+            return current.add(id);
+        }
+
+        private void rotate(long nowMs) {
+            evictionCount.add(previous.size());
+            LongIdSet evicted = previous;
+            evicted.clear();
+            previous = current;
+            current = evicted;
+            generationStartMs = nowMs;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.mctoluene.microservice.demo.twitter.to.kafka.service.init;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface StreamInitializer {
-    void init();
+    CompletableFuture<Void> init();
 }
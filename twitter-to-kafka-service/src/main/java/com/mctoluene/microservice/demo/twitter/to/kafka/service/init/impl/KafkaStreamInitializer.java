@@ -1,30 +1,117 @@
 package com.mctoluene.microservice.demo.twitter.to.kafka.service.init.impl;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
 import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
 import com.mctoluene.microservice.demo.kafka.admin.client.KafkaAdminClient;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroSchemas;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
 import com.mctoluene.microservice.demo.twitter.to.kafka.service.init.StreamInitializer;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword.KeywordTopicRouter;
 
+/**
+ * Creates and verifies the topics while, independently, waiting for the schema registry, checking that the
+ * configured version of the value schema is compatible with the subject of each topic and registering it. The
+ * topics are topic-name, topic-names-to-create and every topic a keyword is routed to, and initialization fails if
+ * a routed topic is left without a schema id, as the serializer could not encode its records. The two run in
+ * parallel under one deadline, and the returned future fails as soon as either of them does. The admin client is
+ * looked up on an executor, so when fast start has made it lazy, creating it does not hold up the caller.
+ */
 @Component
 public class KafkaStreamInitializer implements StreamInitializer {
     private static final Logger LOG = LoggerFactory.getLogger(KafkaStreamInitializer.class);
     private final KafkaConfigData kafkaConfigData;
-    private final KafkaAdminClient kafkaAdminClient;
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+    private final ObjectProvider<KafkaAdminClient> kafkaAdminClientProvider;
+    private final SchemaIdCache schemaIdCache;
+    private final KeywordTopicRouter keywordTopicRouter;
+    private final Executor initExecutor;
 
-    public KafkaStreamInitializer(KafkaConfigData kafkaConfigData, KafkaAdminClient kafkaAdminClient) {
+    public KafkaStreamInitializer(KafkaConfigData kafkaConfigData,
+            TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData,
+            ObjectProvider<KafkaAdminClient> kafkaAdminClientProvider, SchemaIdCache schemaIdCache,
+            KeywordTopicRouter keywordTopicRouter, ManagedExecutors managedExecutors) {
         this.kafkaConfigData = kafkaConfigData;
-        this.kafkaAdminClient = kafkaAdminClient;
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+        this.kafkaAdminClientProvider = kafkaAdminClientProvider;
+        this.schemaIdCache = schemaIdCache;
+        this.keywordTopicRouter = keywordTopicRouter;
+        this.initExecutor = managedExecutors.newExecutor("stream-initializer");
     }
 
     @Override
-    public void init() {
-        kafkaAdminClient.createTopic();
-        kafkaAdminClient.checkSchemaRegistry();
-        LOG.info("Topics with the name {} is ready for operations!", kafkaConfigData.getTopicNamesToCreate().toArray());
+    public CompletableFuture<Void> init() {
+        long startNanos = System.nanoTime();
+        return CompletableFuture.supplyAsync(kafkaAdminClientProvider::getObject, initExecutor)
+                .thenCompose(this::createTopicsAndRegisterSchema)
+                .orTimeout(twitterToKafkaServiceConfigData.getInitTimeoutMs(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, e) -> {
+                    if (e == null)
+                        LOG.info("Topics with the name {} is ready for operations in {} ms!",
+                                kafkaConfigData.getTopicNamesToCreate().toArray(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                });
+    }
+
+    private CompletableFuture<Void> createTopicsAndRegisterSchema(KafkaAdminClient kafkaAdminClient) {
+        CompletableFuture<?> topics = kafkaAdminClient.createTopicAsync();
+        Set<String> topicNames = new LinkedHashSet<>();
+        topicNames.add(kafkaConfigData.getTopicName());
+        if (kafkaConfigData.getTopicNamesToCreate() != null)
+            topicNames.addAll(kafkaConfigData.getTopicNamesToCreate());
+        topicNames.addAll(keywordTopicRouter.getTopics());
+        CompletableFuture<Void> schema = kafkaAdminClient.checkSchemaRegistryAsync()
+                .thenCompose(ready -> CompletableFuture.allOf(topicNames.stream()
+                        .map(topicName -> registerSchema(kafkaAdminClient, topicName))
+                        .toArray(CompletableFuture<?>[]::new)))
+                .thenRun(this::checkRoutedTopicSchemas);
+        CompletableFuture<Void> initialized = CompletableFuture.allOf(topics, schema);
+        failFast(topics, initialized);
+        failFast(schema, initialized);
+        return initialized;
+    }
 
+    private CompletableFuture<Void> registerSchema(KafkaAdminClient kafkaAdminClient, String topicName) {
+        int schemaVersion = kafkaConfigData.getValueSchemaVersion();
+        String subject = SchemaIdCache.valueSubject(topicName);
+        String valueSchema = TwitterAvroSchemas.schema(schemaVersion).toString();
+        return kafkaAdminClient.checkSchemaCompatibilityAsync(subject, valueSchema)
+                .thenCompose(compatible -> {
+                    if (!compatible)
+                        throw new TwitterToKafkaServiceException("Value schema v" + schemaVersion
+                                + " is not compatible with the latest schema of subject " + subject
+                                + " at its compatibility level! Moving a subject from v1 to v2 or v3 needs forward "
+                                + "compatibility.");
+                    return kafkaAdminClient.registerSchemaAsync(subject, valueSchema);
+                })
+                .thenAccept(schemaId -> schemaIdCache.put(topicName, schemaId,
+                        TwitterAvroSchemas.writerSchema(schemaVersion)));
     }
 
+    private void checkRoutedTopicSchemas() {
+        for (String topicName : keywordTopicRouter.getTopics()) {
+            if (schemaIdCache.get(topicName) == null)
+                throw new TwitterToKafkaServiceException("No value schema id for routed topic " + topicName
+                        + ", its records could not be serialized!");
+        }
+    }
+
+    private static void failFast(CompletableFuture<?> step, CompletableFuture<Void> initialized) {
+        step.whenComplete((result, e) -> {
+            if (e != null)
+                initialized.completeExceptionally(e);
+        });
+    }
 }
@@ -0,0 +1,164 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords, finding every keyword that occurs anywhere in a text in one
+ * pass, ignoring case the way String.regionMatches(true, ...) does. Every char is mapped up front to the class of
+ * its case-folded form, and the chars that appear in no keyword share one class, so the transition table has a
+ * column per distinct keyword character only. The failure links are folded into the table, which holds row offsets
+ * instead of state numbers, negated when the target state completes a keyword: each text character costs two array
+ * lookups and a sign test. Immutable once built, so safe to share.
+ */
+public final class AhoCorasickMatcher {
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final int keywordCount;
+    private final char[] charClasses = new char[Character.MAX_VALUE + 1];
+    private final int classCount;
+    private final int[] transitions;
+    private final int[][] matchesByState;
+
+    public AhoCorasickMatcher(List<String> keywords) {
+        this.keywordCount = keywords.size();
+        char[] foldedClasses = new char[Character.MAX_VALUE + 1];
+        char classes = 1;
+        for (String keyword : keywords) {
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = fold(keyword.charAt(i));
+                if (foldedClasses[c] == 0)
+                    foldedClasses[c] = classes++;
+            }
+        }
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            charClasses[c] = foldedClasses[fold((char) c)];
+        }
+        this.classCount = classes;
+
+        List<int[]> trie = new ArrayList<>();
+        List<int[]> trieMatches = new ArrayList<>();
+        trie.add(newState());
+        trieMatches.add(NO_MATCHES);
+        for (int index = 0; index < keywordCount; index++) {
+            String keyword = keywords.get(index);
+            if (keyword.isEmpty())
+                continue;
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                int cls = charClasses[keyword.charAt(i)];
+                if (trie.get(state)[cls] < 0) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(newState());
+                    trieMatches.add(NO_MATCHES);
+                }
+                state = trie.get(state)[cls];
+            }
+            trieMatches.set(state, append(trieMatches.get(state), index));
+        }
+
+        int stateCount = trie.size();
+        this.transitions = new int[stateCount * classCount];
+        this.matchesByState = new int[stateCount][];
+        int[] failures = new int[stateCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < classCount; cls++) {
+            int next = trie.get(0)[cls];
+            transitions[cls] = next < 0 ? 0 : next;
+            if (next > 0)
+                queue.add(next);
+        }
+        matchesByState[0] = NO_MATCHES;
+        // Breadth first, so the failure state of every state is complete before its children are reached
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            matchesByState[state] = merge(trieMatches.get(state), matchesByState[failures[state]]);
+            for (int cls = 0; cls < classCount; cls++) {
+                int next = trie.get(state)[cls];
+                int viaFailure = transitions[failures[state] * classCount + cls];
+                if (next < 0) {
+                    transitions[state * classCount + cls] = viaFailure;
+                } else {
+                    transitions[state * classCount + cls] = next;
+                    failures[next] = viaFailure;
+                    queue.add(next);
+                }
+            }
+        }
+        for (int i = 0; i < transitions.length; i++) {
+            int offset = transitions[i] * classCount;
+            transitions[i] = matchesByState[transitions[i]].length == 0 ? offset : ~offset;
+        }
+    }
+
+    public int keywordCount() {
+        return keywordCount;
+    }
+
+    /**
+     * Returns the indexes of the keywords found in the text, each once and in ascending order, which is the
+     * order they were configured in.
+     */
+    public int[] match(CharSequence text) {
+        long[] seen = null;
+        int found = 0;
+        int offset = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            offset = transitions[offset + charClasses[text.charAt(i)]];
+            if (offset >= 0)
+                continue;
+            offset = ~offset;
+            int[] matches = matchesByState[offset / classCount];
+            if (seen == null)
+                seen = new long[(keywordCount + 63) >>> 6];
+            for (int index : matches) {
+                long bit = 1L << index;
+                if ((seen[index >>> 6] & bit) == 0) {
+                    seen[index >>> 6] |= bit;
+                    found++;
+                }
+            }
+        }
+        if (found == 0)
+            return NO_MATCHES;
+        int[] result = new int[found];
+        int next = 0;
+        for (int word = 0; word < seen.length; word++) {
+            for (long bits = seen[word]; bits != 0; bits &= bits - 1) {
+                result[next++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return result;
+    }
+
+    private int[] newState() {
+        int[] state = new int[classCount];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    // The same equivalence regionMatches(true, ...) uses, so both sides of a comparison fold alike
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static int[] append(int[] indexes, int index) {
+        int[] appended = Arrays.copyOf(indexes, indexes.length + 1);
+        appended[indexes.length] = index;
+        return appended;
+    }
+
+    // A state's own keywords and the shorter ones it inherits through its failure link never overlap
+    private static int[] merge(int[] own, int[] inherited) {
+        if (inherited.length == 0)
+            return own;
+        if (own.length == 0)
+            return inherited;
+        int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+        System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+        return merged;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+/**
+ * Finds every configured keyword in a tweet's text with one pass of an Aho-Corasick automaton built at startup, and
+ * records them on the model: keywords gets all of them as configured, keyword the first configured one, so
+ * consumers read the match instead of scanning the text again. Only a v3 writer schema writes both: v2 writes
+ * keyword alone and v1 neither, in which case the tags only serve the record key and the keyword routes.
+ */
+@Component
+public class KeywordTagger {
+    private final String[] keywords;
+    private final List<String>[] singleKeyword;
+    private final AhoCorasickMatcher matcher;
+
+    @SuppressWarnings("unchecked")
+    public KeywordTagger(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        List<String> configuredKeywords = twitterToKafkaServiceConfigData.getTwitterKeywords() == null ? List.of()
+                : twitterToKafkaServiceConfigData.getTwitterKeywords();
+        this.keywords = configuredKeywords.toArray(new String[0]);
+        this.singleKeyword = new List[keywords.length];
+        for (int i = 0; i < keywords.length; i++) {
+            singleKeyword[i] = List.of(keywords[i]);
+        }
+        this.matcher = new AhoCorasickMatcher(configuredKeywords);
+    }
+
+    /**
+     * Tags the model and returns the indexes of the matched keywords, in configured order.
+     */
+    public int[] tag(TwitterAvroModel model) {
+        int[] matches = model.getText() == null ? matcher.match("") : matcher.match(model.getText());
+        if (matches.length == 0) {
+            model.setKeyword(null);
+            model.setKeywords(List.of());
+        } else if (matches.length == 1) {
+            model.setKeyword(keywords[matches[0]]);
+            model.setKeywords(singleKeyword[matches[0]]);
+        } else {
+            String[] matched = new String[matches.length];
+            for (int i = 0; i < matches.length; i++) {
+                matched[i] = keywords[matches[i]];
+            }
+            model.setKeyword(matched[0]);
+            model.setKeywords(Arrays.asList(matched));
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,111 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.KeywordRoutingConfigData;
+import com.mctoluene.microservice.demo.config.KeywordRoutingConfigData.Route;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroSchemas;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+
+/**
+ * Maps the keywords a tweet matched to the topics it is published to. A route names a topic and the keywords, one or
+ * a group, sent to it; a tweet goes to the topics of every keyword it matched, each once, and to topic-name when it
+ * matched no routed keyword. The topics of each keyword are resolved at startup, so a tweet that matched one
+ * keyword is routed with an array lookup.
+ * <p>
+ * Routing ships disabled. The filtered stream only delivers tweets that matched a keyword, so once every keyword is
+ * routed, topic-name receives next to nothing and its consumers have to move to the routed topics first. It also
+ * needs value-schema-version 3, the only version that writes the matched keywords, so consumers of a routed topic
+ * can tell why a record is there; startup fails otherwise.
+ */
+@Component
+public class KeywordTopicRouter {
+    private static final Logger LOG = LoggerFactory.getLogger(KeywordTopicRouter.class);
+
+    private final String[] defaultTopics;
+    private final String[][] topicsByKeyword;
+    private final Set<String> topics = new LinkedHashSet<>();
+
+    public KeywordTopicRouter(KafkaConfigData kafkaConfigData, KeywordRoutingConfigData keywordRoutingConfigData,
+            TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        this.defaultTopics = new String[] { kafkaConfigData.getTopicName() };
+        topics.add(kafkaConfigData.getTopicName());
+        if (!Boolean.TRUE.equals(keywordRoutingConfigData.getEnabled())
+                || keywordRoutingConfigData.getRoutes() == null) {
+            this.topicsByKeyword = null;
+            return;
+        }
+        if (!Integer.valueOf(TwitterAvroSchemas.V3).equals(kafkaConfigData.getValueSchemaVersion()))
+            throw new TwitterToKafkaServiceException("Keyword routing needs value-schema-version "
+                    + TwitterAvroSchemas.V3 + ", the matched keywords are not written under v"
+                    + kafkaConfigData.getValueSchemaVersion() + "!");
+        List<String> keywords = twitterToKafkaServiceConfigData.getTwitterKeywords() == null ? List.of()
+                : twitterToKafkaServiceConfigData.getTwitterKeywords();
+        this.topicsByKeyword = new String[keywords.size()][];
+        for (Route route : keywordRoutingConfigData.getRoutes()) {
+            for (String keyword : route.getKeywords()) {
+                int index = indexOfIgnoreCase(keywords, keyword);
+                if (index < 0)
+                    throw new TwitterToKafkaServiceException("Route to " + route.getTopic() + " names keyword "
+                            + keyword + ", which is not one of the twitter keywords " + keywords);
+                topicsByKeyword[index] = union(topicsByKeyword[index], new String[] { route.getTopic() });
+            }
+            topics.add(route.getTopic());
+            if (kafkaConfigData.getTopicNamesToCreate() == null
+                    || !kafkaConfigData.getTopicNamesToCreate().contains(route.getTopic()))
+                LOG.warn("Routed topic {} is not in topic-names-to-create, it has to exist already", route.getTopic());
+        }
+        for (int i = 0; i < topicsByKeyword.length; i++) {
+            if (topicsByKeyword[i] == null)
+                topicsByKeyword[i] = defaultTopics;
+        }
+        LOG.info("Routing keywords {} to topics {}", keywords, Arrays.deepToString(topicsByKeyword));
+    }
+
+    /**
+     * Returns the topics for the keyword indexes KeywordTagger matched. The array is shared, do not modify it.
+     */
+    public String[] topicsOf(int[] matches) {
+        if (topicsByKeyword == null || matches.length == 0)
+            return defaultTopics;
+        String[] topics = topicsByKeyword[matches[0]];
+        for (int i = 1; i < matches.length; i++) {
+            topics = union(topics, topicsByKeyword[matches[i]]);
+        }
+        return topics;
+    }
+
+    /**
+     * Returns every topic a tweet can be routed to: topic-name and the topic of each route.
+     */
+    public Set<String> getTopics() {
+        return Collections.unmodifiableSet(topics);
+    }
+
+    private static String[] union(String[] topics, String[] more) {
+        if (topics == null || topics == more)
+            return more;
+        Set<String> union = new LinkedHashSet<>(Arrays.asList(topics));
+        if (!union.addAll(Arrays.asList(more)))
+            return topics;
+        return union.toArray(new String[0]);
+    }
+
+    private static int indexOfIgnoreCase(List<String> keywords, String keyword) {
+        for (int i = 0; i < keywords.size(); i++) {
+            if (keywords.get(i).equalsIgnoreCase(keyword))
+                return i;
+        }
+        return -1;
+    }
+}
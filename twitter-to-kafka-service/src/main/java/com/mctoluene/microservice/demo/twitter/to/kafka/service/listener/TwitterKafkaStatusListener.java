@@ -1,14 +1,24 @@
 package com.mctoluene.microservice.demo.twitter.to.kafka.service.listener;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
 import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.MetricsConfigData;
 import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
-import com.mctoluene.microservice.demo.kafka.producer.config.service.KafkaProducer;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup.StatusDeduplicator;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.queue.StatusDispatcher;
 import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterStatusToAvroTransformer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import twitter4j.Status;
 import twitter4j.StatusAdapter;
 
@@ -16,23 +26,79 @@ import twitter4j.StatusAdapter;
 public class TwitterKafkaStatusListener extends StatusAdapter {
     public static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaStatusListener.class);
     private final KafkaConfigData kafkaConfigData;
-    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+    private final StatusDispatcher statusDispatcher;
     private final TwitterStatusToAvroTransformer twitterStatusToAvroTransformer;
+    private final StatusDeduplicator statusDeduplicator;
+    private final SampledTimer receiveLagTimer;
 
-    public TwitterKafkaStatusListener(KafkaConfigData kafkaConfigData,
-            KafkaProducer<Long, TwitterAvroModel> kafkaProducer,
-            TwitterStatusToAvroTransformer twitterStatusToAvroTransformer) {
+    public TwitterKafkaStatusListener(KafkaConfigData kafkaConfigData, StatusDispatcher statusDispatcher,
+            TwitterStatusToAvroTransformer twitterStatusToAvroTransformer, StatusDeduplicator statusDeduplicator,
+            MetricsConfigData metricsConfigData, MeterRegistry meterRegistry) {
         this.kafkaConfigData = kafkaConfigData;
-        this.kafkaProducer = kafkaProducer;
+        this.statusDispatcher = statusDispatcher;
         this.twitterStatusToAvroTransformer = twitterStatusToAvroTransformer;
+        this.statusDeduplicator = statusDeduplicator;
+        this.receiveLagTimer = new SampledTimer(Timer.builder("twitter.status.receive.lag")
+                .description("Time from tweet creation to receipt by the status listener")
+                .publishPercentileHistogram()
+                .register(meterRegistry), metricsConfigData.getTimerSampleRate());
     }
 
     @Override
     public void onStatus(Status status) {
         super.onStatus(status);
-        LOG.info("Recieved status with text {} sending to kafka topic {}", status.getText(),
-                kafkaConfigData.getTopicName());
-        TwitterAvroModel model = twitterStatusToAvroTransformer.geTwitterAvroModelFromStatus(status);
-        kafkaProducer.send(kafkaConfigData.getTopicName(), model.getUserId(), model);
+        onTwitterAvroModel(twitterStatusToAvroTransformer.geTwitterAvroModelFromStatus(status));
+    }
+
+    public void onStatuses(Collection<Status> statuses) {
+        List<TwitterAvroModel> models = new ArrayList<>(statuses.size());
+        for (Status status : statuses) {
+            models.add(twitterStatusToAvroTransformer.geTwitterAvroModelFromStatus(status));
+        }
+        onTwitterAvroModels(models);
+    }
+
+    public void onTwitterAvroModel(TwitterAvroModel model) {
+        if (!statusDeduplicator.firstSeen(model.getId())) {
+            if (LOG.isTraceEnabled())
+                LOG.trace("Dropped duplicate status with id {}", model.getId());
+            return;
+        }
+        if (LOG.isTraceEnabled())
+            LOG.trace("Recieved status with id {} sending to kafka topic {}", model.getId(),
+                    kafkaConfigData.getTopicName());
+        if (receiveLagTimer.sample())
+            recordReceiveLag(model, System.currentTimeMillis());
+        statusDispatcher.dispatch(model);
+    }
+
+    public void onTwitterAvroModels(Collection<TwitterAvroModel> models) {
+        models = withoutDuplicates(models);
+        if (models.isEmpty())
+            return;
+        if (LOG.isTraceEnabled())
+            LOG.trace("Recieved batch of {} status(es) sending to kafka topic {}", models.size(),
+                    kafkaConfigData.getTopicName());
+        long receivedAt = System.currentTimeMillis();
+        for (TwitterAvroModel model : models) {
+            if (receiveLagTimer.sample())
+                recordReceiveLag(model, receivedAt);
+        }
+        statusDispatcher.dispatchAll(models);
+    }
+
+    private Collection<TwitterAvroModel> withoutDuplicates(Collection<TwitterAvroModel> models) {
+        if (!statusDeduplicator.isEnabled())
+            return models;
+        List<TwitterAvroModel> unique = new ArrayList<>(models.size());
+        for (TwitterAvroModel model : models) {
+            if (statusDeduplicator.firstSeen(model.getId()))
+                unique.add(model);
+        }
+        return unique;
+    }
+
+    private void recordReceiveLag(TwitterAvroModel model, long receivedAt) {
+        receiveLagTimer.record(receivedAt - model.getCreatedAt().toEpochMilli(), TimeUnit.MILLISECONDS);
     }
 }
@@ -0,0 +1,237 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.model;
+
+import java.util.Date;
+
+import twitter4j.GeoLocation;
+import twitter4j.HashtagEntity;
+import twitter4j.MediaEntity;
+import twitter4j.Place;
+import twitter4j.RateLimitStatus;
+import twitter4j.Scopes;
+import twitter4j.Status;
+import twitter4j.SymbolEntity;
+import twitter4j.URLEntity;
+import twitter4j.User;
+import twitter4j.UserMentionEntity;
+
+/**
+ * Minimal {@link Status} holding only what the pipeline reads (id, user, text, creation time and language).
+ * Lets runners hand statuses to the listener without building and re-parsing twitter4j JSON.
+ */
+public class SimpleStatus implements Status {
+    private static final long serialVersionUID = 1L;
+
+    private final long id;
+    private final User user;
+    private final String text;
+    private final Date createdAt;
+    private final String lang;
+
+    public SimpleStatus(long id, long userId, String text, Date createdAt, String lang) {
+        this.id = id;
+        this.user = new SimpleUser(userId);
+        this.text = text;
+        this.createdAt = createdAt;
+        this.lang = lang;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public User getUser() {
+        return user;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String getLang() {
+        return lang;
+    }
+
+    @Override
+    public int compareTo(Status that) {
+        return Long.compare(id, that.getId());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Status && ((Status) o).getId() == id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleStatus{id=" + id + ", userId=" + user.getId() + ", createdAt=" + createdAt + "}";
+    }
+
+    @Override
+    public int getDisplayTextRangeStart() {
+        return 0;
+    }
+
+    @Override
+    public int getDisplayTextRangeEnd() {
+        return 0;
+    }
+
+    @Override
+    public String getSource() {
+        return null;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return false;
+    }
+
+    @Override
+    public long getInReplyToStatusId() {
+        return 0;
+    }
+
+    @Override
+    public long getInReplyToUserId() {
+        return 0;
+    }
+
+    @Override
+    public String getInReplyToScreenName() {
+        return null;
+    }
+
+    @Override
+    public GeoLocation getGeoLocation() {
+        return null;
+    }
+
+    @Override
+    public Place getPlace() {
+        return null;
+    }
+
+    @Override
+    public boolean isFavorited() {
+        return false;
+    }
+
+    @Override
+    public boolean isRetweeted() {
+        return false;
+    }
+
+    @Override
+    public int getFavoriteCount() {
+        return 0;
+    }
+
+    @Override
+    public boolean isRetweet() {
+        return false;
+    }
+
+    @Override
+    public Status getRetweetedStatus() {
+        return null;
+    }
+
+    @Override
+    public long[] getContributors() {
+        return null;
+    }
+
+    @Override
+    public int getRetweetCount() {
+        return 0;
+    }
+
+    @Override
+    public boolean isRetweetedByMe() {
+        return false;
+    }
+
+    @Override
+    public long getCurrentUserRetweetId() {
+        return 0;
+    }
+
+    @Override
+    public boolean isPossiblySensitive() {
+        return false;
+    }
+
+    @Override
+    public Scopes getScopes() {
+        return null;
+    }
+
+    @Override
+    public String[] getWithheldInCountries() {
+        return null;
+    }
+
+    @Override
+    public long getQuotedStatusId() {
+        return 0;
+    }
+
+    @Override
+    public Status getQuotedStatus() {
+        return null;
+    }
+
+    @Override
+    public URLEntity getQuotedStatusPermalink() {
+        return null;
+    }
+
+    @Override
+    public UserMentionEntity[] getUserMentionEntities() {
+        return null;
+    }
+
+    @Override
+    public URLEntity[] getURLEntities() {
+        return null;
+    }
+
+    @Override
+    public HashtagEntity[] getHashtagEntities() {
+        return null;
+    }
+
+    @Override
+    public MediaEntity[] getMediaEntities() {
+        return null;
+    }
+
+    @Override
+    public SymbolEntity[] getSymbolEntities() {
+        return null;
+    }
+
+    @Override
+    public RateLimitStatus getRateLimitStatus() {
+        return null;
+    }
+
+    @Override
+    public int getAccessLevel() {
+        return 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.BatchSendResult;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.KafkaProducer;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword.KeywordTagger;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword.KeywordTopicRouter;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key.RecordKeyStrategy;
+
+/**
+ * Tags each tweet with the keywords it matched, then sends it to every topic those keywords are routed to, keyed
+ * the same way on each.
+ */
+@Component
+public class TwitterStatusPublisher {
+    private final KafkaProducer<Long, TwitterAvroModel> kafkaProducer;
+    private final RecordKeyStrategy recordKeyStrategy;
+    private final KeywordTagger keywordTagger;
+    private final KeywordTopicRouter keywordTopicRouter;
+
+    public TwitterStatusPublisher(KafkaProducer<Long, TwitterAvroModel> kafkaProducer,
+            RecordKeyStrategy recordKeyStrategy, KeywordTagger keywordTagger, KeywordTopicRouter keywordTopicRouter) {
+        this.kafkaProducer = kafkaProducer;
+        this.recordKeyStrategy = recordKeyStrategy;
+        this.keywordTagger = keywordTagger;
+        this.keywordTopicRouter = keywordTopicRouter;
+    }
+
+    public void publish(TwitterAvroModel model) {
+        String[] topics = route(model);
+        long key = recordKeyStrategy.keyOf(model);
+        for (String topic : topics) {
+            kafkaProducer.send(topic, key, model);
+        }
+    }
+
+    /**
+     * Sends the record to the given topics only, such as the ones it could not be spilled for.
+     */
+    public void publish(TwitterAvroModel model, Collection<String> topics) {
+        long key = recordKeyStrategy.keyOf(model);
+        for (String topic : topics) {
+            kafkaProducer.send(topic, key, model);
+        }
+    }
+
+    /**
+     * Sends the batch as one batch per topic, completing with the result of each.
+     */
+    public CompletableFuture<List<BatchSendResult<Long, TwitterAvroModel>>> publishBatch(
+            Collection<TwitterAvroModel> models) {
+        Map<String, List<Entry<Long, TwitterAvroModel>>> recordsByTopic = new HashMap<>();
+        for (TwitterAvroModel model : models) {
+            String[] topics = route(model);
+            Entry<Long, TwitterAvroModel> record = Map.entry(recordKeyStrategy.keyOf(model), model);
+            for (String topic : topics) {
+                recordsByTopic.computeIfAbsent(topic, t -> new ArrayList<>(models.size())).add(record);
+            }
+        }
+        List<CompletableFuture<BatchSendResult<Long, TwitterAvroModel>>> sends = new ArrayList<>(
+                recordsByTopic.size());
+        recordsByTopic.forEach((topic, records) -> sends.add(kafkaProducer.sendBatch(topic, records)));
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> sends.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Spills the record for each of its topics, returning the topics it could not be spilled for.
+     */
+    public List<String> spill(TwitterAvroModel model) {
+        String[] topics = route(model);
+        long key = recordKeyStrategy.keyOf(model);
+        List<String> failedTopics = List.of();
+        for (String topic : topics) {
+            if (kafkaProducer.spill(topic, key, model))
+                continue;
+            if (failedTopics.isEmpty())
+                failedTopics = new ArrayList<>(topics.length);
+            failedTopics.add(topic);
+        }
+        return failedTopics;
+    }
+
+    private String[] route(TwitterAvroModel model) {
+        return keywordTopicRouter.topicsOf(keywordTagger.tag(model));
+    }
+}
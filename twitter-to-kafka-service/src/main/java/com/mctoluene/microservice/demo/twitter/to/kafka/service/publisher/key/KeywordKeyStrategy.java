@@ -0,0 +1,29 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+/**
+ * Keys records by the first configured keyword the tweet matched, as KeywordTagger recorded it before the record
+ * is keyed, so all tweets about a keyword land on one partition in order. Tweets that matched none of them fall
+ * back to the user id.
+ */
+public class KeywordKeyStrategy implements RecordKeyStrategy {
+    private final Map<String, Long> keywordKeys = new HashMap<>();
+
+    public KeywordKeyStrategy(List<String> keywords) {
+        for (String keyword : keywords) {
+            keywordKeys.put(keyword, (long) keyword.toLowerCase(Locale.ROOT).hashCode());
+        }
+    }
+
+    @Override
+    public long keyOf(TwitterAvroModel model) {
+        Long keywordKey = model.getKeyword() == null ? null : keywordKeys.get(model.getKeyword());
+        return keywordKey == null ? model.getUserId() : keywordKey;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+/**
+ * Picks the kafka record key of a status, and with it the partition the default hashing sends it to.
+ */
+public interface RecordKeyStrategy {
+    long keyOf(TwitterAvroModel model);
+}
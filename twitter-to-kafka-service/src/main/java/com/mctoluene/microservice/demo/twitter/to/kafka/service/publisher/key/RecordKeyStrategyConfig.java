@@ -0,0 +1,36 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData.RecordKey;
+
+@Configuration
+public class RecordKeyStrategyConfig {
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+
+    public RecordKeyStrategyConfig(TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData) {
+        this.twitterToKafkaServiceConfigData = twitterToKafkaServiceConfigData;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RecordKeyStrategy recordKeyStrategy() {
+        RecordKey recordKey = twitterToKafkaServiceConfigData.getRecordKey();
+        if (recordKey == null)
+            return new UserIdKeyStrategy();
+        switch (recordKey) {
+            case TWEET_ID:
+                return new TweetIdKeyStrategy();
+            case KEYWORD:
+                return new KeywordKeyStrategy(twitterToKafkaServiceConfigData.getTwitterKeywords());
+            case ROUND_ROBIN:
+                return new RoundRobinKeyStrategy();
+            case USER_ID:
+            default:
+                return new UserIdKeyStrategy();
+        }
+    }
+}
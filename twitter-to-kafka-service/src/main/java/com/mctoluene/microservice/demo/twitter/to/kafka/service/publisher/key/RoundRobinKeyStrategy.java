@@ -0,0 +1,19 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+/**
+ * Keys records by a running sequence, scrambled so that consecutive keys do not share low bits, which spreads
+ * records evenly over partitions regardless of who posted them.
+ */
+public class RoundRobinKeyStrategy implements RecordKeyStrategy {
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public long keyOf(TwitterAvroModel model) {
+        return sequence.getAndIncrement() * GOLDEN_RATIO;
+    }
+}
@@ -0,0 +1,10 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.key;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+public class TweetIdKeyStrategy implements RecordKeyStrategy {
+    @Override
+    public long keyOf(TwitterAvroModel model) {
+        return model.getId();
+    }
+}
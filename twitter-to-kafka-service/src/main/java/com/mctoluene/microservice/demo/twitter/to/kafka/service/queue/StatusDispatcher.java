@@ -0,0 +1,372 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.queue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.common.logging.RateLimitedLog;
+import com.mctoluene.microservice.demo.common.metrics.DeferredMeterBinder;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.StatusQueueConfigData;
+import com.mctoluene.microservice.demo.config.StatusQueueConfigData.OverflowPolicy;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.kafka.producer.config.service.BatchSendResult;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.TwitterStatusPublisher;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Decouples the stream callback thread from send. Statuses, already transformed to their avro model, are put on
+ * a bounded ring buffer and a fixed set of workers publishes them, so a slow producer no longer stalls stream
+ * ingestion. Under the spill overflow policy, statuses the spill journal does not take wait in a spill queue
+ * bounded by the same capacity, and are dropped and counted once that is full too. A queued status keeps the
+ * topics the journal refused it for and is published to those only, as the journal replays it to the others.
+ */
+@Component
+public class StatusDispatcher implements DeferredMeterBinder {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusDispatcher.class);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private final StatusQueueConfigData statusQueueConfigData;
+    private final TwitterStatusPublisher twitterStatusPublisher;
+    private final ManagedExecutors managedExecutors;
+    private final RingBuffer<TwitterAvroModel> ringBuffer;
+    private final RateLimitedLog failureLog;
+    private final Queue<SpilledStatus> spillQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger spillDepth = new AtomicInteger();
+    private final LongAdder dispatchedCount = new LongAdder();
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder spilledCount = new LongAdder();
+    private final AtomicLong firstPublishedUptimeMs = new AtomicLong(-1);
+    private ExecutorService workers;
+    private volatile boolean running;
+    private volatile boolean held;
+
+    public StatusDispatcher(StatusQueueConfigData statusQueueConfigData,
+            TwitterStatusPublisher twitterStatusPublisher, ManagedExecutors managedExecutors,
+            LogSamplingConfigData logSamplingConfigData) {
+        this.statusQueueConfigData = statusQueueConfigData;
+        this.twitterStatusPublisher = twitterStatusPublisher;
+        this.managedExecutors = managedExecutors;
+        this.failureLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
+        this.ringBuffer = isEnabled() ? new RingBuffer<>(statusQueueConfigData.getCapacity()) : null;
+    }
+
+    @PostConstruct
+    public void startWorkers() {
+        if (!isEnabled())
+            return;
+        running = true;
+        workers = managedExecutors.newExecutor("status-dispatcher");
+        for (int i = 0; i < statusQueueConfigData.getWorkerCount(); i++) {
+            workers.execute(this::drain);
+        }
+        LOG.info("Started {} status dispatcher worker(s) on a ring buffer of capacity {} with overflow policy {}",
+                statusQueueConfigData.getWorkerCount(), ringBuffer.capacity(),
+                statusQueueConfigData.getOverflowPolicy());
+    }
+
+    /**
+     * Keeps the workers from publishing until the stage completes, either way, so the stream can fill the queue
+     * while startup checks are still running. Returns false if there is no queue to hold statuses in.
+     */
+    public boolean holdUntil(CompletionStage<?> ready) {
+        if (!isEnabled())
+            return false;
+        held = true;
+        ready.whenComplete((result, e) -> {
+            held = false;
+            LOG.info("Releasing status dispatcher with {} status(es) buffered", getQueueDepth());
+        });
+        return true;
+    }
+
+    public void dispatch(TwitterAvroModel model) {
+        dispatchedCount.increment();
+        if (!isEnabled()) {
+            publish(model);
+            return;
+        }
+        if (ringBuffer.offer(model))
+            return;
+        OverflowPolicy overflowPolicy = statusQueueConfigData.getOverflowPolicy();
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                dropOldestAndOffer(model);
+                break;
+            case SPILL:
+                spill(model);
+                break;
+            case BLOCK:
+            default:
+                blockUntilOffered(model);
+        }
+    }
+
+    public void dispatchAll(Collection<TwitterAvroModel> models) {
+        if (isEnabled()) {
+            models.forEach(this::dispatch);
+            return;
+        }
+        dispatchedCount.add(models.size());
+        publishBatch(models);
+    }
+
+    public int getQueueDepth() {
+        return ringBuffer == null ? 0 : ringBuffer.size() + spillDepth.get();
+    }
+
+    public int getSpillDepth() {
+        return spillDepth.get();
+    }
+
+    public long getDispatchedCount() {
+        return dispatchedCount.sum();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    public long getFirstPublishedUptimeMs() {
+        return firstPublishedUptimeMs.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("twitter.status.dispatcher.queue.depth", this, StatusDispatcher::getQueueDepth)
+                .description("Statuses waiting to be published, including spilled ones")
+                .register(registry);
+        Gauge.builder("twitter.status.dispatcher.spill.depth", this, StatusDispatcher::getSpillDepth)
+                .description("Statuses waiting in the overflow spill queue")
+                .register(registry);
+        Gauge.builder("twitter.status.dispatcher.first.published", this,
+                StatusDispatcher::getFirstPublishedUptimeMs)
+                .description("Milliseconds from JVM start to the first status handed to the producer, -1 until then")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dispatcher.dispatched", this, StatusDispatcher::getDispatchedCount)
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dispatcher.published", this, StatusDispatcher::getPublishedCount)
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dispatcher.failed", this, StatusDispatcher::getFailedCount)
+                .description("Statuses of a batch that at least one of their sends failed for")
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dispatcher.dropped", this, StatusDispatcher::getDroppedCount)
+                .register(registry);
+        FunctionCounter.builder("twitter.status.dispatcher.spilled", this, StatusDispatcher::getSpilledCount)
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (!running)
+            return;
+        LOG.info("Stopping status dispatcher, {} status(es) left to publish", getQueueDepth());
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+                LOG.warn("Status dispatcher workers did not drain the queue in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Status dispatcher stopped. Dispatched {}, published {}, failed {}, dropped {}, spilled {}",
+                getDispatchedCount(), getPublishedCount(), getFailedCount(), getDroppedCount(), getSpilledCount());
+    }
+
+    private boolean isEnabled() {
+        return Boolean.TRUE.equals(statusQueueConfigData.getEnabled());
+    }
+
+    private void dropOldestAndOffer(TwitterAvroModel model) {
+        while (!ringBuffer.offer(model)) {
+            if (ringBuffer.poll() != null)
+                droppedCount.increment();
+        }
+    }
+
+    private void spill(TwitterAvroModel model) {
+        spilledCount.increment();
+        List<String> failedTopics = twitterStatusPublisher.spill(model);
+        if (failedTopics.isEmpty())
+            return;
+        if (spillDepth.incrementAndGet() > statusQueueConfigData.getCapacity()) {
+            spillDepth.decrementAndGet();
+            droppedCount.increment();
+            if (failureLog.tryAcquire())
+                LOG.warn("Spill queue is full, dropped status {} ({} similar error(s) suppressed)", model.getId(),
+                        failureLog.takeSuppressedCount());
+            return;
+        }
+        spillQueue.offer(new SpilledStatus(model, failedTopics));
+    }
+
+    private void blockUntilOffered(TwitterAvroModel model) {
+        long parkNanos = 1;
+        while (!ringBuffer.offer(model)) {
+            if (!running) {
+                droppedCount.increment();
+                return;
+            }
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, MAX_IDLE_PARK_NANOS);
+        }
+    }
+
+    private void drain() {
+        int batchSize = Math.max(1, statusQueueConfigData.getBatchSize());
+        List<TwitterAvroModel> batch = new ArrayList<>(batchSize);
+        long parkNanos = 1;
+        while (true) {
+            if (held && running) {
+                LockSupport.parkNanos(MAX_IDLE_PARK_NANOS);
+                continue;
+            }
+            TwitterAvroModel model;
+            while (batch.size() < batchSize && (model = ringBuffer.poll()) != null) {
+                batch.add(model);
+            }
+            SpilledStatus spilled = batch.size() < batchSize ? pollSpilled() : null;
+            if (batch.isEmpty() && spilled == null) {
+                if (!running)
+                    return;
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos << 1, MAX_IDLE_PARK_NANOS);
+                continue;
+            }
+            if (batch.size() == 1)
+                publish(batch.get(0));
+            else if (!batch.isEmpty())
+                publishBatch(batch);
+            if (spilled != null)
+                publish(spilled.model, spilled.topics);
+            batch.clear();
+            parkNanos = 1;
+        }
+    }
+
+    private SpilledStatus pollSpilled() {
+        SpilledStatus spilled = spillQueue.poll();
+        if (spilled != null)
+            spillDepth.decrementAndGet();
+        return spilled;
+    }
+
+    private void publish(TwitterAvroModel model) {
+        publish(model, null);
+    }
+
+    // Sends to the routed topics when topics is null
+    private void publish(TwitterAvroModel model, List<String> topics) {
+        try {
+            if (topics == null)
+                twitterStatusPublisher.publish(model);
+            else
+                twitterStatusPublisher.publish(model, topics);
+            publishedCount.increment();
+            recordFirstPublished();
+        } catch (Exception e) {
+            if (failureLog.tryAcquire())
+                LOG.error("Error while publishing status {} ({} similar error(s) suppressed)", model.getId(),
+                        failureLog.takeSuppressedCount(), e);
+        }
+    }
+
+    // Counted once the sends complete, as the batch list is reused by the caller as soon as this returns
+    private void publishBatch(Collection<TwitterAvroModel> models) {
+        int batchSize = models.size();
+        try {
+            twitterStatusPublisher.publishBatch(models).whenComplete((results, e) -> {
+                if (e != null) {
+                    failedCount.add(batchSize);
+                    if (failureLog.tryAcquire())
+                        LOG.error("Error while publishing batch of {} status(es) ({} similar error(s) suppressed)",
+                                batchSize, failureLog.takeSuppressedCount(), e);
+                    return;
+                }
+                countBatch(batchSize, results);
+            });
+        } catch (Exception e) {
+            failedCount.add(batchSize);
+            if (failureLog.tryAcquire())
+                LOG.error("Error while publishing batch of {} status(es) ({} similar error(s) suppressed)",
+                        models.size(), failureLog.takeSuppressedCount(), e);
+        }
+    }
+
+    private void countBatch(int batchSize, List<BatchSendResult<Long, TwitterAvroModel>> results) {
+        Set<TwitterAvroModel> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Throwable firstFailure = null;
+        for (BatchSendResult<Long, TwitterAvroModel> result : results) {
+            if (!result.hasFailures())
+                continue;
+            result.getFailedRecords().forEach(record -> failed.add(record.getValue()));
+            if (firstFailure == null)
+                firstFailure = result.getFirstFailure();
+        }
+        publishedCount.add(batchSize - failed.size());
+        failedCount.add(failed.size());
+        if (failed.size() < batchSize)
+            recordFirstPublished();
+        if (!failed.isEmpty() && failureLog.tryAcquire())
+            LOG.error("Failed to publish {} of a batch of {} status(es) ({} similar error(s) suppressed)",
+                    failed.size(), batchSize, failureLog.takeSuppressedCount(), firstFailure);
+    }
+
+    private void recordFirstPublished() {
+        if (firstPublishedUptimeMs.get() >= 0)
+            return;
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (firstPublishedUptimeMs.compareAndSet(-1, uptimeMs))
+            LOG.info("Published first status {} ms after JVM start", uptimeMs);
+    }
+
+    private static final class SpilledStatus {
+        private final TwitterAvroModel model;
+        private final List<String> topics;
+
+        private SpilledStatus(TwitterAvroModel model, List<String> topics) {
+            this.model = model;
+            this.topics = topics;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class KeywordShards {
+    private KeywordShards() {
+    }
+
+    /**
+     * Deals the keywords round robin into at most shardCount groups, so group sizes differ by one at most.
+     */
+    static List<String[]> split(List<String> keywords, Integer shardCount) {
+        int shards = Math.max(1, Math.min(shardCount == null ? 1 : shardCount, keywords.size()));
+        List<List<String>> groups = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < keywords.size(); i++) {
+            groups.get(i % shards).add(keywords.get(i));
+        }
+        List<String[]> shardKeywords = new ArrayList<>(shards);
+        for (List<String> group : groups) {
+            shardKeywords.add(group.toArray(new String[0]));
+        }
+        return shardKeywords;
+    }
+}
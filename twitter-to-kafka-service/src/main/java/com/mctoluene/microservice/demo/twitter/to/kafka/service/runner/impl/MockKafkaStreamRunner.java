@@ -1,33 +1,49 @@
 package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
 
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Locale;
+import java.util.List;
 import java.util.Random;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.common.logging.RateLimitedLog;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
 import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
-import com.mctoluene.microservice.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
 import com.mctoluene.microservice.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
 import com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterDateCodec;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterJsonFieldExtractor;
 
 import twitter4j.Status;
-import twitter4j.TwitterException;
-import twitter4j.TwitterObjectFactory;
 
 @Component
-@ConditionalOnProperty(name = "twitter-to-kafka-service.enable-v2-tweets", havingValue = "true")
+@ConditionalOnProperty(name = "twitter-to-kafka-service.enable-mock-tweets", havingValue = "true")
 public class MockKafkaStreamRunner implements StreamRunner {
     private static final Logger LOG = LoggerFactory.getLogger(MockKafkaStreamRunner.class);
     private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
     private final TwitterKafkaStatusListener twitterKafkaStatusListener;
+    private final ManagedExecutors managedExecutors;
+    private final TwitterJsonFieldExtractor twitterJsonFieldExtractor;
+    private final TwitterDateCodec twitterDateCodec;
+    private final RateLimitedLog progressLog;
+    private final LongAdder generatedCount = new LongAdder();
+    private ExecutorService streamExecutor;
+    private volatile boolean running;
     private static final Random RANDOM = new Random();
     private static final String[] WORDS = {
             "Neque", "porro", " quisquam ", "est", " qui", " dolorem", "ipsum", "quia", "dolor", "sit", "amet",
@@ -40,12 +56,18 @@ public class MockKafkaStreamRunner implements StreamRunner {
             "\"user\":{\"id\":\"{3}\"}" +
             "}";
 
-    private static final String TWEET_STATUS_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+    private static final long MAX_GENERATOR_LAG_NANOS = TimeUnit.SECONDS.toNanos(1);
 
     public MockKafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
-            TwitterKafkaStatusListener statusListener) {
+            TwitterKafkaStatusListener statusListener, ManagedExecutors managedExecutors,
+            LogSamplingConfigData logSamplingConfigData, TwitterJsonFieldExtractor twitterJsonFieldExtractor,
+            TwitterDateCodec twitterDateCodec) {
         this.twitterKafkaStatusListener = statusListener;
         this.twitterToKafkaServiceConfigData = configData;
+        this.managedExecutors = managedExecutors;
+        this.twitterJsonFieldExtractor = twitterJsonFieldExtractor;
+        this.twitterDateCodec = twitterDateCodec;
+        this.progressLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
     }
 
     @Override
@@ -54,20 +76,41 @@ public class MockKafkaStreamRunner implements StreamRunner {
         int minTweetLength = twitterToKafkaServiceConfigData.getMockMinTweetLength();
         int maxTweetLength = twitterToKafkaServiceConfigData.getMockMaxTweetLength();
         long sleepTime = twitterToKafkaServiceConfigData.getMockSleepMs();
-        LOG.info("Started filtering twitter for keywords {}", Arrays.toString(keywords));
-        simulateTwitterStream(keywords, minTweetLength, maxTweetLength, sleepTime);
+        if (Boolean.TRUE.equals(twitterToKafkaServiceConfigData.getMockLoadGeneratorEnabled())) {
+            LOG.info("Started filtering twitter for keywords {}", Arrays.toString(keywords));
+            generateLoad(keywords, minTweetLength, maxTweetLength);
+            return;
+        }
+        running = true;
+        streamExecutor = managedExecutors.newExecutor("mock-twitter-stream");
+        for (String[] shardKeywords : KeywordShards.split(twitterToKafkaServiceConfigData.getTwitterKeywords(),
+                twitterToKafkaServiceConfigData.getKeywordShardCount())) {
+            LOG.info("Started filtering twitter for keywords {}", Arrays.toString(shardKeywords));
+            simulateTwitterStream(shardKeywords, minTweetLength, maxTweetLength, sleepTime);
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (streamExecutor != null) {
+            LOG.info("Closing mock twitter stream");
+            running = false;
+            streamExecutor.shutdownNow();
+        }
     }
 
     private void simulateTwitterStream(String[] keywords, int minTweetLength, int maxTweetLength, long sleepTime) {
-        Executors.newSingleThreadExecutor().submit(() -> {
+        streamExecutor.submit(() -> {
             try {
-                while (true) {
-                    String formattedTweetAsRawJson = getFormattedTweet(keywords, minTweetLength, maxTweetLength);
-                    Status status = TwitterObjectFactory.createStatus(formattedTweetAsRawJson);
-                    twitterKafkaStatusListener.onStatus(status);
+                while (running) {
+                    byte[] formattedTweetAsRawJson = getFormattedTweet(keywords, minTweetLength, maxTweetLength)
+                            .getBytes(StandardCharsets.UTF_8);
+                    TwitterAvroModel model = twitterJsonFieldExtractor.extract(formattedTweetAsRawJson, 0,
+                            formattedTweetAsRawJson.length);
+                    twitterKafkaStatusListener.onTwitterAvroModel(model);
                     sleep(sleepTime);
                 }
-            } catch (TwitterException e) {
+            } catch (IOException e) {
                 LOG.info("Error creating twitter statuss", e);
             } catch (Exception e) {
                 LOG.info("Error creating twitter statuss", e);
@@ -76,19 +119,78 @@ public class MockKafkaStreamRunner implements StreamRunner {
 
     }
 
+    private void generateLoad(String[] keywords, int minTweetLength, int maxTweetLength) {
+        int generatorThreads = Math.max(1, twitterToKafkaServiceConfigData.getMockGeneratorThreads());
+        int batchSize = Math.max(1, twitterToKafkaServiceConfigData.getMockBatchSize());
+        Integer targetRate = twitterToKafkaServiceConfigData.getMockTargetTweetsPerSecond();
+        long nanosPerBatch = targetRate == null || targetRate <= 0 ? 0
+                : TimeUnit.SECONDS.toNanos(1) * batchSize * generatorThreads / targetRate;
+        Long configuredSeed = twitterToKafkaServiceConfigData.getMockRandomSeed();
+        long seed = configuredSeed != null ? configuredSeed : ThreadLocalRandom.current().nextLong();
+        String[] templates = buildTemplates(keywords, minTweetLength, maxTweetLength,
+                twitterToKafkaServiceConfigData.getMockTemplateCount(), new Random(seed));
+        LOG.info("Generating mock tweets on {} thread(s) at {} tweet(s)/s in batches of {} with seed {}",
+                generatorThreads, targetRate == null || targetRate <= 0 ? "unlimited" : targetRate, batchSize, seed);
+
+        running = true;
+        streamExecutor = managedExecutors.newExecutor("mock-load-generator");
+        for (int i = 0; i < generatorThreads; i++) {
+            MockStatusGenerator generator = new MockStatusGenerator(templates, seed, i);
+            streamExecutor.submit(() -> runGenerator(generator, batchSize, nanosPerBatch));
+        }
+    }
+
+    private void runGenerator(MockStatusGenerator generator, int batchSize, long nanosPerBatch) {
+        List<Status> batch = new ArrayList<>(batchSize);
+        long nextBatchAt = System.nanoTime();
+        try {
+            while (running) {
+                long createdAt = System.currentTimeMillis();
+                for (int i = 0; i < batchSize; i++) {
+                    batch.add(generator.next(createdAt));
+                }
+                twitterKafkaStatusListener.onStatuses(batch);
+                generatedCount.add(batch.size());
+                batch.clear();
+                if (progressLog.tryAcquire())
+                    LOG.info("Generated {} mock tweet(s) so far", generatedCount.sum());
+                if (nanosPerBatch > 0) {
+                    nextBatchAt += nanosPerBatch;
+                    long waitNanos = nextBatchAt - System.nanoTime();
+                    if (waitNanos > 0)
+                        LockSupport.parkNanos(waitNanos);
+                    else if (-waitNanos > MAX_GENERATOR_LAG_NANOS)
+                        nextBatchAt = System.nanoTime();
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Error generating mock tweets", e);
+        }
+    }
+
+    static String[] buildTemplates(String[] keywords, int minTweetLength, int maxTweetLength, int templateCount,
+            Random random) {
+        String[] templates = new String[templateCount];
+        for (int i = 0; i < templateCount; i++) {
+            templates[i] = getRandomTweet(keywords, minTweetLength, maxTweetLength, random);
+        }
+        return templates;
+    }
+
     private void sleep(long sleepTime) {
         try {
             Thread.sleep(sleepTime);
         } catch (InterruptedException e) {
-            throw new TwitterToKafkaServiceException("Error while sleeping!", e);
+            Thread.currentThread().interrupt();
+            running = false;
         }
     }
 
-    private String getFormattedTweet(String[] keywords, int minTweetLength, int maxTweetLength) {
+    String getFormattedTweet(String[] keywords, int minTweetLength, int maxTweetLength) {
         String[] params = {
-                ZonedDateTime.now().format(DateTimeFormatter.ofPattern(TWEET_STATUS_DATE_FORMAT, Locale.ENGLISH)),
+                twitterDateCodec.format(System.currentTimeMillis()),
                 String.valueOf(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)),
-                getRandomTweet(keywords, minTweetLength, maxTweetLength),
+                getRandomTweet(keywords, minTweetLength, maxTweetLength, RANDOM),
                 String.valueOf(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)) };
 
         return formatTweetAsJsonWithParams(params);
@@ -102,17 +204,18 @@ public class MockKafkaStreamRunner implements StreamRunner {
         return tweet;
     }
 
-    private String getRandomTweet(String[] keywords, int minTweetLength, int maxTweetLength) {
+    private static String getRandomTweet(String[] keywords, int minTweetLength, int maxTweetLength, Random random) {
         StringBuilder tweet = new StringBuilder();
-        int tweetLenth = RANDOM.nextInt(maxTweetLength - minTweetLength + 1) + minTweetLength;
-        return constructRandomTweet(keywords, tweet, tweetLenth);
+        int tweetLenth = random.nextInt(maxTweetLength - minTweetLength + 1) + minTweetLength;
+        return constructRandomTweet(keywords, tweet, tweetLenth, random);
     }
 
-    private String constructRandomTweet(String[] keywords, StringBuilder tweet, int tweetLenth) {
+    private static String constructRandomTweet(String[] keywords, StringBuilder tweet, int tweetLenth,
+            Random random) {
         for (int i = 0; i < tweetLenth; i++) {
-            tweet.append(WORDS[RANDOM.nextInt(WORDS.length)]).append(" ");
+            tweet.append(WORDS[random.nextInt(WORDS.length)]).append(" ");
             if (i == tweetLenth / 2)
-                tweet.append(keywords[RANDOM.nextInt(keywords.length)]).append(" ");
+                tweet.append(keywords[random.nextInt(keywords.length)]).append(" ");
         }
         return tweet.toString().trim();
     }
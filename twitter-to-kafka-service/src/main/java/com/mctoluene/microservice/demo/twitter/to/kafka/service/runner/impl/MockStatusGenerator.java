@@ -0,0 +1,34 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import java.util.Date;
+import java.util.SplittableRandom;
+
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.model.SimpleStatus;
+
+import twitter4j.Status;
+
+/**
+ * Builds statuses for the mock load generator straight from pre-rendered tweet texts. Each generator owns its
+ * random source, seeded from the run seed and its index, so a fixed seed replays the same ids, users and texts.
+ */
+public class MockStatusGenerator {
+    private static final int USER_POOL_SIZE = 10_000;
+    private static final int GENERATOR_INDEX_SHIFT = 48;
+
+    private final String[] templates;
+    private final SplittableRandom random;
+    private final long idPrefix;
+    private long sequence;
+
+    public MockStatusGenerator(String[] templates, long seed, int generatorIndex) {
+        this.templates = templates;
+        this.random = new SplittableRandom(seed + generatorIndex);
+        this.idPrefix = (long) generatorIndex << GENERATOR_INDEX_SHIFT;
+    }
+
+    public Status next(long createdAtMillis) {
+        String text = templates[random.nextInt(templates.length)];
+        long userId = 1 + random.nextInt(USER_POOL_SIZE);
+        return new SimpleStatus(idPrefix | ++sequence, userId, text, new Date(createdAtMillis), null);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+
+/**
+ * Splits a chunked response body on newlines as the buffers arrive. Only the tail of a line that spans buffers is
+ * carried over; complete lines are handed to the parser straight from a reused byte array and blank keep-alive
+ * lines are skipped. A line the parser rejects is handed to the bad line handler and skipped, so it costs neither
+ * the lines parsed around it nor the connection. One instance holds the state of one connection.
+ */
+public class NewlineDelimitedSplitter<T> {
+    private static final IntPredicate NEWLINE = b -> b == '\n';
+    private static final int INITIAL_LINE_CAPACITY = 1024;
+    private static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private final LineParser<T> lineParser;
+    private final BadLineHandler badLineHandler;
+    private byte[] line = new byte[INITIAL_LINE_CAPACITY];
+    private int lineLength;
+
+    public interface LineParser<T> {
+        T parse(byte[] bytes, int offset, int length) throws IOException;
+    }
+
+    public interface BadLineHandler {
+        void onBadLine(byte[] bytes, int offset, int length, Exception e);
+    }
+
+    public NewlineDelimitedSplitter(LineParser<T> lineParser, BadLineHandler badLineHandler) {
+        this.lineParser = lineParser;
+        this.badLineHandler = badLineHandler;
+    }
+
+    public List<T> split(DataBuffer dataBuffer) {
+        List<T> parsed = Collections.emptyList();
+        try {
+            int newline;
+            while ((newline = dataBuffer.indexOf(NEWLINE, dataBuffer.readPosition())) != -1) {
+                append(dataBuffer, newline - dataBuffer.readPosition());
+                dataBuffer.readPosition(newline + 1);
+                T value = completeLine();
+                if (value != null) {
+                    if (parsed.isEmpty())
+                        parsed = new ArrayList<>(2);
+                    parsed.add(value);
+                }
+            }
+            append(dataBuffer, dataBuffer.readableByteCount());
+            return parsed;
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+    }
+
+    private void append(DataBuffer dataBuffer, int length) {
+        if (length == 0)
+            return;
+        if (lineLength + length > MAX_LINE_LENGTH)
+            throw new TwitterToKafkaServiceException("Stream line exceeds " + MAX_LINE_LENGTH + " bytes!");
+        if (lineLength + length > line.length)
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        dataBuffer.read(line, lineLength, length);
+        lineLength += length;
+    }
+
+    private T completeLine() {
+        int length = lineLength;
+        lineLength = 0;
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        if (length == 0)
+            return null;
+        try {
+            return lineParser.parse(line, 0, length);
+        } catch (IOException | RuntimeException e) {
+            badLineHandler.onBadLine(line, 0, length, e);
+            return null;
+        }
+    }
+}
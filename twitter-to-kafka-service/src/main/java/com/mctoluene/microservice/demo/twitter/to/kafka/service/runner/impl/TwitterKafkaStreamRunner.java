@@ -6,7 +6,7 @@ import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 
 import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
@@ -19,7 +19,8 @@ import twitter4j.TwitterStream;
 import twitter4j.TwitterStreamFactory;
 
 @Component
-@ConditionalOnProperty(name = "twitter-to-kafka-service.enable-v2-tweets", havingValue = "false", matchIfMissing = true)
+@ConditionalOnExpression("not ${twitter-to-kafka-service.enable-v2-tweets:false} && "
+        + "not ${twitter-to-kafka-service.enable-mock-tweets:false}")
 public class TwitterKafkaStreamRunner implements StreamRunner {
     private static final Logger LOG = LoggerFactory.getLogger(TwitterKafkaStreamRunner.class);
     private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
@@ -32,11 +33,19 @@ public class TwitterKafkaStreamRunner implements StreamRunner {
         twitterKafkaStatusListener = statusListener;
     }
 
+    /**
+     * Opens a single filtered stream for all keywords. Twitter allows one standing filter connection per set of
+     * credentials and disconnects the others with a 420, so keyword shards only apply to the mock runner.
+     */
     @Override
     public void start() throws TwitterException {
+        Integer keywordShardCount = twitterToKafkaServiceConfigData.getKeywordShardCount();
+        if (keywordShardCount != null && keywordShardCount > 1)
+            LOG.warn("Ignoring keyword-shard-count {}, the twitter stream takes one connection per credentials",
+                    keywordShardCount);
         twitterStream = new TwitterStreamFactory().getInstance();
         twitterStream.addListener(twitterKafkaStatusListener);
-        addFilter();
+        addFilter(twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]));
     }
 
     @PreDestroy
@@ -47,8 +56,7 @@ public class TwitterKafkaStreamRunner implements StreamRunner {
         }
     }
 
-    private void addFilter() {
-        String[] keywords = twitterToKafkaServiceConfigData.getTwitterKeywords().toArray(new String[0]);
+    private void addFilter(String[] keywords) {
         FilterQuery filterQuery = new FilterQuery(keywords);
         twitterStream.filter(filterQuery);
         LOG.info("Started filtering twitter for keywords {}", Arrays.toString(keywords));
@@ -0,0 +1,202 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.common.logging.RateLimitedLog;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.RetryConfigData;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.StreamRunner;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterJsonFieldExtractor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Reads the Twitter v2 filtered stream over the shared {@link WebClient}. Statuses are handed to the listener on a
+ * managed executor with a bounded prefetch, so when the dispatcher pushes back, demand stops and the connection
+ * stops reading from the socket instead of buffering the stream in memory.
+ * <p>
+ * A line that does not parse, or a status the listener fails on, is counted, logged at most once per log sampling
+ * interval and skipped: neither tears down the connection, and the subscription only ends on shutdown.
+ */
+@Component
+@ConditionalOnExpression("${twitter-to-kafka-service.enable-v2-tweets:false} && "
+        + "not ${twitter-to-kafka-service.enable-mock-tweets:false}")
+public class TwitterV2KafkaStreamRunner implements StreamRunner {
+    private static final Logger LOG = LoggerFactory.getLogger(TwitterV2KafkaStreamRunner.class);
+    private static final int STREAM_PREFETCH = 256;
+    private static final int MAX_LOGGED_LINE_LENGTH = 256;
+
+    private final TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData;
+    private final TwitterKafkaStatusListener twitterKafkaStatusListener;
+    private final WebClient webClient;
+    private final RetryConfigData retryConfigData;
+    private final ManagedExecutors managedExecutors;
+    private final TwitterJsonFieldExtractor twitterJsonFieldExtractor;
+    private final RateLimitedLog skippedLineLog;
+    private final RateLimitedLog failedStatusLog;
+    private final LongAdder skippedLineCount = new LongAdder();
+    private final LongAdder failedStatusCount = new LongAdder();
+    private ExecutorService streamExecutor;
+    private Disposable subscription;
+
+    public TwitterV2KafkaStreamRunner(TwitterToKafkaServiceConfigData configData,
+            TwitterKafkaStatusListener statusListener, WebClient webClient, RetryConfigData retryConfigData,
+            ManagedExecutors managedExecutors, TwitterJsonFieldExtractor twitterJsonFieldExtractor,
+            LogSamplingConfigData logSamplingConfigData, MeterRegistry meterRegistry) {
+        this.twitterToKafkaServiceConfigData = configData;
+        this.twitterKafkaStatusListener = statusListener;
+        this.webClient = webClient;
+        this.retryConfigData = retryConfigData;
+        this.managedExecutors = managedExecutors;
+        this.twitterJsonFieldExtractor = twitterJsonFieldExtractor;
+        this.skippedLineLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
+        this.failedStatusLog = new RateLimitedLog(logSamplingConfigData.getIntervalMs());
+        FunctionCounter.builder("twitter.v2.stream.lines.skipped", skippedLineCount, LongAdder::sum)
+                .description("Twitter v2 stream lines skipped because they could not be parsed")
+                .register(meterRegistry);
+        FunctionCounter.builder("twitter.v2.stream.statuses.failed", failedStatusCount, LongAdder::sum)
+                .description("Twitter v2 statuses the status listener failed on")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        syncRules();
+        streamExecutor = managedExecutors.newExecutor("twitter-v2-stream");
+        subscription = Flux.defer(this::connect)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(retryConfigData.getInitialIntervalMs()))
+                        .maxBackoff(Duration.ofMillis(retryConfigData.getMaxIntervalMs()))
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> LOG.warn("Twitter v2 stream disconnected, reconnecting (attempt {})",
+                                signal.totalRetriesInARow() + 1, signal.failure())))
+                .publishOn(Schedulers.fromExecutorService(streamExecutor), STREAM_PREFETCH)
+                .subscribe(this::onTwitterAvroModel, e -> LOG.error("Twitter v2 stream terminated", e));
+        LOG.info("Started filtering twitter v2 stream for keywords {}",
+                twitterToKafkaServiceConfigData.getTwitterKeywords());
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (subscription != null) {
+            LOG.info("Closing twitter v2 stream");
+            subscription.dispose();
+        }
+        if (streamExecutor != null)
+            streamExecutor.shutdown();
+    }
+
+    public long getSkippedLineCount() {
+        return skippedLineCount.sum();
+    }
+
+    public long getFailedStatusCount() {
+        return failedStatusCount.sum();
+    }
+
+    private Flux<TwitterAvroModel> connect() {
+        NewlineDelimitedSplitter<TwitterAvroModel> splitter = new NewlineDelimitedSplitter<>(
+                twitterJsonFieldExtractor::extract, this::onBadLine);
+        return webClient.get()
+                .uri(twitterToKafkaServiceConfigData.getTwitterV2BaseUrl())
+                .headers(this::authorize)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .concatMapIterable(splitter::split)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .concatWith(Flux.error(() -> new TwitterToKafkaServiceException(
+                        "Twitter v2 stream was closed by the server!")));
+    }
+
+    private void onTwitterAvroModel(TwitterAvroModel model) {
+        try {
+            twitterKafkaStatusListener.onTwitterAvroModel(model);
+        } catch (RuntimeException e) {
+            failedStatusCount.increment();
+            if (failedStatusLog.tryAcquire())
+                LOG.error("Error while handling twitter v2 status with id {}, skipped it ({} more since)",
+                        model.getId(), failedStatusLog.takeSuppressedCount(), e);
+        }
+    }
+
+    private void onBadLine(byte[] bytes, int offset, int length, Exception e) {
+        skippedLineCount.increment();
+        if (skippedLineLog.tryAcquire())
+            LOG.warn("Skipped unparseable twitter v2 stream line ({} more since): {}",
+                    skippedLineLog.takeSuppressedCount(),
+                    new String(bytes, offset, Math.min(length, MAX_LOGGED_LINE_LENGTH), StandardCharsets.UTF_8), e);
+    }
+
+    private void syncRules() {
+        Set<String> missingKeywords = new LinkedHashSet<>(twitterToKafkaServiceConfigData.getTwitterKeywords());
+        List<String> staleRuleIds = new ArrayList<>();
+        try {
+            JsonNode rules = webClient.get()
+                    .uri(twitterToKafkaServiceConfigData.getTwitterV2RulesBaseUrl())
+                    .headers(this::authorize)
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block();
+            if (rules != null) {
+                for (JsonNode rule : rules.path("data")) {
+                    if (!missingKeywords.remove(rule.path("value").asText()))
+                        staleRuleIds.add(rule.path("id").asText());
+                }
+            }
+            if (!staleRuleIds.isEmpty())
+                postRules(Map.of("delete", Map.of("ids", staleRuleIds)));
+            if (!missingKeywords.isEmpty())
+                postRules(Map.of("add", missingKeywords.stream()
+                        .map(keyword -> Map.of("value", keyword, "tag", keyword))
+                        .collect(Collectors.toList())));
+        } catch (WebClientException e) {
+            throw new TwitterToKafkaServiceException("Error while syncing twitter v2 stream rules!", e);
+        }
+        LOG.info("Synced twitter v2 stream rules, {} added, {} removed", missingKeywords.size(), staleRuleIds.size());
+    }
+
+    private void postRules(Map<String, Object> body) {
+        webClient.post()
+                .uri(twitterToKafkaServiceConfigData.getTwitterV2RulesBaseUrl())
+                .headers(this::authorize)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .block();
+    }
+
+    private void authorize(HttpHeaders headers) {
+        headers.setBearerAuth(twitterToKafkaServiceConfigData.getTwitterV2BearerToken());
+    }
+}
@@ -0,0 +1,187 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Formats and parses tweet created_at values. Formatting renders the v1 layout in UTC and keeps the last rendered
+ * second, since generated tweets share a timestamp for a whole second. Parsing handles the fixed v1 layout
+ * ({@code EEE MMM dd HH:mm:ss +0000 yyyy}) and the v2 ISO layout by hand, straight to epoch millis; only zone names
+ * other than UTC and GMT fall back to {@link DateTimeFormatter}.
+ */
+@Component
+public class TwitterDateCodec {
+    private static final String TWITTER_DATE_PATTERN = "EEE MMM dd HH:mm:ss Z yyyy";
+    private static final DateTimeFormatter TWITTER_DATE_FORMATTER = DateTimeFormatter
+            .ofPattern(TWITTER_DATE_PATTERN, Locale.ENGLISH)
+            .withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter ZONE_NAME_DATE_FORMATTER = DateTimeFormatter
+            .ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.ENGLISH);
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+    private static final int TWITTER_DATE_LENGTH = 30;
+    private static final int ISO_DATE_MIN_LENGTH = 20;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private volatile FormattedSecond lastFormattedSecond = new FormattedSecond(Long.MIN_VALUE, null);
+
+    public String format(long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        FormattedSecond formattedSecond = lastFormattedSecond;
+        if (formattedSecond.epochSecond != epochSecond) {
+            formattedSecond = new FormattedSecond(epochSecond,
+                    TWITTER_DATE_FORMATTER.format(Instant.ofEpochSecond(epochSecond)));
+            lastFormattedSecond = formattedSecond;
+        }
+        return formattedSecond.formatted;
+    }
+
+    public long parse(String createdAt) {
+        return parse(createdAt.toCharArray(), 0, createdAt.length());
+    }
+
+    public long parse(char[] chars, int offset, int length) {
+        if (length >= ISO_DATE_MIN_LENGTH && chars[offset + 10] == 'T')
+            return parseIso(chars, offset, length);
+        return parseTwitter(chars, offset, length);
+    }
+
+    private long parseTwitter(char[] chars, int offset, int length) {
+        // EEE MMM dd HH:mm:ss +0000 yyyy, the zone may also be a name such as UTC
+        int zoneEnd = indexOf(chars, ' ', offset + 20, offset + length);
+        if (length < TWITTER_DATE_LENGTH - 2 || zoneEnd < 0 || offset + length - zoneEnd != 5
+                || chars[offset + 3] != ' ' || chars[offset + 7] != ' ' || chars[offset + 10] != ' '
+                || chars[offset + 19] != ' ')
+            throw invalid(chars, offset, length);
+        int offsetMinutes = zoneOffsetMinutes(chars, offset + 20, zoneEnd);
+        if (offsetMinutes == Integer.MIN_VALUE)
+            return parseWithZoneName(chars, offset, length);
+        int year = digits(chars, zoneEnd + 1, 4, offset, length);
+        int month = month(chars, offset + 4, offset, length);
+        int day = digits(chars, offset + 8, 2, offset, length);
+        long millis = epochMillis(year, month, day, chars, offset + 11, offset, length);
+        return millis - offsetMinutes * 60_000L;
+    }
+
+    private long parseIso(char[] chars, int offset, int length) {
+        // yyyy-MM-ddTHH:mm:ss[.SSS]Z, as sent by the v2 API
+        int end = offset + length;
+        if (chars[end - 1] != 'Z' || chars[offset + 4] != '-' || chars[offset + 7] != '-')
+            return Instant.parse(new String(chars, offset, length)).toEpochMilli();
+        int year = digits(chars, offset, 4, offset, length);
+        int month = digits(chars, offset + 5, 2, offset, length);
+        int day = digits(chars, offset + 8, 2, offset, length);
+        long millis = epochMillis(year, month, day, chars, offset + 11, offset, length);
+        int fractionStart = offset + 19;
+        if (fractionStart == end - 1)
+            return millis;
+        if (chars[fractionStart] != '.')
+            throw invalid(chars, offset, length);
+        int fraction = 0;
+        int scale = 100;
+        for (int i = fractionStart + 1; i < end - 1; i++) {
+            fraction += digits(chars, i, 1, offset, length) * scale;
+            scale /= 10;
+        }
+        return millis + fraction;
+    }
+
+    private long epochMillis(int year, int month, int day, char[] chars, int timeStart, int offset, int length) {
+        if (chars[timeStart + 2] != ':' || chars[timeStart + 5] != ':')
+            throw invalid(chars, offset, length);
+        int hour = digits(chars, timeStart, 2, offset, length);
+        int minute = digits(chars, timeStart + 3, 2, offset, length);
+        int second = digits(chars, timeStart + 6, 2, offset, length);
+        if (month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60)
+            throw invalid(chars, offset, length);
+        return epochDay(year, month, day) * MILLIS_PER_DAY + (hour * 3600L + minute * 60L + second) * 1000L;
+    }
+
+    private static long epochDay(int year, int month, int day) {
+        // days from civil, proleptic gregorian calendar
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int zoneOffsetMinutes(char[] chars, int start, int end) {
+        char sign = chars[start];
+        if ((sign == '+' || sign == '-') && end - start == 5) {
+            int hours = (chars[start + 1] - '0') * 10 + (chars[start + 2] - '0');
+            int minutes = (chars[start + 3] - '0') * 10 + (chars[start + 4] - '0');
+            int offsetMinutes = hours * 60 + minutes;
+            return sign == '-' ? -offsetMinutes : offsetMinutes;
+        }
+        if (end - start == 3 && (regionMatches(chars, start, "UTC") || regionMatches(chars, start, "GMT")))
+            return 0;
+        return Integer.MIN_VALUE;
+    }
+
+    private long parseWithZoneName(char[] chars, int offset, int length) {
+        String createdAt = new String(chars, offset, length);
+        try {
+            return ZonedDateTime.parse(createdAt, ZONE_NAME_DATE_FORMATTER).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw invalid(chars, offset, length);
+        }
+    }
+
+    private static int month(char[] chars, int start, int offset, int length) {
+        for (int i = 0; i < MONTHS.length(); i += 3) {
+            if (regionMatches(chars, start, MONTHS, i))
+                return i / 3 + 1;
+        }
+        throw invalid(chars, offset, length);
+    }
+
+    private static int digits(char[] chars, int start, int count, int offset, int length) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw invalid(chars, offset, length);
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean regionMatches(char[] chars, int start, String expected) {
+        return regionMatches(chars, start, expected, 0);
+    }
+
+    private static boolean regionMatches(char[] chars, int start, String expected, int expectedStart) {
+        return chars[start] == expected.charAt(expectedStart) && chars[start + 1] == expected.charAt(expectedStart + 1)
+                && chars[start + 2] == expected.charAt(expectedStart + 2);
+    }
+
+    private static int indexOf(char[] chars, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (chars[i] == c)
+                return i;
+        }
+        return -1;
+    }
+
+    private static DateTimeParseException invalid(char[] chars, int offset, int length) {
+        String text = new String(chars, offset, length);
+        return new DateTimeParseException("Invalid tweet created_at: " + text, text, 0);
+    }
+
+    private static final class FormattedSecond {
+        private final long epochSecond;
+        private final String formatted;
+
+        private FormattedSecond(long epochSecond, String formatted) {
+            this.epochSecond = epochSecond;
+            this.formatted = formatted;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+/**
+ * Pulls the fields the avro model needs straight out of raw tweet JSON with a streaming parser, skipping
+ * everything else, instead of building a twitter4j {@code Status} graph first. Both the v1 layout ({@code id},
+ * {@code user.id}) and the v2 filtered-stream layout ({@code data.id}, {@code data.author_id}) are understood.
+ * A tweet without an id, text or creation time is rejected, as the model requires all three.
+ * <p>
+ * A model passed in is overwritten, so it can be reused by a caller that owns it until it has been serialized.
+ */
+@Component
+public class TwitterJsonFieldExtractor {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int CREATED_AT_FIELD = TwitterAvroModel.getClassSchema().getField("createdAt").pos();
+
+    private final TwitterDateCodec twitterDateCodec;
+
+    public TwitterJsonFieldExtractor(TwitterDateCodec twitterDateCodec) {
+        this.twitterDateCodec = twitterDateCodec;
+    }
+
+    public TwitterAvroModel extract(byte[] json, int offset, int length) throws IOException {
+        TwitterAvroModel twitterAvroModel = new TwitterAvroModel();
+        return extract(json, offset, length, twitterAvroModel) ? twitterAvroModel : null;
+    }
+
+    public boolean extract(byte[] json, int offset, int length, TwitterAvroModel target) throws IOException {
+        target.setId(0);
+        target.setUserId(0);
+        target.setText(null);
+        target.put(CREATED_AT_FIELD, null);
+        target.setKeyword(null);
+        target.setKeywords(List.of());
+        target.setLang(null);
+        try (JsonParser parser = JSON_FACTORY.createParser(json, offset, length)) {
+            return parser.nextToken() == JsonToken.START_OBJECT && readTweet(parser, target, true)
+                    && target.getText() != null && target.getCreatedAt() != null;
+        }
+    }
+
+    private boolean readTweet(JsonParser parser, TwitterAvroModel target, boolean topLevel) throws IOException {
+        boolean hasId = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "data":
+                    if (topLevel && value == JsonToken.START_OBJECT)
+                        return readTweet(parser, target, false);
+                    parser.skipChildren();
+                    break;
+                case "id":
+                    target.setId(longValue(parser));
+                    hasId = true;
+                    break;
+                case "author_id":
+                    target.setUserId(longValue(parser));
+                    break;
+                case "user":
+                    if (value == JsonToken.START_OBJECT)
+                        target.setUserId(readUserId(parser));
+                    else
+                        parser.skipChildren();
+                    break;
+                case "text":
+                    target.setText(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                    break;
+                case "created_at":
+                    if (value != JsonToken.VALUE_NULL)
+                        target.setCreatedAt(Instant.ofEpochMilli(parseCreatedAt(parser)));
+                    break;
+                case "lang":
+                    target.setLang(value == JsonToken.VALUE_NULL ? null : parser.getText());
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return hasId;
+    }
+
+    private long readUserId(JsonParser parser) throws IOException {
+        long userId = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("id".equals(field))
+                userId = longValue(parser);
+            else
+                parser.skipChildren();
+        }
+        return userId;
+    }
+
+    private long longValue(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT)
+            return parser.getLongValue();
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+        long value = 0;
+        for (int i = offset; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new IOException("Invalid numeric id in tweet json: " + parser.getText());
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private long parseCreatedAt(JsonParser parser) throws IOException {
+        try {
+            return twitterDateCodec.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        } catch (DateTimeParseException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
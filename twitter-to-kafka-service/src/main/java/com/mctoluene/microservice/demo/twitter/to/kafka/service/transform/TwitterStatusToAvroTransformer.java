@@ -1,21 +1,48 @@
 package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
 
+import java.util.concurrent.TimeUnit;
+
 import org.springframework.stereotype.Component;
 
+import com.mctoluene.microservice.demo.common.metrics.SampledTimer;
+import com.mctoluene.microservice.demo.config.MetricsConfigData;
 import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import twitter4j.Status;
 
 @Component
 public class TwitterStatusToAvroTransformer {
+    private final SampledTimer transformTimer;
+    private final SampledTimer transformLagTimer;
+
+    public TwitterStatusToAvroTransformer(MetricsConfigData metricsConfigData, MeterRegistry meterRegistry) {
+        this.transformTimer = new SampledTimer(Timer.builder("twitter.status.transform")
+                .description("Time spent transforming a status to its avro model")
+                .publishPercentileHistogram()
+                .register(meterRegistry), metricsConfigData.getTimerSampleRate());
+        this.transformLagTimer = new SampledTimer(Timer.builder("twitter.status.transform.lag")
+                .description("Time from tweet creation to transform complete")
+                .publishPercentileHistogram()
+                .register(meterRegistry), metricsConfigData.getTimerSampleRate());
+    }
 
     public TwitterAvroModel geTwitterAvroModelFromStatus(Status status) {
-        return TwitterAvroModel
+        long startNanos = transformTimer.start();
+        TwitterAvroModel twitterAvroModel = TwitterAvroModel
                 .newBuilder()
                 .setId(status.getId())
                 .setUserId(status.getUser().getId())
                 .setText(status.getText())
-                .setCreatedAt(status.getCreatedAt().getTime())
+                .setCreatedAt(status.getCreatedAt().toInstant())
+                .setLang(status.getLang())
                 .build();
+        if (startNanos != SampledTimer.NOT_SAMPLED) {
+            transformTimer.stop(startNanos);
+            transformLagTimer.record(System.currentTimeMillis() - twitterAvroModel.getCreatedAt().toEpochMilli(),
+                    TimeUnit.MILLISECONDS);
+        }
+        return twitterAvroModel;
     }
 }
@@ -0,0 +1,75 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LongIdSetTest {
+
+    @Test
+    void addsEachIdOnce() {
+        LongIdSet set = new LongIdSet(16);
+
+        assertThat(set.add(42)).isTrue();
+        assertThat(set.add(42)).isFalse();
+        assertThat(set.contains(42)).isTrue();
+        assertThat(set.contains(43)).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tracksZeroAndNegativeIds() {
+        LongIdSet set = new LongIdSet(16);
+
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.add(-1)).isTrue();
+        assertThat(set.add(Long.MIN_VALUE)).isTrue();
+        assertThat(set.contains(0)).isTrue();
+        assertThat(set.contains(Long.MIN_VALUE)).isTrue();
+        assertThat(set.size()).isEqualTo(3);
+    }
+
+    @Test
+    void sizesSlotsToAPowerOfTwoNotBelowTheCapacity() {
+        assertThat(new LongIdSet(16).slotCount()).isEqualTo(16);
+        assertThat(new LongIdSet(17).slotCount()).isEqualTo(32);
+        assertThat(new LongIdSet(1).slotCount()).isEqualTo(4);
+    }
+
+    @Test
+    void agreesWithAHashSetUpToCapacity() {
+        int capacity = 10_000;
+        LongIdSet set = new LongIdSet(capacity);
+        Set<Long> expected = new HashSet<>();
+        SplittableRandom random = new SplittableRandom(42);
+        while (expected.size() < capacity) {
+            // a narrow range, so collisions and repeats are common
+            long id = 1_550_000_000_000_000_000L + random.nextInt(3 * capacity);
+            assertThat(set.add(id)).isEqualTo(expected.add(id));
+        }
+        for (long id = 1_550_000_000_000_000_000L; id < 1_550_000_000_000_000_000L + 3 * capacity; id++) {
+            assertThat(set.contains(id)).isEqualTo(expected.contains(id));
+        }
+        assertThat(set.size()).isEqualTo(capacity);
+    }
+
+    @Test
+    void forgetsEverythingOnClear() {
+        LongIdSet set = new LongIdSet(16);
+        set.add(0);
+        set.add(7);
+
+        set.clear();
+
+        assertThat(set.size()).isZero();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.contains(7)).isFalse();
+        assertThat(set.add(7)).isTrue();
+    }
+}
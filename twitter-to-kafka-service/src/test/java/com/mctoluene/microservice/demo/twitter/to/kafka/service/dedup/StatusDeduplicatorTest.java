@@ -0,0 +1,65 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.mctoluene.microservice.demo.config.DeduplicationConfigData;
+
+class StatusDeduplicatorTest {
+
+    @Test
+    void dropsDuplicatesAndCountsThem() {
+        StatusDeduplicator deduplicator = deduplicator(true, 60_000, 10_000);
+
+        assertThat(deduplicator.firstSeen(1)).isTrue();
+        assertThat(deduplicator.firstSeen(2)).isTrue();
+        assertThat(deduplicator.firstSeen(1)).isFalse();
+
+        assertThat(deduplicator.getMissCount()).isEqualTo(2);
+        assertThat(deduplicator.getHitCount()).isEqualTo(1);
+        assertThat(deduplicator.getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void letsEverythingThroughWhenDisabled() {
+        StatusDeduplicator deduplicator = deduplicator(false, 60_000, 10_000);
+
+        assertThat(deduplicator.firstSeen(1)).isTrue();
+        assertThat(deduplicator.firstSeen(1)).isTrue();
+        assertThat(deduplicator.getSize()).isZero();
+    }
+
+    @Test
+    void staysWithinMaxEntries() {
+        int maxEntries = 3200;
+        StatusDeduplicator deduplicator = deduplicator(true, 60_000, maxEntries);
+        for (long id = 1; id <= 100_000; id++) {
+            assertThat(deduplicator.firstSeen(id)).isTrue();
+        }
+
+        assertThat(deduplicator.getSize()).isLessThanOrEqualTo(maxEntries);
+        assertThat(deduplicator.getEvictionCount()).isGreaterThan(0);
+        assertThat(deduplicator.firstSeen(1)).as("the oldest id has been forgotten").isTrue();
+        assertThat(deduplicator.firstSeen(100_000)).as("the newest id is still known").isFalse();
+    }
+
+    @Test
+    void forgetsIdsAfterTheTtl() throws InterruptedException {
+        StatusDeduplicator deduplicator = deduplicator(true, 100, 10_000);
+        assertThat(deduplicator.firstSeen(1)).isTrue();
+        assertThat(deduplicator.firstSeen(1)).isFalse();
+
+        Thread.sleep(250);
+
+        assertThat(deduplicator.firstSeen(1)).isTrue();
+    }
+
+    private static StatusDeduplicator deduplicator(boolean enabled, long ttlMs, int maxEntries) {
+        DeduplicationConfigData configData = new DeduplicationConfigData();
+        configData.setEnabled(enabled);
+        configData.setTtlMs(ttlMs);
+        configData.setMaxEntries(maxEntries);
+        return new StatusDeduplicator(configData);
+    }
+}
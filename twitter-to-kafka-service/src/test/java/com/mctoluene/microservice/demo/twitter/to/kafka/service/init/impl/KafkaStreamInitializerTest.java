@@ -0,0 +1,86 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.init.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.KeywordRoutingConfigData;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.kafka.admin.client.KafkaAdminClient;
+import com.mctoluene.microservice.demo.kafka.admin.exception.KafkaClientException;
+import com.mctoluene.microservice.demo.kafka.producer.config.serializer.SchemaIdCache;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword.KeywordTopicRouter;
+
+class KafkaStreamInitializerTest {
+    private static final long INIT_TIMEOUT_MS = 200;
+
+    private final KafkaAdminClient kafkaAdminClient = mock(KafkaAdminClient.class);
+    private ManagedExecutors managedExecutors;
+    private KafkaStreamInitializer kafkaStreamInitializer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        kafkaConfigData.setTopicNamesToCreate(List.of("twitter-topic"));
+        kafkaConfigData.setValueSchemaVersion(1);
+        TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData = new TwitterToKafkaServiceConfigData();
+        twitterToKafkaServiceConfigData.setTwitterKeywords(List.of("Java", "Kafka"));
+        twitterToKafkaServiceConfigData.setInitTimeoutMs(INIT_TIMEOUT_MS);
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(false);
+        executorConfigData.setShutdownTimeoutMs(1000L);
+        managedExecutors = new ManagedExecutors(executorConfigData);
+        ObjectProvider<KafkaAdminClient> kafkaAdminClientProvider = mock(ObjectProvider.class);
+        when(kafkaAdminClientProvider.getObject()).thenReturn(kafkaAdminClient);
+        KeywordTopicRouter keywordTopicRouter = new KeywordTopicRouter(kafkaConfigData,
+                new KeywordRoutingConfigData(), twitterToKafkaServiceConfigData);
+        kafkaStreamInitializer = new KafkaStreamInitializer(kafkaConfigData, twitterToKafkaServiceConfigData,
+                kafkaAdminClientProvider, new SchemaIdCache(), keywordTopicRouter, managedExecutors);
+    }
+
+    @AfterEach
+    void tearDown() {
+        managedExecutors.shutDown();
+    }
+
+    @Test
+    void timesOutWhileTheAdminClientIsStillRetrying() {
+        when(kafkaAdminClient.createTopicAsync()).thenReturn(new CompletableFuture<>());
+        when(kafkaAdminClient.checkSchemaRegistryAsync()).thenReturn(new CompletableFuture<>());
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> kafkaStreamInitializer.init().get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(INIT_TIMEOUT_MS, 4_000L);
+    }
+
+    @Test
+    void failsAsSoonAsTheTopicsFailWhileTheSchemaIsPending() {
+        when(kafkaAdminClient.createTopicAsync()).thenReturn(CompletableFuture.failedFuture(
+                new KafkaClientException("Reached max number of retry for creating kafka topic(s)!")));
+        when(kafkaAdminClient.checkSchemaRegistryAsync()).thenReturn(new CompletableFuture<>());
+
+        // Waiting for the schema would end in a TimeoutException instead
+        assertThatThrownBy(() -> kafkaStreamInitializer.init().get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(KafkaClientException.class);
+    }
+}
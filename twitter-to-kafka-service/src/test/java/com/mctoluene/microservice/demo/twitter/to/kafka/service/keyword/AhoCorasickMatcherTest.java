@@ -0,0 +1,106 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class AhoCorasickMatcherTest {
+
+    @Test
+    void findsKeywordsIgnoringCase() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("Java", "Kafka", "Spring"));
+
+        assertThat(matcher.match("Streaming KAFKA events with spring boot")).containsExactly(1, 2);
+        assertThat(matcher.match("nothing to see here")).isEmpty();
+        assertThat(matcher.keywordCount()).isEqualTo(3);
+    }
+
+    @Test
+    void foldsCaseBeyondAscii() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("straße", "ΣΟΦΊΑ"));
+
+        assertThat(matcher.match("STRAẞE")).containsExactly(0);
+        // Folding is per char, as in regionMatches, so ß never matches ss
+        assertThat(matcher.match("STRASSE")).isEmpty();
+        assertThat(matcher.match("η σοφία")).containsExactly(1);
+    }
+
+    @Test
+    void findsOverlappingAndNestedKeywords() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("he", "she", "his", "hers", "e"));
+
+        assertThat(matcher.match("ushers")).containsExactly(0, 1, 3, 4);
+        assertThat(matcher.match("ahishers")).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    @Test
+    void reportsEachKeywordOnceInConfiguredOrder() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("spring", "java", "kafka"));
+
+        assertThat(matcher.match("kafka java kafka spring java")).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void neverMatchesAnEmptyKeyword() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("", "java"));
+
+        assertThat(matcher.match("java")).containsExactly(1);
+        assertThat(matcher.match("")).isEmpty();
+    }
+
+    @Test
+    void handlesMoreThanSixtyFourKeywords() {
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            keywords.add("kw" + i + "x");
+        }
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(keywords);
+
+        assertThat(matcher.match("kw0x kw64x kw129x kw64x")).containsExactly(0, 64, 129);
+    }
+
+    @Test
+    void agreesWithARegionMatchesScan() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            keywords.add(randomWord(random, 1 + random.nextInt(5)));
+        }
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(keywords);
+
+        for (int i = 0; i < 2_000; i++) {
+            String text = randomWord(random, random.nextInt(60));
+            assertThat(matcher.match(text)).as(text).containsExactly(regionMatches(keywords, text));
+        }
+    }
+
+    // A small alphabet in mixed case, so keywords overlap and recur often
+    private static String randomWord(SplittableRandom random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(4));
+            word.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return word.toString();
+    }
+
+    private static int[] regionMatches(List<String> keywords, String text) {
+        int[] found = new int[keywords.size()];
+        int count = 0;
+        for (int i = 0; i < keywords.size(); i++) {
+            String keyword = keywords.get(i);
+            for (int offset = 0, last = text.length() - keyword.length(); offset <= last; offset++) {
+                if (text.regionMatches(true, offset, keyword, 0, keyword.length())) {
+                    found[count++] = i;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+}
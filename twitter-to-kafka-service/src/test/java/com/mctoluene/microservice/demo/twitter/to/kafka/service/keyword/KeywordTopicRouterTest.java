@@ -0,0 +1,59 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.keyword;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mctoluene.microservice.demo.config.KafkaConfigData;
+import com.mctoluene.microservice.demo.config.KeywordRoutingConfigData;
+import com.mctoluene.microservice.demo.config.KeywordRoutingConfigData.Route;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.exception.TwitterToKafkaServiceException;
+
+class KeywordTopicRouterTest {
+    private static final List<String> KEYWORDS = List.of("Java", "Microservices", "Kafka", "Elasticsearch");
+
+    @Test
+    void routesMatchedKeywordsAndFallsBackToTopicName() {
+        KeywordTopicRouter router = router(3, true);
+
+        assertThat(router.topicsOf(new int[] { 0 })).containsExactly("twitter-jvm-topic");
+        assertThat(router.topicsOf(new int[] { 0, 2 })).containsExactly("twitter-jvm-topic", "twitter-topic");
+        assertThat(router.topicsOf(new int[] {})).containsExactly("twitter-topic");
+        assertThat(router.getTopics()).containsExactly("twitter-topic", "twitter-jvm-topic");
+    }
+
+    @Test
+    void sendsEverythingToTopicNameWhenDisabled() {
+        KeywordTopicRouter router = router(1, false);
+
+        assertThat(router.topicsOf(new int[] { 0, 1 })).containsExactly("twitter-topic");
+        assertThat(router.getTopics()).containsExactly("twitter-topic");
+    }
+
+    @Test
+    void refusesToRouteUnlessTheMatchedKeywordsAreWritten() {
+        assertThatThrownBy(() -> router(1, true)).isInstanceOf(TwitterToKafkaServiceException.class)
+                .hasMessageContaining("value-schema-version 3");
+        assertThatThrownBy(() -> router(2, true)).isInstanceOf(TwitterToKafkaServiceException.class);
+    }
+
+    private static KeywordTopicRouter router(int valueSchemaVersion, boolean enabled) {
+        KafkaConfigData kafkaConfigData = new KafkaConfigData();
+        kafkaConfigData.setTopicName("twitter-topic");
+        kafkaConfigData.setTopicNamesToCreate(List.of("twitter-topic", "twitter-jvm-topic"));
+        kafkaConfigData.setValueSchemaVersion(valueSchemaVersion);
+        Route route = new Route();
+        route.setTopic("twitter-jvm-topic");
+        route.setKeywords(List.of("java", "Microservices"));
+        KeywordRoutingConfigData keywordRoutingConfigData = new KeywordRoutingConfigData();
+        keywordRoutingConfigData.setEnabled(enabled);
+        keywordRoutingConfigData.setRoutes(List.of(route));
+        TwitterToKafkaServiceConfigData twitterToKafkaServiceConfigData = new TwitterToKafkaServiceConfigData();
+        twitterToKafkaServiceConfigData.setTwitterKeywords(KEYWORDS);
+        return new KeywordTopicRouter(kafkaConfigData, keywordRoutingConfigData, twitterToKafkaServiceConfigData);
+    }
+}
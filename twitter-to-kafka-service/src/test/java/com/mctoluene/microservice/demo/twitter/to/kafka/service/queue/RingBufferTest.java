@@ -0,0 +1,108 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertThat(new RingBuffer<Integer>(2).capacity()).isEqualTo(2);
+        assertThat(new RingBuffer<Integer>(5).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<Integer>(8192).capacity()).isEqualTo(8192);
+        assertThatThrownBy(() -> new RingBuffer<Integer>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pollsInOfferOrderAndRejectsWhenFull() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ringBuffer.offer(i)).isTrue();
+        }
+        assertThat(ringBuffer.offer(4)).isFalse();
+        assertThat(ringBuffer.size()).isEqualTo(4);
+
+        assertThat(ringBuffer.poll()).isZero();
+        assertThat(ringBuffer.offer(4)).isTrue();
+        for (int i = 1; i <= 4; i++) {
+            assertThat(ringBuffer.poll()).isEqualTo(i);
+        }
+        assertThat(ringBuffer.poll()).isNull();
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void wrapsAroundManyTimes() {
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(2);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(ringBuffer.offer(i)).isTrue();
+            assertThat(ringBuffer.poll()).isEqualTo(i);
+        }
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void deliversEveryElementOnceAcrossProducersAndConsumers() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 10_000;
+        RingBuffer<Integer> ringBuffer = new RingBuffer<>(64);
+        ConcurrentLinkedQueue<Integer> polled = new ConcurrentLinkedQueue<>();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            List<Future<?>> producerFutures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                producerFutures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + perProducer; i++) {
+                        while (!ringBuffer.offer(i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> consumerFutures = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                consumerFutures.add(executor.submit(() -> {
+                    start.await();
+                    while (producing.get() || !ringBuffer.isEmpty()) {
+                        Integer element = ringBuffer.poll();
+                        if (element != null)
+                            polled.add(element);
+                        else
+                            Thread.yield();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : producerFutures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            producing.set(false);
+            for (Future<?> future : consumerFutures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(polled).hasSize(producers * perProducer).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,103 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.StatusQueueConfigData;
+import com.mctoluene.microservice.demo.config.StatusQueueConfigData.OverflowPolicy;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.publisher.TwitterStatusPublisher;
+
+class StatusDispatcherTest {
+    private final TwitterStatusPublisher twitterStatusPublisher = mock(TwitterStatusPublisher.class);
+    private StatusDispatcher statusDispatcher;
+
+    @AfterEach
+    void tearDown() {
+        statusDispatcher.shutDown();
+    }
+
+    @Test
+    void publishesAnOverflowingStatusOnlyToTheTopicsItWasNotSpilledFor() {
+        statusDispatcher = dispatcher(2, 2);
+        TwitterAvroModel spilled = model(3);
+        when(twitterStatusPublisher.publishBatch(anyCollection()))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(twitterStatusPublisher.spill(spilled)).thenReturn(List.of("twitter-topic-java"));
+
+        statusDispatcher.dispatch(model(1));
+        statusDispatcher.dispatch(model(2));
+        statusDispatcher.dispatch(spilled);
+        assertThat(statusDispatcher.getSpillDepth()).isEqualTo(1);
+        statusDispatcher.startWorkers();
+
+        verify(twitterStatusPublisher, timeout(5_000)).publish(spilled, List.of("twitter-topic-java"));
+        verify(twitterStatusPublisher, never()).publish(spilled);
+        assertThat(statusDispatcher.getSpilledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void queuesNothingTheJournalTookForEveryTopic() {
+        statusDispatcher = dispatcher(2, 2);
+        TwitterAvroModel spilled = model(3);
+        when(twitterStatusPublisher.spill(spilled)).thenReturn(List.of());
+
+        statusDispatcher.dispatch(model(1));
+        statusDispatcher.dispatch(model(2));
+        statusDispatcher.dispatch(spilled);
+
+        assertThat(statusDispatcher.getSpillDepth()).isZero();
+        assertThat(statusDispatcher.getSpilledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsWhatTheFullSpillQueueCannotTake() {
+        statusDispatcher = dispatcher(2, 2);
+        for (long id = 3; id <= 5; id++) {
+            when(twitterStatusPublisher.spill(model(id))).thenReturn(List.of("twitter-topic"));
+        }
+
+        for (long id = 1; id <= 5; id++) {
+            statusDispatcher.dispatch(model(id));
+        }
+
+        assertThat(statusDispatcher.getSpillDepth()).isEqualTo(2);
+        assertThat(statusDispatcher.getDroppedCount()).isEqualTo(1);
+    }
+
+    private StatusDispatcher dispatcher(int capacity, int batchSize) {
+        StatusQueueConfigData statusQueueConfigData = new StatusQueueConfigData();
+        statusQueueConfigData.setEnabled(true);
+        statusQueueConfigData.setCapacity(capacity);
+        statusQueueConfigData.setWorkerCount(1);
+        statusQueueConfigData.setBatchSize(batchSize);
+        statusQueueConfigData.setOverflowPolicy(OverflowPolicy.SPILL);
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(false);
+        executorConfigData.setShutdownTimeoutMs(1_000L);
+        LogSamplingConfigData logSamplingConfigData = new LogSamplingConfigData();
+        logSamplingConfigData.setIntervalMs(1_000L);
+        return new StatusDispatcher(statusQueueConfigData, twitterStatusPublisher,
+                new ManagedExecutors(executorConfigData), logSamplingConfigData);
+    }
+
+    private static TwitterAvroModel model(long id) {
+        return TwitterAvroModel.newBuilder().setId(id).setUserId(42).setText("tweet " + id)
+                .setCreatedAt(Instant.ofEpochMilli(id * 1000)).build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class KeywordShardsTest {
+    private static final List<String> KEYWORDS = List.of("Java", "Kafka", "Spring", "Avro", "Elastic");
+
+    @Test
+    void dealsKeywordsRoundRobin() {
+        List<String[]> shards = KeywordShards.split(KEYWORDS, 2);
+
+        assertThat(shards).hasSize(2);
+        assertThat(shards.get(0)).containsExactly("Java", "Spring", "Elastic");
+        assertThat(shards.get(1)).containsExactly("Kafka", "Avro");
+    }
+
+    @Test
+    void makesNoMoreShardsThanKeywordsAndAtLeastOne() {
+        assertThat(KeywordShards.split(KEYWORDS, 10)).hasSize(KEYWORDS.size());
+        assertThat(KeywordShards.split(KEYWORDS, null)).hasSize(1);
+        assertThat(KeywordShards.split(KEYWORDS, 0).get(0)).hasSize(KEYWORDS.size());
+    }
+}
@@ -0,0 +1,72 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class NewlineDelimitedSplitterTest {
+    private static final String BODY = "first\r\n\r\nsecond line\n\nthird\n";
+
+    @Test
+    void splitsLinesAtEveryChunkBoundary() {
+        byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+        for (int first = 0; first <= bytes.length; first++) {
+            for (int second = first; second <= bytes.length; second++) {
+                NewlineDelimitedSplitter<String> splitter = new NewlineDelimitedSplitter<>(
+                        NewlineDelimitedSplitterTest::parse, NewlineDelimitedSplitterTest::fail);
+                List<String> lines = new ArrayList<>();
+                lines.addAll(splitter.split(buffer(bytes, 0, first)));
+                lines.addAll(splitter.split(buffer(bytes, first, second)));
+                lines.addAll(splitter.split(buffer(bytes, second, bytes.length)));
+
+                assertThat(lines).as("chunks split at %d and %d", first, second)
+                        .containsExactly("first", "second line", "third");
+            }
+        }
+    }
+
+    @Test
+    void keepsAnUnterminatedLineUntilItsNewlineArrives() {
+        NewlineDelimitedSplitter<String> splitter = new NewlineDelimitedSplitter<>(
+                NewlineDelimitedSplitterTest::parse, NewlineDelimitedSplitterTest::fail);
+        byte[] bytes = "partial".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(splitter.split(buffer(bytes, 0, bytes.length))).isEmpty();
+        assertThat(splitter.split(buffer(new byte[] { '\n' }, 0, 1))).containsExactly("partial");
+    }
+
+    @Test
+    void skipsALineTheParserRejectsAndKeepsTheRest() {
+        List<String> badLines = new ArrayList<>();
+        NewlineDelimitedSplitter<String> splitter = new NewlineDelimitedSplitter<>((line, offset, length) -> {
+            String parsed = parse(line, offset, length);
+            if (parsed.startsWith("bad"))
+                throw new IOException("Unexpected token in " + parsed);
+            return parsed;
+        }, (line, offset, length, e) -> badLines.add(parse(line, offset, length)));
+        byte[] bytes = "first\nbad json\nsecond\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(splitter.split(buffer(bytes, 0, bytes.length))).containsExactly("first", "second");
+        assertThat(badLines).containsExactly("bad json");
+    }
+
+    private static String parse(byte[] line, int offset, int length) {
+        return new String(line, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static void fail(byte[] line, int offset, int length, Exception e) {
+        throw new AssertionError("Rejected line " + parse(line, offset, length), e);
+    }
+
+    private static DataBuffer buffer(byte[] bytes, int from, int to) {
+        DataBuffer dataBuffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(Math.max(1, to - from));
+        return dataBuffer.write(bytes, from, to - from);
+    }
+}
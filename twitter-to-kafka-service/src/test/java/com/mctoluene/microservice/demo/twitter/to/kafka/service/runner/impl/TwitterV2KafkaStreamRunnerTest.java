@@ -0,0 +1,222 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.runner.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mctoluene.microservice.demo.common.concurrent.ManagedExecutors;
+import com.mctoluene.microservice.demo.config.ExecutorConfigData;
+import com.mctoluene.microservice.demo.config.LogSamplingConfigData;
+import com.mctoluene.microservice.demo.config.RetryConfigData;
+import com.mctoluene.microservice.demo.config.TwitterToKafkaServiceConfigData;
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.listener.TwitterKafkaStatusListener;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterDateCodec;
+import com.mctoluene.microservice.demo.twitter.to.kafka.service.transform.TwitterJsonFieldExtractor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the v2 stream runner against a stub of the rules and stream endpoints.
+ */
+class TwitterV2KafkaStreamRunnerTest {
+    private static final long INITIAL_INTERVAL_MS = 100;
+    private static final long MAX_INTERVAL_MS = 400;
+    private static final int FAILING_CONNECTIONS = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> postedRules = new CopyOnWriteArrayList<>();
+    private final List<Long> connectNanos = new CopyOnWriteArrayList<>();
+    private final List<Long> receivedIds = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile boolean malformedFirstConnection;
+    private HttpServer server;
+    private ManagedExecutors managedExecutors;
+    private TwitterV2KafkaStreamRunner runner;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rules", this::handleRules);
+        server.createContext("/stream", this::handleStream);
+        server.start();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        TwitterToKafkaServiceConfigData configData = new TwitterToKafkaServiceConfigData();
+        configData.setTwitterKeywords(List.of("Java", "Kafka"));
+        configData.setTwitterV2BaseUrl(baseUrl + "/stream");
+        configData.setTwitterV2RulesBaseUrl(baseUrl + "/rules");
+        configData.setTwitterV2BearerToken("token");
+        RetryConfigData retryConfigData = new RetryConfigData();
+        retryConfigData.setInitialIntervalMs(INITIAL_INTERVAL_MS);
+        retryConfigData.setMaxIntervalMs(MAX_INTERVAL_MS);
+        ExecutorConfigData executorConfigData = new ExecutorConfigData();
+        executorConfigData.setVirtualThreads(false);
+        executorConfigData.setShutdownTimeoutMs(1000L);
+        managedExecutors = new ManagedExecutors(executorConfigData);
+
+        TwitterKafkaStatusListener statusListener = mock(TwitterKafkaStatusListener.class);
+        doAnswer(invocation -> {
+            long id = invocation.<TwitterAvroModel>getArgument(0).getId();
+            if (malformedFirstConnection && id == 2)
+                throw new IllegalStateException("Listener failed on " + id);
+            return receivedIds.add(id);
+        }).when(statusListener).onTwitterAvroModel(any());
+        LogSamplingConfigData logSamplingConfigData = new LogSamplingConfigData();
+        logSamplingConfigData.setIntervalMs(1000L);
+        runner = new TwitterV2KafkaStreamRunner(configData, statusListener, WebClient.create(), retryConfigData,
+                managedExecutors, new TwitterJsonFieldExtractor(new TwitterDateCodec()), logSamplingConfigData,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutDown();
+        managedExecutors.shutDown();
+        server.stop(0);
+    }
+
+    @Test
+    void syncsRulesWithTheConfiguredKeywords() {
+        runner.start();
+
+        assertThat(postedRules).hasSize(2);
+        assertThat(postedRules.get(0).path("delete").path("ids"))
+                .extracting(JsonNode::asText).containsExactly("2");
+        assertThat(postedRules.get(1).path("add"))
+                .extracting(rule -> rule.path("value").asText()).containsExactly("Kafka");
+    }
+
+    @Test
+    void splitsTweetsAcrossChunksAndSkipsKeepAlives() {
+        runner.start();
+
+        await(() -> receivedIds.size() >= 3);
+        assertThat(receivedIds.subList(0, 3)).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void skipsBadLinesAndFailedStatusesWithoutDroppingTheConnection() {
+        malformedFirstConnection = true;
+        runner.start();
+
+        await(() -> receivedIds.contains(3L));
+        // A torn down stream would lose tweet 3, which arrives in the same chunk as the bad line
+        assertThat(receivedIds.subList(0, 2)).containsExactly(1L, 3L);
+        assertThat(runner.getSkippedLineCount()).isEqualTo(1);
+        assertThat(runner.getFailedStatusCount()).isEqualTo(1);
+        await(() -> receivedIds.contains(100L + FAILING_CONNECTIONS + 2));
+    }
+
+    @Test
+    void reconnectsWithBackoffAfterDisconnects() {
+        runner.start();
+
+        await(() -> receivedIds.contains(100L + FAILING_CONNECTIONS + 2));
+        assertThat(connections.get()).isGreaterThanOrEqualTo(FAILING_CONNECTIONS + 2);
+        for (int i = 1; i <= FAILING_CONNECTIONS + 1; i++) {
+            assertThat(gapMs(i)).as("delay before connection %d", i + 1)
+                    .isGreaterThanOrEqualTo(INITIAL_INTERVAL_MS - 10);
+        }
+        // the third failure in a row backs off from 400 ms, and jitter takes off at most half of that
+        assertThat(gapMs(FAILING_CONNECTIONS)).isGreaterThanOrEqualTo(MAX_INTERVAL_MS / 2 - 10);
+    }
+
+    private void handleRules(HttpExchange exchange) throws IOException {
+        if ("POST".equals(exchange.getRequestMethod())) {
+            postedRules.add(objectMapper.readTree(exchange.getRequestBody()));
+            respond(exchange, 200, "{}");
+        } else {
+            respond(exchange, 200, "{\"data\":[{\"id\":\"1\",\"value\":\"Java\"},{\"id\":\"2\",\"value\":\"Stale\"}]}");
+        }
+    }
+
+    // The first connection streams three tweets split across chunks, the next ones fail, and every later one
+    // streams a single tweet before the server closes it
+    private void handleStream(HttpExchange exchange) throws IOException {
+        connectNanos.add(System.nanoTime());
+        int connection = connections.incrementAndGet();
+        if (connection > 1 && connection <= FAILING_CONNECTIONS + 1) {
+            respond(exchange, 503, "{}");
+            return;
+        }
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            if (connection == 1 && malformedFirstConnection) {
+                writeChunk(body, tweet(1) + "\n{\"data\":{\"id\":\n" + tweet(2) + "\n" + tweet(3) + "\n");
+            } else if (connection == 1) {
+                String tweets = tweet(1) + "\r\n\r\n" + tweet(2) + "\n" + tweet(3) + "\n";
+                int[] splits = { 17, tweets.indexOf(tweet(2)) + 5, tweets.lastIndexOf('\n') - 3 };
+                int from = 0;
+                for (int split : splits) {
+                    writeChunk(body, tweets.substring(from, split));
+                    from = split;
+                }
+                writeChunk(body, tweets.substring(from));
+            } else {
+                writeChunk(body, tweet(100 + connection) + "\n");
+            }
+        }
+    }
+
+    private void writeChunk(OutputStream body, String chunk) throws IOException {
+        body.write(chunk.getBytes(StandardCharsets.UTF_8));
+        body.flush();
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String tweet(long id) {
+        return "{\"data\":{\"id\":\"" + id + "\",\"author_id\":\"42\",\"text\":\"Java streams\","
+                + "\"created_at\":\"2022-08-01T10:00:00.000Z\"},\"matching_rules\":[{\"id\":\"1\"}]}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+    }
+
+    private long gapMs(int connection) {
+        return TimeUnit.NANOSECONDS.toMillis(connectNanos.get(connection) - connectNanos.get(connection - 1));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
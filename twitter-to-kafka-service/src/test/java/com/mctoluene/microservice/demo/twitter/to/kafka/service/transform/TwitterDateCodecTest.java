@@ -0,0 +1,85 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class TwitterDateCodecTest {
+    private static final DateTimeFormatter REFERENCE_FORMATTER = DateTimeFormatter
+            .ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+    private final TwitterDateCodec codec = new TwitterDateCodec();
+
+    @Test
+    void parsesTheV1LayoutLikeDateTimeFormatter() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            // 1900 to 2100, which covers leap days and the century rules
+            long epochSecond = random.nextLong(-2_208_988_800L, 4_102_444_800L);
+            String createdAt = REFERENCE_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+
+            assertThat(codec.parse(createdAt)).as(createdAt).isEqualTo(epochSecond * 1000);
+        }
+    }
+
+    @Test
+    void parsesZoneOffsetsAndNames() {
+        long expected = Instant.parse("2022-08-01T10:00:00Z").toEpochMilli();
+
+        assertThat(codec.parse("Mon Aug 01 15:30:00 +0530 2022")).isEqualTo(expected);
+        assertThat(codec.parse("Mon Aug 01 06:00:00 -0400 2022")).isEqualTo(expected);
+        assertThat(codec.parse("Mon Aug 01 10:00:00 UTC 2022")).isEqualTo(expected);
+        assertThat(codec.parse("Mon Aug 01 10:00:00 GMT 2022")).isEqualTo(expected);
+        assertThat(codec.parse("Mon Aug 01 12:00:00 CEST 2022")).isEqualTo(expected);
+    }
+
+    @Test
+    void parsesTheV2IsoLayout() {
+        long expected = Instant.parse("2024-02-29T23:59:59Z").toEpochMilli();
+
+        assertThat(codec.parse("2024-02-29T23:59:59Z")).isEqualTo(expected);
+        assertThat(codec.parse("2024-02-29T23:59:59.000Z")).isEqualTo(expected);
+        assertThat(codec.parse("2024-02-29T23:59:59.5Z")).isEqualTo(expected + 500);
+        assertThat(codec.parse("2024-02-29T23:59:59.123Z")).isEqualTo(expected + 123);
+        assertThat(codec.parse("2024-03-01T01:59:59+02:00")).isEqualTo(expected);
+    }
+
+    @Test
+    void parsesFromAnOffsetIntoACharArray() {
+        char[] chars = "xx2022-08-01T10:00:00Zyy".toCharArray();
+
+        assertThat(codec.parse(chars, 2, 20)).isEqualTo(Instant.parse("2022-08-01T10:00:00Z").toEpochMilli());
+    }
+
+    @Test
+    void rejectsMalformedDates() {
+        assertThatThrownBy(() -> codec.parse("Mon Foo 01 10:00:00 +0000 2022"))
+                .isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> codec.parse("Mon Aug 01 25:00:00 +0000 2022"))
+                .isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> codec.parse("Mon Aug 01 10:00:00 XYZW 2022"))
+                .isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> codec.parse("2022-08-01T10:00:0aZ")).isInstanceOf(DateTimeParseException.class);
+        assertThatThrownBy(() -> codec.parse("yesterday")).isInstanceOf(DateTimeParseException.class);
+    }
+
+    @Test
+    void formatsInTheV1LayoutAndRoundTrips() {
+        long epochMillis = Instant.parse("2022-08-01T10:00:00.750Z").toEpochMilli();
+
+        String formatted = codec.format(epochMillis);
+
+        assertThat(formatted).isEqualTo("Mon Aug 01 10:00:00 +0000 2022");
+        assertThat(codec.format(epochMillis - 750)).isSameAs(formatted);
+        assertThat(codec.format(epochMillis + 250)).isEqualTo("Mon Aug 01 10:00:01 +0000 2022");
+        assertThat(codec.parse(formatted)).isEqualTo(epochMillis - 750);
+    }
+}
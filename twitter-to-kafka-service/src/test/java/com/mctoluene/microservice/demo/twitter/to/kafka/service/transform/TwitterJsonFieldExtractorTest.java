@@ -0,0 +1,93 @@
+package com.mctoluene.microservice.demo.twitter.to.kafka.service.transform;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.mctoluene.microservice.demo.kafka.avro.model.TwitterAvroModel;
+
+class TwitterJsonFieldExtractorTest {
+    private static final Instant CREATED_AT = Instant.parse("2022-08-01T10:00:00Z");
+
+    private final TwitterJsonFieldExtractor extractor = new TwitterJsonFieldExtractor(new TwitterDateCodec());
+
+    @Test
+    void extractsTheV1Layout() throws IOException {
+        TwitterAvroModel model = extract("{\"created_at\":\"Mon Aug 01 10:00:00 +0000 2022\",\"id\":1001,"
+                + "\"id_str\":\"1001\",\"text\":\"Java streams\",\"entities\":{\"hashtags\":[{\"text\":\"x\"}]},"
+                + "\"user\":{\"id\":42,\"name\":\"someone\",\"entities\":{}},\"lang\":\"en\"}");
+
+        assertThat(model.getId()).isEqualTo(1001L);
+        assertThat(model.getUserId()).isEqualTo(42L);
+        assertThat(model.getText()).isEqualTo("Java streams");
+        assertThat(model.getCreatedAt()).isEqualTo(CREATED_AT);
+        assertThat(model.getLang()).isEqualTo("en");
+    }
+
+    @Test
+    void extractsTheV2Layout() throws IOException {
+        TwitterAvroModel model = extract("{\"data\":{\"author_id\":\"42\",\"created_at\":\"2022-08-01T10:00:00.250Z\","
+                + "\"id\":\"1001\",\"text\":\"Kafka\",\"lang\":null},\"matching_rules\":[{\"id\":\"1\",\"tag\":\"Kafka\"}]}");
+
+        assertThat(model.getId()).isEqualTo(1001L);
+        assertThat(model.getUserId()).isEqualTo(42L);
+        assertThat(model.getText()).isEqualTo("Kafka");
+        assertThat(model.getCreatedAt()).isEqualTo(CREATED_AT.plusMillis(250));
+        assertThat(model.getLang()).isNull();
+    }
+
+    @Test
+    void rejectsTweetsWithoutIdTextOrCreationTime() throws IOException {
+        assertThat(extract("{\"text\":\"Java\",\"created_at\":\"2022-08-01T10:00:00Z\"}")).isNull();
+        assertThat(extract("{\"id\":1,\"created_at\":\"2022-08-01T10:00:00Z\"}")).isNull();
+        assertThat(extract("{\"id\":1,\"text\":null,\"created_at\":\"2022-08-01T10:00:00Z\"}")).isNull();
+        assertThat(extract("{\"id\":1,\"text\":\"Java\"}")).isNull();
+        assertThat(extract("[]")).isNull();
+    }
+
+    @Test
+    void failsOnMalformedValues() {
+        assertThatThrownBy(() -> extract("{\"id\":\"12a\",\"text\":\"Java\"}")).isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> extract("{\"id\":1,\"text\":\"Java\",\"created_at\":\"yesterday\"}"))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void extractsFromAnOffsetIntoALargerArray() throws IOException {
+        String json = "{\"id\":7,\"text\":\"Java\",\"created_at\":\"2022-08-01T10:00:00Z\"}";
+        byte[] bytes = ("garbage" + json + "garbage").getBytes(StandardCharsets.UTF_8);
+
+        TwitterAvroModel model = extractor.extract(bytes, 7, json.length());
+
+        assertThat(model.getId()).isEqualTo(7L);
+    }
+
+    @Test
+    void overwritesEveryFieldOfAReusedModel() throws IOException {
+        TwitterAvroModel target = TwitterAvroModel.newBuilder().setId(1).setUserId(2).setText("old")
+                .setCreatedAt(CREATED_AT).setKeyword("Java").setKeywords(List.of("Java")).setLang("en").build();
+        byte[] json = "{\"id\":3,\"text\":\"new\",\"created_at\":\"2022-08-01T10:00:01Z\"}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertThat(extractor.extract(json, 0, json.length, target)).isTrue();
+
+        assertThat(target.getId()).isEqualTo(3L);
+        assertThat(target.getUserId()).isZero();
+        assertThat(target.getText()).isEqualTo("new");
+        assertThat(target.getCreatedAt()).isEqualTo(CREATED_AT.plusSeconds(1));
+        assertThat(target.getKeyword()).isNull();
+        assertThat(target.getKeywords()).isEmpty();
+        assertThat(target.getLang()).isNull();
+    }
+
+    private TwitterAvroModel extract(String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return extractor.extract(bytes, 0, bytes.length);
+    }
+}